@@ -0,0 +1,60 @@
+package com.yt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 整次同步的耗時，比較固定線程池、管線模式與虛擬線程模式；更詳細的行/秒與分配速率見 SyncHarness
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"PLATFORM", "PIPELINED", "VIRTUAL"})
+    private String mode;
+
+    @Param({"8"})
+    private int tables;
+
+    @Param({"100000"})
+    private long rows;
+
+    @Param({"16"})
+    private int width;
+
+    private SyncHarness harness;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        harness = new SyncHarness(new SyncHarness.Settings()
+            .set("mode", mode)
+            .set("tables", Integer.toString(tables))
+            .set("rows", Long.toString(rows))
+            .set("width", Integer.toString(width)));
+    }
+
+    @Benchmark
+    public SyncHarness.Result syncTables() {
+        return harness.run();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        harness.close();
+    }
+}
@@ -0,0 +1,108 @@
+package com.yt.benchmark;
+
+import com.yt.model.TableMetadata;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 基準測試用的表：ID NUMBER(18) 主鍵，其餘列依次為 NUMBER(9)、VARCHAR2(40)、NUMBER(12,2)、TIMESTAMP(6)，
+// 循環到指定列數；每行的值由行號決定，重複運行的數據相同
+public final class GeneratedTable {
+    private static final long BASE_MILLIS = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+    private static final int INSERT_BATCH = 1000;
+
+    private GeneratedTable() {
+    }
+
+    public static TableMetadata metadata(String tableName, int width) {
+        TableMetadata metadata = new TableMetadata(tableName);
+        metadata.addColumn(new TableMetadata.ColumnMetadata("ID", "NUMBER", 0, 18, 0, false, 1));
+        for (int i = 1; i < width; i++) {
+            String name = "C" + i;
+            switch (i % 4) {
+                case 1:
+                    metadata.addColumn(new TableMetadata.ColumnMetadata(name, "NUMBER", 0, 9, 0, true, i + 1));
+                    break;
+                case 2:
+                    metadata.addColumn(new TableMetadata.ColumnMetadata(name, "VARCHAR2", 40, 0, 0, true, i + 1));
+                    break;
+                case 3:
+                    metadata.addColumn(new TableMetadata.ColumnMetadata(name, "NUMBER", 0, 12, 2, true, i + 1));
+                    break;
+                default:
+                    metadata.addColumn(new TableMetadata.ColumnMetadata(name, "TIMESTAMP(6)", 0, 0, 0, true, i + 1));
+                    break;
+            }
+        }
+        metadata.addPrimaryKey("ID");
+        return metadata;
+    }
+
+    public static void create(Connection conn, String tableName, int width) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        for (TableMetadata.ColumnMetadata column : metadata(tableName, width).getColumns()) {
+            String type = column.getDataType();
+            if (type.equals("NUMBER")) {
+                type += "(" + column.getDataPrecision() + (column.getDataScale() > 0 ? "," + column.getDataScale() : "") + ")";
+            } else if (type.equals("VARCHAR2")) {
+                type += "(" + column.getDataLength() + ")";
+            }
+            columns.add(column.getName() + " " + type + (column.isNullable() ? "" : " NOT NULL"));
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + tableName + " (" + String.join(", ", columns) +
+                ", CONSTRAINT PK_" + tableName + " PRIMARY KEY (ID))");
+        }
+    }
+
+    public static void populate(Connection conn, String tableName, int width, long rows) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + tableName + " VALUES (" +
+                String.join(",", Collections.nCopies(width, "?")) + ")")) {
+            for (long id = 1; id <= rows; id++) {
+                for (int column = 0; column < width; column++) {
+                    stmt.setObject(column + 1, value(column, id));
+                }
+                stmt.addBatch();
+                if (id % INSERT_BATCH == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE " + tableName);
+        }
+    }
+
+    // 值的 Java 類型與該列 ColumnBinder.read 返回的類型相同；每 10 行一個空值
+    public static Object value(int column, long id) {
+        if (column == 0) {
+            return id;
+        }
+        if (id % 10 == column % 10) {
+            return null;
+        }
+        switch (column % 4) {
+            case 1:
+                return (int) (id * 31 + column);
+            case 2:
+                return "value-" + id + "-" + column;
+            case 3:
+                return BigDecimal.valueOf(id * 7 + column, 2);
+            default:
+                return new Timestamp(BASE_MILLIS + id * 1000 + column);
+        }
+    }
+}
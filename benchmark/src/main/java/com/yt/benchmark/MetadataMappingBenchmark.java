@@ -0,0 +1,101 @@
+package com.yt.benchmark;
+
+import com.yt.binder.ColumnBinders;
+import com.yt.model.TableMetadata;
+import com.yt.service.MetadataLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 結構映射：批量數據字典查詢結果映射為 TableMetadata（無緩存與命中本地緩存兩種），
+// 按列類型選擇 ColumnBinder，以及結構驗證時的 TableMetadata 比較
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataMappingBenchmark {
+    private static final int WIDTH = 16;
+
+    @Param({"10", "200"})
+    private int tables;
+
+    private Connection conn;
+    private final List<String> tableNames = new ArrayList<>();
+    private Path cacheFile;
+    private TableMetadata metadata;
+    private TableMetadata sameMetadata;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:;MODE=Oracle", "sa", "");
+        H2Dictionary.install(conn);
+        for (int i = 1; i <= tables; i++) {
+            String tableName = "META_" + i;
+            GeneratedTable.create(conn, tableName, WIDTH);
+            tableNames.add(tableName);
+        }
+        cacheFile = Files.createTempFile("dbsync-bench", ".dictionary");
+        new MetadataLoader("源", cacheFile).load(conn, tableNames);
+        metadata = GeneratedTable.metadata("META_1", WIDTH);
+        sameMetadata = GeneratedTable.metadata("META_1", WIDTH);
+    }
+
+    @Benchmark
+    public MetadataLoader loadFromDictionary() throws SQLException {
+        MetadataLoader loader = new MetadataLoader("源", null);
+        loader.load(conn, tableNames);
+        return loader;
+    }
+
+    @Benchmark
+    public MetadataLoader loadFromCache() throws SQLException {
+        MetadataLoader loader = new MetadataLoader("源", cacheFile);
+        loader.load(conn, tableNames);
+        return loader;
+    }
+
+    @Benchmark
+    public void selectBinders(Blackhole blackhole) {
+        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+            blackhole.consume(ColumnBinders.forColumn(column));
+        }
+    }
+
+    @Benchmark
+    public boolean compareStructure() {
+        return metadata.equals(sameMetadata);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+        conn.close();
+        Files.deleteIfExists(cacheFile);
+    }
+}
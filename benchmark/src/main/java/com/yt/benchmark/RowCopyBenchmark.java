@@ -0,0 +1,127 @@
+package com.yt.benchmark;
+
+import com.yt.binder.RowCopier;
+import com.yt.model.TableMetadata;
+import com.yt.service.TablePlan;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+// 逐行複製的內層循環：從結果集讀出一行並綁定到插入語句。比較按列類型專用的 ColumnBinder、
+// 改用前的 getObject/setObject，以及管線模式先讀出值再寫入的方式。
+// 源是內存中的 SimpleResultSet，目標是 H2 內存庫的 INSERT 語句，只 addBatch 不執行，只測綁定本身
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(RowCopyBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowCopyBenchmark {
+    static final int ROWS = 1000;
+
+    @Param({"8", "32"})
+    private int width;
+
+    private Connection conn;
+    private PreparedStatement insertStmt;
+    private SimpleResultSet rs;
+    private TablePlan plan;
+    private RowCopier copier;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:;MODE=Oracle", "sa", "");
+        GeneratedTable.create(conn, "ROW_COPY", width);
+        TableMetadata metadata = GeneratedTable.metadata("ROW_COPY", width);
+        plan = new TablePlan(metadata, false);
+        copier = plan.newRowCopier();
+        insertStmt = conn.prepareStatement(plan.getInsertSql());
+
+        rs = new SimpleResultSet();
+        rs.setAutoClose(false);
+        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+            rs.addColumn(column.getName(), sqlType(column), column.getDataPrecision(), column.getDataScale());
+        }
+        for (long id = 1; id <= ROWS; id++) {
+            Object[] row = new Object[width];
+            for (int i = 0; i < width; i++) {
+                row[i] = GeneratedTable.value(i, id);
+            }
+            rs.addRow(row);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void rewind() throws SQLException {
+        rs.beforeFirst();
+        insertStmt.clearBatch();
+    }
+
+    @Benchmark
+    public void columnBinders() throws SQLException {
+        while (rs.next()) {
+            copier.copyRow(rs, insertStmt);
+            insertStmt.addBatch();
+        }
+    }
+
+    @Benchmark
+    public void getObjectSetObject() throws SQLException {
+        int columns = plan.getColumnCount();
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                insertStmt.setObject(i, rs.getObject(i));
+            }
+            insertStmt.addBatch();
+        }
+    }
+
+    @Benchmark
+    public void readThenWrite() throws SQLException {
+        while (rs.next()) {
+            Object[] row = plan.readRow(rs);
+            plan.writeRow(insertStmt, row);
+            insertStmt.addBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+        conn.close();
+    }
+
+    private static int sqlType(TableMetadata.ColumnMetadata column) {
+        switch (column.getDataType()) {
+            case "NUMBER":
+                return Types.NUMERIC;
+            case "VARCHAR2":
+                return Types.VARCHAR;
+            default:
+                return Types.TIMESTAMP;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.yt.benchmark;
+
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import com.yt.service.TablePlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// SQL 生成：每張表構建一次同步計劃（INSERT 與增量的 MERGE），每個批次拼接一次查詢語句
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlGenerationBenchmark {
+
+    @Param({"8", "32", "128"})
+    private int width;
+
+    private TableMetadata metadata;
+    private TablePlan plan;
+    private Chunk chunk;
+
+    @Setup
+    public void setUp() {
+        metadata = GeneratedTable.metadata("SQL_GEN", width);
+        plan = new TablePlan(metadata, true);
+        chunk = Chunk.keyRange(0, "ID >= ? AND ID < ?", List.of(1L, 3001L));
+    }
+
+    @Benchmark
+    public TablePlan insertPlan() {
+        return new TablePlan(metadata, false);
+    }
+
+    @Benchmark
+    public TablePlan mergePlan() {
+        return new TablePlan(metadata, true);
+    }
+
+    @Benchmark
+    public String chunkSelectSql() {
+        return plan.getSelectSql(chunk);
+    }
+
+    @Benchmark
+    public String dbLinkInsertSql() {
+        return plan.getDbLinkInsertSql("SOURCE_LINK", false) + chunk.toSqlClause();
+    }
+}
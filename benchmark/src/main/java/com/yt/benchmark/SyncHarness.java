@@ -0,0 +1,235 @@
+package com.yt.benchmark;
+
+import com.yt.chunk.ChunkingStrategy;
+import com.yt.config.DatabaseConfig;
+import com.yt.config.PoolSizing;
+import com.yt.config.SyncOptions;
+import com.yt.model.TableSpec;
+import com.yt.service.SyncService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+// 端到端吞吐量測試：在兩個內存 H2 數據庫（Oracle 兼容模式）之間運行 SyncService.syncTables，
+// 報告每次運行的行/秒、分配速率與 GC 時間。兩端在同一進程內，沒有網絡往返，測得的是客戶端的處理開銷
+//
+// 用法: java -cp target/benchmarks.jar com.yt.benchmark.SyncHarness --tables=4 --rows=200000 --width=16
+//       --mode=PLATFORM|PIPELINED|VIRTUAL --strategy=KEYSET|OFFSET --dbThreads=2 --tableThreads=4 --iterations=5
+public class SyncHarness implements AutoCloseable {
+    private final Settings settings;
+    private final Path workDir;
+    private final List<TableSpec> tables = new ArrayList<>();
+    private final Connection sourceKeepAlive;
+    private final Connection targetKeepAlive;
+    private final DatabaseConfig sourceDb;
+    private final DatabaseConfig targetDb;
+
+    public SyncHarness(Settings settings) throws SQLException, IOException {
+        this.settings = settings;
+        this.workDir = Files.createTempDirectory("dbsync-bench");
+        String suffix = Long.toString(System.nanoTime());
+        String sourceUrl = "jdbc:h2:mem:source" + suffix + ";MODE=Oracle;DB_CLOSE_DELAY=-1";
+        String targetUrl = "jdbc:h2:mem:target" + suffix + ";MODE=Oracle;DB_CLOSE_DELAY=-1";
+        this.sourceKeepAlive = DriverManager.getConnection(sourceUrl, "sa", "");
+        this.targetKeepAlive = DriverManager.getConnection(targetUrl, "sa", "");
+        H2Dictionary.install(sourceKeepAlive);
+        H2Dictionary.install(targetKeepAlive);
+        for (int i = 1; i <= settings.tables; i++) {
+            String tableName = "BENCH_" + i;
+            GeneratedTable.create(sourceKeepAlive, tableName, settings.width);
+            GeneratedTable.populate(sourceKeepAlive, tableName, settings.width, settings.rows);
+            tables.add(new TableSpec(tableName, null));
+        }
+
+        PoolSizing poolSizing = PoolSizing.forOptions(newOptions());
+        this.sourceDb = new DatabaseConfig(writeConfig("source.properties", sourceUrl).toFile(),
+            poolSizing.getSourcePoolSize());
+        this.targetDb = new DatabaseConfig(writeConfig("target.properties", targetUrl).toFile(),
+            poolSizing.getTargetPoolSize());
+    }
+
+    // 一次完整的同步（清空目標表後全量複製）；第一次運行還包括在目標端建表
+    public Result run() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long gcBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+
+        SyncService syncService = new SyncService(sourceDb, List.of(targetDb), newOptions());
+        try {
+            syncService.syncTables(tables);
+        } finally {
+            syncService.shutdown();
+        }
+
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        long gcMillis = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum() - gcBefore;
+        return new Result((long) settings.tables * settings.rows, nanos, allocated, gcMillis);
+    }
+
+    private SyncOptions newOptions() {
+        SyncOptions options = new SyncOptions();
+        options.setFetchSize(settings.fetchSize);
+        options.setDbThreads(settings.dbThreads);
+        options.setTableThreads(settings.tableThreads);
+        options.setVirtualThreads(settings.mode == Mode.VIRTUAL);
+        options.setPipelined(settings.mode == Mode.PIPELINED);
+        options.setChunkingStrategy(settings.strategy);
+        options.setTruncateTarget(true);
+        options.setWatermarkFile(workDir.resolve("tablelist.watermark"));
+        options.setJournalFile(workDir.resolve("tablelist.journal"));
+        options.setMetricsFile(workDir.resolve("tablelist.metrics"));
+        options.setMetadataCacheFile(workDir.resolve("tablelist.dictionary"));
+        options.setFailureFile(workDir.resolve("tablelist.failed"));
+        return options;
+    }
+
+    private Path writeConfig(String fileName, String url) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        props.setProperty("username", "sa");
+        props.setProperty("password", "");
+        Path file = workDir.resolve(fileName);
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            props.store(writer, null);
+        }
+        return file;
+    }
+
+    @Override
+    public void close() throws SQLException, IOException {
+        sourceDb.close();
+        targetDb.close();
+        for (Connection conn : List.of(sourceKeepAlive, targetKeepAlive)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SHUTDOWN");
+            }
+            conn.close();
+        }
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        System.out.printf("表 %d 張 × %d 行，每行 %d 列，模式 %s，分批 %s，DB 線程 %d，Table 線程 %d%n",
+            settings.tables, settings.rows, settings.width, settings.mode, settings.strategy,
+            settings.dbThreads, settings.tableThreads);
+        try (SyncHarness harness = new SyncHarness(settings)) {
+            List<Result> measured = new ArrayList<>();
+            for (int i = 0; i <= settings.iterations; i++) {
+                Result result = harness.run();
+                // 第一次運行包括建表與 JIT 預熱，不計入結果
+                System.out.printf("%s %d: %s%n", i == 0 ? "預熱" : "運行", i, result);
+                if (i > 0) {
+                    measured.add(result);
+                }
+            }
+            double rowsPerSecond = measured.stream().mapToDouble(Result::getRowsPerSecond).average().orElse(0);
+            double allocationRate = measured.stream().mapToDouble(Result::getAllocationMbPerSecond).average().orElse(0);
+            double bytesPerRow = measured.stream().mapToDouble(Result::getBytesPerRow).average().orElse(0);
+            System.out.printf("平均: %.0f 行/秒，分配 %.1f MB/秒，每行 %.0f 字節%n",
+                rowsPerSecond, allocationRate, bytesPerRow);
+        }
+    }
+
+    public enum Mode {
+        PLATFORM, PIPELINED, VIRTUAL
+    }
+
+    public static class Settings {
+        private int tables = 4;
+        private long rows = 200_000;
+        private int width = 16;
+        private Mode mode = Mode.PLATFORM;
+        private ChunkingStrategy strategy = ChunkingStrategy.KEYSET;
+        private int dbThreads = 2;
+        private int tableThreads = 4;
+        private int fetchSize = 3000;
+        private int iterations = 5;
+
+        // --key=value 形式的參數，未指定的使用默認值
+        public static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("參數格式應為 --key=value: " + arg);
+                }
+                settings.set(parts[0], parts[1]);
+            }
+            return settings;
+        }
+
+        public Settings set(String key, String value) {
+            switch (key) {
+                case "tables" -> tables = Integer.parseInt(value);
+                case "rows" -> rows = Long.parseLong(value);
+                case "width" -> width = Integer.parseInt(value);
+                case "mode" -> mode = Mode.valueOf(value.toUpperCase());
+                case "strategy" -> strategy = ChunkingStrategy.valueOf(value.toUpperCase());
+                case "dbThreads" -> dbThreads = Integer.parseInt(value);
+                case "tableThreads" -> tableThreads = Integer.parseInt(value);
+                case "fetchSize" -> fetchSize = Integer.parseInt(value);
+                case "iterations" -> iterations = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("未知參數: " + key);
+            }
+            return this;
+        }
+    }
+
+    public static class Result {
+        private final long rows;
+        private final long nanos;
+        private final long allocatedBytes;
+        private final long gcMillis;
+
+        public Result(long rows, long nanos, long allocatedBytes, long gcMillis) {
+            this.rows = rows;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.gcMillis = gcMillis;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public double getRowsPerSecond() {
+            return rows * 1e9 / nanos;
+        }
+
+        public double getAllocationMbPerSecond() {
+            return allocatedBytes / (1024.0 * 1024.0) * 1e9 / nanos;
+        }
+
+        public double getBytesPerRow() {
+            return (double) allocatedBytes / rows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d 行，%.2f 秒，%.0f 行/秒，分配 %.1f MB/秒（每行 %.0f 字節），GC %d ms",
+                rows, nanos / 1e9, getRowsPerSecond(), getAllocationMbPerSecond(), getBytesPerRow(), gcMillis);
+        }
+    }
+}
@@ -8,17 +8,24 @@
 
 package com.yt;
 
+import com.yt.chunk.ChunkingStrategy;
 import com.yt.config.DatabaseConfig;
+import com.yt.config.JobConfig;
+import com.yt.config.PoolSizing;
+import com.yt.config.SyncOptions;
 import com.yt.exception.DBSyncException;
+import com.yt.model.TableSpec;
+import com.yt.service.SpillExporter;
+import com.yt.service.SpillImporter;
 import com.yt.service.SyncService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import java.util.stream.Collectors;
@@ -29,6 +36,16 @@ public class Main {
 
     public static void main(String[] args) {
         try {
+            // 作業文件模式：所有設置從文件讀取，不詢問，適合排程運行
+            if (args.length > 0 && args[0].equals("--job")) {
+                if (args.length < 2) {
+                    throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                        "用法: --job <作業文件路徑>");
+                }
+                runJob(JobConfig.load(Paths.get(args[1])));
+                return;
+            }
+
             // 解析命令行參數
             int fetchSize = args.length > 0 ? 
                 Math.min(Integer.parseInt(args[0]), DEFAULT_FETCH_SIZE) : 
@@ -36,50 +53,121 @@ public class Main {
 
             // 獲取用戶輸入
             Scanner scanner = new Scanner(System.in);
+
+            System.out.print("請選擇運行模式 SYNC/EXPORT/IMPORT (EXPORT/IMPORT 為經文件的離線傳輸): ");
+            String mode = scanner.next().toUpperCase();
+            if (mode.equals("EXPORT") || mode.equals("IMPORT")) {
+                runSpill(mode.equals("EXPORT"), scanner, fetchSize);
+                scanner.close();
+                return;
+            }
             
-            System.out.print("請輸入同步時DB Thread 數量: ");
-            int dbThreads = scanner.nextInt();
-            
-            System.out.print("請輸入同步時Table Thread 數量: ");
-            int tableThreads = scanner.nextInt();
+            System.out.print("是否使用虛擬線程模式 (並發數按連接池自動決定) Y/N: ");
+            boolean virtualThreads = scanner.next().equalsIgnoreCase("Y");
+            int dbThreads = 1;
+            int tableThreads = 1;
+            if (!virtualThreads) {
+                System.out.print("請輸入同步時DB Thread 數量: ");
+                dbThreads = scanner.nextInt();
+
+                System.out.print("請輸入同步時Table Thread 數量: ");
+                tableThreads = scanner.nextInt();
+            }
             
             System.out.print("請確認是否清空目的DB的表 Y/N: ");
             boolean truncateTarget = scanner.next().equalsIgnoreCase("Y");
+            boolean directPath = false;
+            boolean noLogging = false;
+            int rebuildParallelism = 0;
+            boolean diffSync = false;
+            if (truncateTarget) {
+                System.out.print("是否使用直接路徑裝載 (APPEND_VALUES) Y/N: ");
+                directPath = scanner.next().equalsIgnoreCase("Y");
+            } else {
+                System.out.print("是否使用差異同步 (只重新複製哈希不一致的主鍵範圍) Y/N: ");
+                diffSync = scanner.next().equalsIgnoreCase("Y");
+            }
+            if (directPath) {
+                System.out.print("裝載期間是否將目標表設為 NOLOGGING Y/N: ");
+                noLogging = scanner.next().equalsIgnoreCase("Y");
+                System.out.print("請輸入索引重建並行度: ");
+                rebuildParallelism = scanner.nextInt();
+            }
+
+            System.out.print("同步後是否校驗源與目標數據 Y/N: ");
+            boolean verify = scanner.next().equalsIgnoreCase("Y");
+
+            System.out.print("請選擇分批模式 KEYSET/ROWID/OFFSET: ");
+            ChunkingStrategy chunkingStrategy = ChunkingStrategy.valueOf(scanner.next().toUpperCase());
+
+            boolean pipelined = false;
+            if (!virtualThreads) {
+                System.out.print("是否啟用讀寫管線模式 Y/N: ");
+                pipelined = scanner.next().equalsIgnoreCase("Y");
+            }
+            int pipelineWriters = 0;
+            if (pipelined) {
+                System.out.print("請輸入每表寫入 Thread 數量: ");
+                pipelineWriters = scanner.nextInt();
+            }
             
             System.out.print("請輸入來源DB配置文件路徑: ");
             File sourceDbConfig = new File(scanner.next());
             
-            System.out.print("請輸入目的DB配置文件路徑: ");
-            File targetDbConfig = new File(scanner.next());
+            System.out.print("請輸入目的DB配置文件路徑 (多個目標以逗號分隔): ");
+            List<File> targetDbConfigs = Arrays.stream(scanner.next().split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(File::new)
+                .collect(Collectors.toList());
+
+            // 多目標扇出：每批源數據只讀一次，經管線分發給各目標的寫入線程
+            int pipelineBufferBatches = 0;
+            if (targetDbConfigs.size() > 1 && !virtualThreads) {
+                if (!pipelined) {
+                    pipelined = true;
+                    System.out.print("多目標同步使用讀寫管線，請輸入每表每目標寫入 Thread 數量: ");
+                    pipelineWriters = scanner.nextInt();
+                }
+                System.out.print("請輸入每個目標最多緩衝的批數 (最慢的目標緩衝滿時讀取暫停): ");
+                pipelineBufferBatches = scanner.nextInt();
+            }
             
             System.out.print("請輸入表清單文件路徑: ");
             String tableListPath = scanner.next();
 
-            // 初始化數據庫配置
-            DatabaseConfig sourceDb = new DatabaseConfig(sourceDbConfig);
-            DatabaseConfig targetDb = new DatabaseConfig(targetDbConfig);
-
             // 讀取表清單
-            List<String> tables = readTableList(tableListPath);
-            logger.info("讀取到 {} 個表需要同步", tables.size());
+            List<TableSpec> tables = TableSpec.readList(Paths.get(tableListPath));
 
             // 創建同步服務
-            SyncService syncService = new SyncService(
-                sourceDb, targetDb, fetchSize, dbThreads, tableThreads, truncateTarget);
+            SyncOptions options = new SyncOptions();
+            options.setFetchSize(fetchSize);
+            options.setVirtualThreads(virtualThreads);
+            options.setDbThreads(dbThreads);
+            options.setTableThreads(tableThreads);
+            options.setTruncateTarget(truncateTarget);
+            options.setChunkingStrategy(chunkingStrategy);
+            options.setPipelined(pipelined);
+            options.setDirectPath(directPath);
+            options.setVerify(verify);
+            options.setDiffSync(diffSync);
+            if (directPath) {
+                options.setNoLogging(noLogging);
+                options.setRebuildParallelism(rebuildParallelism);
+            }
+            options.setWatermarkFile(Paths.get(tableListPath + ".watermark"));
+            options.setJournalFile(Paths.get(tableListPath + ".journal"));
+            options.setMetricsFile(Paths.get(tableListPath + ".metrics"));
+            options.setMetadataCacheFile(Paths.get(tableListPath + ".dictionary"));
+            options.setFailureFile(Paths.get(tableListPath + ".failed"));
+            if (pipelined) {
+                options.setPipelineWriters(pipelineWriters);
+            }
+            if (pipelineBufferBatches > 0) {
+                options.setPipelineBufferBatches(pipelineBufferBatches);
+            }
 
-            // 開始同步
-            long startTime = System.currentTimeMillis();
-            logger.info("開始數據同步...");
-            
-            syncService.syncTables(tables);
-            
-            long endTime = System.currentTimeMillis();
-            logger.info("數據同步完成，總耗時: {} 秒", (endTime - startTime) / 1000);
-
-            // 關閉資源
-            syncService.shutdown();
-            sourceDb.close();
-            targetDb.close();
+            runSync(options, sourceDbConfig, targetDbConfigs, tables);
             scanner.close();
 
         } catch (DBSyncException e) {
@@ -92,12 +180,109 @@ public class Main {
         }
     }
 
-    private static List<String> readTableList(String path) throws IOException {
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path))) {
-            return reader.lines()
-                .filter(line -> !line.trim().isEmpty())
-                .map(String::toUpperCase)
-                .collect(Collectors.toList());
+    private static void runJob(JobConfig job) {
+        logger.info("按作業文件運行: 模式 {}，{} 個表", job.getMode(), job.getTables().size());
+        switch (job.getMode()) {
+            case "EXPORT":
+                runSpill(true, job.getOptions(), job.getSourceConfig(), job.getTables());
+                break;
+            case "IMPORT":
+                runSpill(false, job.getOptions(), job.getTargetConfigs().get(0), job.getTables());
+                break;
+            default:
+                runSync(job.getOptions(), job.getSourceConfig(), job.getTargetConfigs(), job.getTables());
+                break;
+        }
+    }
+
+    private static void runSync(SyncOptions options, File sourceDbConfig, List<File> targetDbConfigs,
+                                List<TableSpec> tables) {
+        logger.info("讀取到 {} 個表需要同步", tables.size());
+
+        // 按並發模型計算連接池大小，初始化數據庫配置
+        PoolSizing poolSizing = PoolSizing.forOptions(options);
+        DatabaseConfig sourceDb = new DatabaseConfig(sourceDbConfig, poolSizing.getSourcePoolSize());
+        List<DatabaseConfig> targetDbs = new ArrayList<>();
+        for (File targetDbConfig : targetDbConfigs) {
+            targetDbs.add(new DatabaseConfig(targetDbConfig, poolSizing.getTargetPoolSize()));
+        }
+        SyncService syncService = new SyncService(sourceDb, targetDbs, options);
+
+        // 開始同步
+        long startTime = System.currentTimeMillis();
+        logger.info("開始數據同步...");
+
+        syncService.syncTables(tables);
+
+        long endTime = System.currentTimeMillis();
+        logger.info("數據同步完成，總耗時: {} 秒", (endTime - startTime) / 1000);
+
+        // 關閉資源
+        syncService.shutdown();
+        sourceDb.close();
+        targetDbs.forEach(DatabaseConfig::close);
+    }
+
+    // 離線傳輸：導出只連接源庫，導入只連接目標庫
+    private static void runSpill(boolean export, Scanner scanner, int fetchSize) throws IOException {
+        System.out.print("請輸入同步時DB Thread 數量: ");
+        int dbThreads = scanner.nextInt();
+
+        System.out.print("請輸入同步時Table Thread 數量: ");
+        int tableThreads = scanner.nextInt();
+
+        SyncOptions options = new SyncOptions();
+        options.setFetchSize(fetchSize);
+        options.setDbThreads(dbThreads);
+        options.setTableThreads(tableThreads);
+        if (export) {
+            System.out.print("請選擇分批模式 KEYSET/ROWID/OFFSET: ");
+            options.setChunkingStrategy(ChunkingStrategy.valueOf(scanner.next().toUpperCase()));
+        } else {
+            System.out.print("請確認是否清空目的DB的表 Y/N: ");
+            options.setTruncateTarget(scanner.next().equalsIgnoreCase("Y"));
+        }
+
+        System.out.print("請輸入導出文件目錄: ");
+        options.setSpillDirectory(Paths.get(scanner.next()));
+
+        System.out.print(export ? "請輸入來源DB配置文件路徑: " : "請輸入目的DB配置文件路徑: ");
+        File dbConfig = new File(scanner.next());
+
+        System.out.print("請輸入表清單文件路徑: ");
+        String tableListPath = scanner.next();
+        List<TableSpec> tables = TableSpec.readList(Paths.get(tableListPath));
+        options.setMetadataCacheFile(Paths.get(tableListPath + ".dictionary"));
+        runSpill(export, options, dbConfig, tables);
+    }
+
+    private static void runSpill(boolean export, SyncOptions options, File dbConfig, List<TableSpec> tables) {
+        PoolSizing poolSizing = PoolSizing.forOptions(options);
+        DatabaseConfig db = new DatabaseConfig(dbConfig,
+            export ? poolSizing.getSourcePoolSize() : poolSizing.getTargetPoolSize());
+        long startTime = System.currentTimeMillis();
+        try {
+            if (export) {
+                logger.info("開始導出 {} 個表到 {}", tables.size(), options.getSpillDirectory());
+                SpillExporter exporter = new SpillExporter(db, options);
+                try {
+                    exporter.exportTables(tables);
+                } finally {
+                    exporter.shutdown();
+                }
+            } else {
+                logger.info("開始從 {} 導入 {} 個表", options.getSpillDirectory(), tables.size());
+                SpillImporter importer = new SpillImporter(db, options);
+                try {
+                    importer.importTables(tables);
+                } finally {
+                    importer.shutdown();
+                }
+            }
+        } finally {
+            db.close();
         }
+        logger.info("{}完成，總耗時: {} 秒", export ? "導出" : "導入",
+            (System.currentTimeMillis() - startTime) / 1000);
     }
-}
\ No newline at end of file
+}
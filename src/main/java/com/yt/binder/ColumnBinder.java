@@ -0,0 +1,16 @@
+package com.yt.binder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public interface ColumnBinder {
+
+    // 直接從源結果集複製到目標語句，不經過中間對象
+    void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException;
+
+    // 管線模式下讀取與寫入分屬不同線程，需先讀出值
+    Object read(ResultSet rs, int index) throws SQLException;
+
+    void write(PreparedStatement stmt, int index, Object value) throws SQLException;
+}
@@ -0,0 +1,417 @@
+package com.yt.binder;
+
+import com.yt.model.TableMetadata;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+public enum ColumnBinders implements ColumnBinder {
+    INT {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            int value = rs.getInt(index);
+            if (rs.wasNull()) {
+                stmt.setNull(index, Types.INTEGER);
+            } else {
+                stmt.setInt(index, value);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            int value = rs.getInt(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.INTEGER);
+            } else {
+                stmt.setInt(index, (Integer) value);
+            }
+        }
+    },
+    LONG {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            long value = rs.getLong(index);
+            if (rs.wasNull()) {
+                stmt.setNull(index, Types.BIGINT);
+            } else {
+                stmt.setLong(index, value);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            long value = rs.getLong(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.BIGINT);
+            } else {
+                stmt.setLong(index, (Long) value);
+            }
+        }
+    },
+    DOUBLE {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            double value = rs.getDouble(index);
+            if (rs.wasNull()) {
+                stmt.setNull(index, Types.DOUBLE);
+            } else {
+                stmt.setDouble(index, value);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            double value = rs.getDouble(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.DOUBLE);
+            } else {
+                stmt.setDouble(index, (Double) value);
+            }
+        }
+    },
+    FLOAT {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            float value = rs.getFloat(index);
+            if (rs.wasNull()) {
+                stmt.setNull(index, Types.REAL);
+            } else {
+                stmt.setFloat(index, value);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            float value = rs.getFloat(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.REAL);
+            } else {
+                stmt.setFloat(index, (Float) value);
+            }
+        }
+    },
+    DECIMAL {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            write(stmt, index, rs.getBigDecimal(index));
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getBigDecimal(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.NUMERIC);
+            } else {
+                stmt.setBigDecimal(index, (BigDecimal) value);
+            }
+        }
+    },
+    STRING {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            write(stmt, index, rs.getString(index));
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getString(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.VARCHAR);
+            } else {
+                stmt.setString(index, (String) value);
+            }
+        }
+    },
+    NSTRING {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            write(stmt, index, rs.getNString(index));
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getNString(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.NVARCHAR);
+            } else {
+                stmt.setNString(index, (String) value);
+            }
+        }
+    },
+    TIMESTAMP {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            write(stmt, index, rs.getTimestamp(index));
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getTimestamp(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.TIMESTAMP);
+            } else {
+                stmt.setTimestamp(index, (Timestamp) value);
+            }
+        }
+    },
+    BYTES {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            write(stmt, index, rs.getBytes(index));
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getBytes(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.VARBINARY);
+            } else {
+                stmt.setBytes(index, (byte[]) value);
+            }
+        }
+    },
+    CLOB {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            Reader reader = rs.getCharacterStream(index);
+            if (reader == null) {
+                stmt.setNull(index, Types.CLOB);
+            } else {
+                stmt.setCharacterStream(index, reader);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getString(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.CLOB);
+            } else {
+                stmt.setString(index, (String) value);
+            }
+        }
+    },
+    NCLOB {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            Reader reader = rs.getNCharacterStream(index);
+            if (reader == null) {
+                stmt.setNull(index, Types.NCLOB);
+            } else {
+                stmt.setNCharacterStream(index, reader);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getNString(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.NCLOB);
+            } else {
+                stmt.setNString(index, (String) value);
+            }
+        }
+    },
+    BLOB {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            InputStream stream = rs.getBinaryStream(index);
+            if (stream == null) {
+                stmt.setNull(index, Types.BLOB);
+            } else {
+                stmt.setBinaryStream(index, stream);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getBytes(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.BLOB);
+            } else {
+                stmt.setBytes(index, (byte[]) value);
+            }
+        }
+    },
+    LONG_TEXT {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            Reader reader = rs.getCharacterStream(index);
+            if (reader == null) {
+                stmt.setNull(index, Types.LONGVARCHAR);
+            } else {
+                stmt.setCharacterStream(index, reader);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getString(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.LONGVARCHAR);
+            } else {
+                stmt.setString(index, (String) value);
+            }
+        }
+    },
+    LONG_RAW {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            InputStream stream = rs.getBinaryStream(index);
+            if (stream == null) {
+                stmt.setNull(index, Types.LONGVARBINARY);
+            } else {
+                stmt.setBinaryStream(index, stream);
+            }
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getBytes(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.LONGVARBINARY);
+            } else {
+                stmt.setBytes(index, (byte[]) value);
+            }
+        }
+    },
+    OBJECT {
+        @Override
+        public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+            stmt.setObject(index, rs.getObject(index));
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getObject(index);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            stmt.setObject(index, value);
+        }
+    };
+
+    public boolean isLob() {
+        return this == CLOB || this == NCLOB || this == BLOB;
+    }
+
+    // LONG 類型只能以流讀取，且必須在讀取其後的列之前讀完
+    public boolean isLong() {
+        return this == LONG_TEXT || this == LONG_RAW;
+    }
+
+    // 按列的類型、精度與小數位選擇專用的複製方式
+    public static ColumnBinder forColumn(TableMetadata.ColumnMetadata column) {
+        String dataType = column.getDataType();
+        if (dataType.startsWith("TIMESTAMP")) {
+            return dataType.contains("TIME ZONE") ? OBJECT : TIMESTAMP;
+        }
+        switch (dataType) {
+            case "NUMBER":
+                if (column.getDataPrecision() > 0 && column.getDataScale() == 0) {
+                    if (column.getDataPrecision() <= 9) {
+                        return INT;
+                    }
+                    if (column.getDataPrecision() <= 18) {
+                        return LONG;
+                    }
+                }
+                return DECIMAL;
+            case "FLOAT":
+                return DECIMAL;
+            case "BINARY_DOUBLE":
+                return DOUBLE;
+            case "BINARY_FLOAT":
+                return FLOAT;
+            case "VARCHAR2":
+            case "CHAR":
+                return STRING;
+            case "NVARCHAR2":
+            case "NCHAR":
+                return NSTRING;
+            case "DATE":
+                return TIMESTAMP;
+            case "RAW":
+                return BYTES;
+            case "CLOB":
+                return CLOB;
+            case "NCLOB":
+                return NCLOB;
+            case "BLOB":
+                return BLOB;
+            case "LONG":
+                return LONG_TEXT;
+            case "LONG RAW":
+                return LONG_RAW;
+            default:
+                return OBJECT;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.yt.binder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class LobColumnBinder implements ColumnBinder {
+    private final ColumnBinders kind;
+    private final LobTransfer transfer;
+
+    public LobColumnBinder(ColumnBinders kind, LobTransfer transfer) {
+        this.kind = kind;
+        this.transfer = transfer;
+    }
+
+    @Override
+    public void copy(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+        if (kind == ColumnBinders.BLOB) {
+            transfer.copyBlob(rs, stmt, index);
+        } else {
+            transfer.copyClob(rs, stmt, index, kind == ColumnBinders.NCLOB);
+        }
+    }
+
+    @Override
+    public Object read(ResultSet rs, int index) throws SQLException {
+        return kind.read(rs, index);
+    }
+
+    @Override
+    public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+        kind.write(stmt, index, value);
+    }
+}
@@ -0,0 +1,91 @@
+package com.yt.binder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LobTransfer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 每個工作線程一份固定大小的緩衝區，堆內存佔用與 LOB 大小無關
+    private final char[] charBuffer = new char[BUFFER_SIZE / 2];
+    private final byte[] byteBuffer = new byte[BUFFER_SIZE];
+    private final List<Clob> pendingClobs = new ArrayList<>();
+    private final List<Blob> pendingBlobs = new ArrayList<>();
+    private long pendingBytes;
+
+    // 源 LOB 經緩衝區逐段寫入目標端的臨時 LOB，數據停留在目標庫的臨時表空間
+    public void copyClob(ResultSet rs, PreparedStatement stmt, int index,
+                         boolean national) throws SQLException {
+        Reader reader = national ? rs.getNCharacterStream(index) : rs.getCharacterStream(index);
+        if (reader == null) {
+            stmt.setNull(index, national ? Types.NCLOB : Types.CLOB);
+            return;
+        }
+        Connection targetConn = stmt.getConnection();
+        Clob clob = national ? targetConn.createNClob() : targetConn.createClob();
+        pendingClobs.add(clob);
+        try (Reader in = reader; Writer out = clob.setCharacterStream(1)) {
+            int read;
+            while ((read = in.read(charBuffer)) != -1) {
+                out.write(charBuffer, 0, read);
+                pendingBytes += read * 2L;
+            }
+        } catch (IOException e) {
+            throw new SQLException("複製 CLOB 數據時發生錯誤", e);
+        }
+        stmt.setClob(index, clob);
+    }
+
+    public void copyBlob(ResultSet rs, PreparedStatement stmt, int index) throws SQLException {
+        InputStream stream = rs.getBinaryStream(index);
+        if (stream == null) {
+            stmt.setNull(index, Types.BLOB);
+            return;
+        }
+        Blob blob = stmt.getConnection().createBlob();
+        pendingBlobs.add(blob);
+        try (InputStream in = stream; OutputStream out = blob.setBinaryStream(1)) {
+            int read;
+            while ((read = in.read(byteBuffer)) != -1) {
+                out.write(byteBuffer, 0, read);
+                pendingBytes += read;
+            }
+        } catch (IOException e) {
+            throw new SQLException("複製 BLOB 數據時發生錯誤", e);
+        }
+        stmt.setBlob(index, blob);
+    }
+
+    // 尚未提交到目標表的臨時 LOB 數據量
+    public long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    // 批量插入執行後釋放臨時 LOB
+    public void release() throws SQLException {
+        try {
+            for (Clob clob : pendingClobs) {
+                clob.free();
+            }
+            for (Blob blob : pendingBlobs) {
+                blob.free();
+            }
+        } finally {
+            pendingClobs.clear();
+            pendingBlobs.clear();
+            pendingBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.yt.binder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class RowCopier {
+    // 臨時 LOB 累計超過此大小即提前執行批量插入，行寬很大的表自動縮小批次
+    private static final long LOB_FLUSH_BYTES = 32L * 1024 * 1024;
+
+    private final ColumnBinder[] binders;
+    private final LobTransfer lobTransfer = new LobTransfer();
+
+    // 每個工作線程一份，LOB 列改用帶緩衝區的流式複製
+    public RowCopier(ColumnBinder[] planBinders) {
+        this.binders = planBinders.clone();
+        for (int i = 0; i < binders.length; i++) {
+            if (binders[i] instanceof ColumnBinders && ((ColumnBinders) binders[i]).isLob()) {
+                binders[i] = new LobColumnBinder((ColumnBinders) binders[i], lobTransfer);
+            }
+        }
+    }
+
+    public void copyRow(ResultSet rs, PreparedStatement stmt) throws SQLException {
+        for (int i = 0; i < binders.length; i++) {
+            binders[i].copy(rs, stmt, i + 1);
+        }
+    }
+
+    public boolean isFlushDue() {
+        return lobTransfer.getPendingBytes() >= LOB_FLUSH_BYTES;
+    }
+
+    public void afterBatch() throws SQLException {
+        lobTransfer.release();
+    }
+}
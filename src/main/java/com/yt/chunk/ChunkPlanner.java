@@ -0,0 +1,15 @@
+package com.yt.chunk;
+
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public interface ChunkPlanner {
+
+    // 根據源表資訊將表切分成多個互不重疊且覆蓋全表的分批
+    List<Chunk> plan(Connection sourceConn, TableMetadata metadata,
+                     long totalRows, int chunkSize) throws SQLException;
+}
@@ -0,0 +1,17 @@
+package com.yt.chunk;
+
+public enum ChunkingStrategy {
+    OFFSET("OFFSET/FETCH 分頁"),
+    KEYSET("主鍵範圍分批"),
+    ROWID("ROWID 範圍分批");
+
+    private final String description;
+
+    ChunkingStrategy(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,189 @@
+package com.yt.chunk;
+
+import com.yt.binder.ColumnBinder;
+import com.yt.binder.ColumnBinders;
+import com.yt.exception.DBSyncException;
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class KeysetChunkPlanner implements ChunkPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(KeysetChunkPlanner.class);
+
+    @Override
+    public List<Chunk> plan(Connection sourceConn, TableMetadata metadata,
+                            long totalRows, int chunkSize) throws SQLException {
+        List<String> keys = metadata.getPrimaryKeys();
+        if (keys.isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "表 " + metadata.getTableName() + " 沒有主鍵，無法使用主鍵範圍分批");
+        }
+
+        long chunkCount = (totalRows + chunkSize - 1) / chunkSize;
+        List<Object[]> boundaries = new ArrayList<>();
+        if (chunkCount > 1) {
+            if (keys.size() == 1 && isNumeric(metadata, keys.get(0))) {
+                boundaries = splitNumericRange(sourceConn, metadata, keys.get(0), chunkCount);
+            } else {
+                boundaries = sampleBoundaries(sourceConn, metadata, keys, chunkSize);
+            }
+        }
+
+        List<Chunk> chunks = toChunks(keys, boundaries);
+        logger.debug("表 {} 按主鍵 {} 切分為 {} 個範圍", metadata.getTableName(), keys, chunks.size());
+        return chunks;
+    }
+
+    private boolean isNumeric(TableMetadata metadata, String column) {
+        return metadata.getColumns().stream()
+            .anyMatch(c -> c.getName().equals(column) && c.getDataType().equals("NUMBER"));
+    }
+
+    // 單一數字主鍵：按 MIN/MAX 等距切分，只需一次索引兩端的查詢
+    private List<Object[]> splitNumericRange(Connection conn, TableMetadata metadata,
+                                             String key, long chunkCount) throws SQLException {
+        BigDecimal min;
+        BigDecimal max;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT MIN(" + key + "), MAX(" + key + ") FROM " + metadata.getTableName());
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next() || rs.getBigDecimal(1) == null) {
+                return new ArrayList<>();
+            }
+            min = rs.getBigDecimal(1);
+            max = rs.getBigDecimal(2);
+        }
+
+        boolean integral = min.scale() <= 0 && max.scale() <= 0;
+        BigDecimal step = max.subtract(min)
+            .divide(BigDecimal.valueOf(chunkCount), MathContext.DECIMAL64);
+
+        List<Object[]> boundaries = new ArrayList<>();
+        BigDecimal previous = null;
+        for (long i = 1; i < chunkCount; i++) {
+            BigDecimal boundary = min.add(step.multiply(BigDecimal.valueOf(i)));
+            if (integral) {
+                boundary = boundary.setScale(0, RoundingMode.FLOOR);
+            }
+            // 主鍵稀疏時相鄰邊界可能相同，跳過空範圍
+            if (previous != null && boundary.compareTo(previous) <= 0) {
+                continue;
+            }
+            boundaries.add(new Object[]{boundary});
+            previous = boundary;
+        }
+        return boundaries;
+    }
+
+    // 複合或非數字主鍵：沿主鍵索引每隔 chunkSize 行取一個邊界值
+    private List<Object[]> sampleBoundaries(Connection conn, TableMetadata metadata,
+                                            List<String> keys, int chunkSize) throws SQLException {
+        String keyList = String.join(",", keys);
+        String sql = "SELECT " + keyList + " FROM (SELECT " + keyList +
+                     ", ROW_NUMBER() OVER (ORDER BY " + keyList + ") rn FROM " +
+                     metadata.getTableName() + ") WHERE MOD(rn, ?) = 0 ORDER BY rn";
+
+        // 按列的綁定器讀取邊界值，得到 Timestamp、BigDecimal 等可寫入斷點日誌並原樣還原的類型
+        ColumnBinder[] binders = new ColumnBinder[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            binders[i] = ColumnBinders.forColumn(metadata.getColumn(keys.get(i)));
+        }
+        List<Object[]> boundaries = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, chunkSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Object[] values = new Object[keys.size()];
+                    for (int i = 0; i < keys.size(); i++) {
+                        values[i] = binders[i].read(rs, i + 1);
+                    }
+                    boundaries.add(values);
+                }
+            }
+        }
+        return boundaries;
+    }
+
+    // 首尾兩個範圍不設邊界，保證規劃後新增的數據也能被覆蓋
+    static List<Chunk> toChunks(List<String> keys, List<Object[]> boundaries) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i <= boundaries.size(); i++) {
+            StringBuilder predicate = new StringBuilder();
+            List<Object> params = new ArrayList<>();
+            if (i > 0) {
+                appendGreaterThan(keys, boundaries.get(i - 1), predicate, params);
+            }
+            if (i < boundaries.size()) {
+                if (predicate.length() > 0) {
+                    predicate.append(" AND ");
+                }
+                appendLessOrEqual(keys, boundaries.get(i), predicate, params);
+            }
+            chunks.add(Chunk.keyRange(i, predicate.length() == 0 ? null : predicate.toString(), params));
+        }
+        return chunks;
+    }
+
+    // (k1, k2, ...) > (v1, v2, ...)，首列額外加上 >= 以便走索引範圍掃描
+    private static void appendGreaterThan(List<String> keys, Object[] values,
+                                   StringBuilder sql, List<Object> params) {
+        if (keys.size() == 1) {
+            sql.append(keys.get(0)).append(" > ?");
+            params.add(values[0]);
+            return;
+        }
+        sql.append(keys.get(0)).append(" >= ? AND (");
+        params.add(values[0]);
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("(");
+            appendEqualPrefix(keys, values, i, sql, params);
+            sql.append(keys.get(i)).append(" > ?)");
+            params.add(values[i]);
+        }
+        sql.append(")");
+    }
+
+    // (k1, k2, ...) <= (v1, v2, ...)
+    private static void appendLessOrEqual(List<String> keys, Object[] values,
+                                   StringBuilder sql, List<Object> params) {
+        if (keys.size() == 1) {
+            sql.append(keys.get(0)).append(" <= ?");
+            params.add(values[0]);
+            return;
+        }
+        sql.append(keys.get(0)).append(" <= ? AND (");
+        params.add(values[0]);
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append("(");
+            appendEqualPrefix(keys, values, i, sql, params);
+            sql.append(keys.get(i)).append(" < ?) OR ");
+            params.add(values[i]);
+        }
+        sql.append("(");
+        appendEqualPrefix(keys, values, keys.size() - 1, sql, params);
+        sql.append(keys.get(keys.size() - 1)).append(" = ?))");
+        params.add(values[keys.size() - 1]);
+    }
+
+    private static void appendEqualPrefix(List<String> keys, Object[] values, int length,
+                                   StringBuilder sql, List<Object> params) {
+        for (int j = 0; j < length; j++) {
+            sql.append(keys.get(j)).append(" = ? AND ");
+            params.add(values[j]);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.yt.chunk;
+
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OffsetChunkPlanner implements ChunkPlanner {
+
+    @Override
+    public List<Chunk> plan(Connection sourceConn, TableMetadata metadata,
+                            long totalRows, int chunkSize) {
+        // 沒有排序的 OFFSET 分頁可能重複或遺漏數據，無主鍵時以 ROWID 排序
+        String orderBy = metadata.getPrimaryKeys().isEmpty() ?
+            "ROWID" : String.join(",", metadata.getPrimaryKeys());
+
+        long totalChunks = (totalRows + chunkSize - 1) / chunkSize;
+        List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i < totalChunks; i++) {
+            chunks.add(Chunk.page(i, orderBy, (long) i * chunkSize, chunkSize));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,129 @@
+package com.yt.chunk;
+
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RowidChunkPlanner implements ChunkPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(RowidChunkPlanner.class);
+    private static final String BASE64 =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final int MAX_ROW_IN_BLOCK = 32767;
+
+    // 按段內 extent 讀取數據對象號、文件號與數據塊範圍，分區表的每個分區各自一段
+    private static final String EXTENT_SQL =
+        "SELECT o.data_object_id, e.relative_fno, e.block_id, e.blocks, t.bigfile " +
+        "FROM user_extents e " +
+        "JOIN user_objects o ON o.object_name = e.segment_name " +
+        "AND o.object_type = e.segment_type " +
+        "AND NVL(o.subobject_name, ' ') = NVL(e.partition_name, ' ') " +
+        "JOIN user_tablespaces t ON t.tablespace_name = e.tablespace_name " +
+        "WHERE e.segment_name = ? " +
+        "ORDER BY o.data_object_id, e.relative_fno, e.block_id";
+
+    @Override
+    public List<Chunk> plan(Connection sourceConn, TableMetadata metadata,
+                            long totalRows, int chunkSize) throws SQLException {
+        String tableName = metadata.getTableName();
+        // {數據對象號, 文件號, 起始塊, 塊數, 是否 bigfile}；分區表的各分區可以在不同類型的表空間中，
+        // ROWID 的編碼方式按每個 extent 所在的表空間決定
+        List<long[]> extents = new ArrayList<>();
+        long totalBlocks = 0;
+
+        try (PreparedStatement stmt = sourceConn.prepareStatement(EXTENT_SQL)) {
+            stmt.setString(1, tableName.toUpperCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long blocks = rs.getLong(4);
+                    extents.add(new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), blocks,
+                        "YES".equals(rs.getString(5)) ? 1 : 0});
+                    totalBlocks += blocks;
+                }
+            }
+        }
+
+        // 沒有段（空表、延遲段創建或索引組織表）時整表一個批次
+        if (extents.isEmpty()) {
+            logger.info("表 {} 沒有可用的 extent 資訊，整表作為一個批次", tableName);
+            List<Chunk> chunks = new ArrayList<>();
+            chunks.add(Chunk.range(0, null, null));
+            return chunks;
+        }
+
+        long chunkCount = Math.max(1, (totalRows + chunkSize - 1) / chunkSize);
+        long blocksPerChunk = Math.max(1, (totalBlocks + chunkCount - 1) / chunkCount);
+
+        List<Chunk> chunks = toChunks(extents, blocksPerChunk);
+
+        logger.info("表 {} ROWID 分批計劃: {} 個 extent, {} 個數據塊, 每批約 {} 個數據塊, 共 {} 個批次",
+            tableName, extents.size(), totalBlocks, blocksPerChunk, chunks.size());
+        return chunks;
+    }
+
+    // 每個範圍不超過 blocksPerChunk 個數據塊，不跨數據對象、文件或表空間類型
+    static List<Chunk> toChunks(List<long[]> extents, long blocksPerChunk) {
+        List<Chunk> chunks = new ArrayList<>();
+        // {數據對象號, 文件號, 起始塊, 結束塊, 已累計塊數, 是否 bigfile}
+        long[] current = null;
+        for (long[] extent : extents) {
+            long start = extent[2];
+            long end = extent[2] + extent[3] - 1;
+            while (start <= end) {
+                // 同一數據對象、同一文件、同一類表空間內的相鄰 extent 合併為一個範圍
+                if (current != null && (current[0] != extent[0] || current[1] != extent[1] ||
+                        current[5] != extent[4] || current[4] >= blocksPerChunk)) {
+                    chunks.add(toChunk(chunks.size(), current));
+                    current = null;
+                }
+                if (current == null) {
+                    current = new long[]{extent[0], extent[1], start, start, 0, extent[4]};
+                }
+                long take = Math.min(end, start + blocksPerChunk - current[4] - 1);
+                current[3] = take;
+                current[4] += take - start + 1;
+                start = take + 1;
+            }
+        }
+        if (current != null) {
+            chunks.add(toChunk(chunks.size(), current));
+        }
+        return chunks;
+    }
+
+    private static Chunk toChunk(int index, long[] range) {
+        boolean bigfile = range[5] == 1;
+        List<Object> params = new ArrayList<>();
+        params.add(encodeRowid(range[0], range[1], range[2], 0, bigfile));
+        params.add(encodeRowid(range[0], range[1], range[3], MAX_ROW_IN_BLOCK, bigfile));
+        return Chunk.range(index, "ROWID BETWEEN CHARTOROWID(?) AND CHARTOROWID(?)", params);
+    }
+
+    // 擴展 ROWID 格式 OOOOOOFFFBBBBBBRRR，bigfile 表空間中 FFFBBBBBB 整體表示數據塊號
+    static String encodeRowid(long dataObjectId, long relativeFno, long block,
+                              long row, boolean bigfile) {
+        StringBuilder rowid = new StringBuilder(18);
+        appendBase64(rowid, dataObjectId, 6);
+        if (bigfile) {
+            appendBase64(rowid, block, 9);
+        } else {
+            appendBase64(rowid, relativeFno, 3);
+            appendBase64(rowid, block, 6);
+        }
+        appendBase64(rowid, row, 3);
+        return rowid.toString();
+    }
+
+    private static void appendBase64(StringBuilder sb, long value, int width) {
+        for (int shift = (width - 1) * 6; shift >= 0; shift -= 6) {
+            sb.append(BASE64.charAt((int) ((value >>> shift) & 0x3F)));
+        }
+    }
+}
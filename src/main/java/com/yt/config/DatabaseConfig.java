@@ -2,6 +2,7 @@ package com.yt.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,26 +12,41 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+    private final String name;
+    private final String dbLink;
     private final HikariDataSource dataSource;
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder acquireTimeouts = new LongAdder();
 
-    public DatabaseConfig(File configFile) {
+    // defaultPoolSize 由並發模型計算，配置文件中的 pool.* 屬性優先
+    public DatabaseConfig(File configFile, int defaultPoolSize) {
+        this.name = configFile.getName();
         Properties props = loadProperties(configFile);
+        String link = props.getProperty("dblink", "").trim();
+        this.dbLink = link.isEmpty() ? null : link;
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(props.getProperty("url"));
         config.setUsername(props.getProperty("username"));
         config.setPassword(props.getProperty("password"));
         
         // 連接池配置
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(5);
-        config.setIdleTimeout(300000);
-        config.setConnectionTimeout(20000);
-        config.setValidationTimeout(5000);
-        config.setMaxLifetime(1200000);
+        int maximumPoolSize = intProperty(props, "pool.maximumPoolSize", defaultPoolSize);
+        config.setPoolName(configFile.getName());
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(intProperty(props, "pool.minimumIdle", Math.min(5, maximumPoolSize)));
+        config.setIdleTimeout(longProperty(props, "pool.idleTimeout", 300000));
+        config.setConnectionTimeout(longProperty(props, "pool.connectionTimeout", 20000));
+        config.setValidationTimeout(longProperty(props, "pool.validationTimeout", 5000));
+        config.setMaxLifetime(longProperty(props, "pool.maxLifetime", 1200000));
         
         // Oracle 特定配置
         config.addDataSourceProperty("oracle.jdbc.fanEnabled", "false");
@@ -39,7 +55,29 @@ public class DatabaseConfig {
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
 
         dataSource = new HikariDataSource(config);
-        logger.info("Database connection pool initialized for {}", configFile.getName());
+        logger.info("Database connection pool initialized for {} (maximumPoolSize={})",
+            configFile.getName(), maximumPoolSize);
+    }
+
+    // 配置文件名，用於日誌與多目標時區分目標
+    public String getName() {
+        return name;
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        return (int) longProperty(props, key, defaultValue);
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("數據庫配置 " + key + " 不是有效的數字: " + value, e);
+        }
     }
 
     private Properties loadProperties(File configFile) {
@@ -53,8 +91,38 @@ public class DatabaseConfig {
         return props;
     }
 
+    // 記錄每次取得連接的等待時間，連接池不足時直接反映在進度日誌中
     public Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        try {
+            return dataSource.getConnection();
+        } catch (SQLTransientConnectionException e) {
+            acquireTimeouts.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            acquireCount.increment();
+            acquireNanos.add(elapsed);
+            maxAcquireNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    // 目標庫上指向源庫的數據庫鏈接名，未配置時為 null
+    public String getDbLink() {
+        return dbLink;
+    }
+
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    public String getPoolStatus() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        long count = Math.max(1, acquireCount.sum());
+        return String.format("%s 使用中 %d/%d, 空閒 %d, 等待連接 %d, 平均取連接 %.1f ms, 最長 %.1f ms, 超時 %d",
+            dataSource.getPoolName(), pool.getActiveConnections(), dataSource.getMaximumPoolSize(),
+            pool.getIdleConnections(), pool.getThreadsAwaitingConnection(),
+            acquireNanos.sum() / 1e6 / count, maxAcquireNanos.get() / 1e6, acquireTimeouts.sum());
     }
 
     public DataSource getDataSource() {
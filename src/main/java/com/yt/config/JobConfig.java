@@ -0,0 +1,332 @@
+package com.yt.config;
+
+import com.yt.chunk.ChunkingStrategy;
+import com.yt.exception.DBSyncException;
+import com.yt.model.SyncMode;
+import com.yt.model.TableSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+// 非交互運行的作業文件（properties 格式），代替 Main 的逐項詢問。
+// 全局選項與交互模式的問題一一對應；table.<表名>.<屬性> 為單張表另設分批方式、批次大小、
+// 並發批次數、過濾條件與同步方式。文件中的相對路徑相對於作業文件所在目錄
+public class JobConfig {
+    private static final Set<String> GLOBAL_KEYS = Set.of(
+        "mode", "source", "target", "tableList", "tables",
+        "fetchSize", "virtualThreads", "dbThreads", "tableThreads", "truncateTarget",
+        "directPath", "noLogging", "rebuildParallelism", "diffSync", "verify", "chunkingStrategy",
+        "pipelined", "pipelineWriters", "pipelineBufferBatches", "metricsIntervalSeconds", "spillDirectory",
+        "chunkRetries", "retryBackoffMillis");
+    private static final Set<String> TABLE_KEYS = Set.of(
+        "chunkingStrategy", "batchSize", "parallelism", "where", "syncMode", "watermarkColumn");
+    private static final String TABLE_PREFIX = "table.";
+
+    private final Path jobFile;
+    private final Properties props;
+    private final String mode;
+    private final SyncOptions options = new SyncOptions();
+    private File sourceConfig;
+    private final List<File> targetConfigs = new ArrayList<>();
+    private final List<TableSpec> tables = new ArrayList<>();
+
+    private JobConfig(Path jobFile, Properties props) {
+        this.jobFile = jobFile;
+        this.props = props;
+        this.mode = stringProperty("mode", "SYNC").toUpperCase();
+        if (!List.of("SYNC", "EXPORT", "IMPORT").contains(mode)) {
+            throw invalid("mode", mode);
+        }
+    }
+
+    public static JobConfig load(Path jobFile) {
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(jobFile, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        } catch (IOException e) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "無法讀取作業文件 " + jobFile, e);
+        }
+        JobConfig job = new JobConfig(jobFile.toAbsolutePath(), props);
+        job.checkKeys();
+        job.readOptions();
+        job.readDatabases();
+        job.readTables();
+        return job;
+    }
+
+    // 拼錯的鍵會被默默忽略而按默認值運行，比報錯更危險
+    private void checkKeys() {
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(TABLE_PREFIX)) {
+                int dot = key.lastIndexOf('.');
+                if (dot <= TABLE_PREFIX.length() || !TABLE_KEYS.contains(key.substring(dot + 1))) {
+                    throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                        "作業文件中的單表設置 " + key + " 無效，可用屬性: " + TABLE_KEYS);
+                }
+            } else if (!GLOBAL_KEYS.contains(key)) {
+                throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                    "作業文件中的設置 " + key + " 無效");
+            }
+        }
+    }
+
+    private void readOptions() {
+        options.setFetchSize(intProperty("fetchSize", options.getFetchSize()));
+        options.setVirtualThreads(booleanProperty("virtualThreads", false));
+        options.setDbThreads(intProperty("dbThreads", options.getDbThreads()));
+        options.setTableThreads(intProperty("tableThreads", options.getTableThreads()));
+        options.setTruncateTarget(booleanProperty("truncateTarget", false));
+        options.setDirectPath(booleanProperty("directPath", false));
+        options.setNoLogging(booleanProperty("noLogging", false));
+        options.setRebuildParallelism(intProperty("rebuildParallelism", options.getRebuildParallelism()));
+        options.setDiffSync(booleanProperty("diffSync", false));
+        options.setVerify(booleanProperty("verify", false));
+        options.setChunkingStrategy(strategyProperty("chunkingStrategy", options.getChunkingStrategy()));
+        options.setPipelined(booleanProperty("pipelined", false));
+        options.setPipelineWriters(intProperty("pipelineWriters", options.getPipelineWriters()));
+        options.setPipelineBufferBatches(intProperty("pipelineBufferBatches", options.getPipelineBufferBatches()));
+        options.setMetricsIntervalSeconds(intProperty("metricsIntervalSeconds", options.getMetricsIntervalSeconds()));
+        options.setSpillDirectory(resolve(stringProperty("spillDirectory", "spill")));
+        String retries = stringProperty("chunkRetries", null);
+        if (retries != null) {
+            // 0 表示不重試
+            options.setChunkRetries(retries.equals("0") ? 0 : parsePositive("chunkRetries", retries));
+        }
+        options.setRetryBackoffMillis(intProperty("retryBackoffMillis", (int) options.getRetryBackoffMillis()));
+        // 與交互模式相同：直接路徑只用於清空後的全量同步，虛擬線程模式不使用管線
+        if (options.isDirectPath() && !options.isTruncateTarget()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "directPath 需要同時設置 truncateTarget=true");
+        }
+        if (options.isVirtualThreads()) {
+            options.setPipelined(false);
+        }
+    }
+
+    private void readDatabases() {
+        String source = stringProperty("source", null);
+        if (source != null) {
+            sourceConfig = resolve(source).toFile();
+        }
+        String target = stringProperty("target", null);
+        if (target != null) {
+            for (String path : target.split(",")) {
+                if (!path.trim().isEmpty()) {
+                    targetConfigs.add(resolve(path.trim()).toFile());
+                }
+            }
+        }
+        if (sourceConfig == null && !mode.equals("IMPORT")) {
+            throw missing("source");
+        }
+        if (targetConfigs.isEmpty() && !mode.equals("EXPORT")) {
+            throw missing("target");
+        }
+        if (mode.equals("IMPORT") && targetConfigs.size() > 1) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "導入模式只支持一個目標數據庫");
+        }
+        // 多目標扇出：每批源數據只讀一次，經管線分發給各目標的寫入線程
+        if (targetConfigs.size() > 1 && mode.equals("SYNC") && !options.isVirtualThreads()) {
+            options.setPipelined(true);
+        }
+    }
+
+    private void readTables() {
+        String tableList = stringProperty("tableList", null);
+        String inline = stringProperty("tables", null);
+        Path stateBase;
+        if (tableList != null) {
+            Path tableListPath = resolve(tableList);
+            try {
+                tables.addAll(TableSpec.readList(tableListPath));
+            } catch (IOException e) {
+                throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                    "無法讀取表清單 " + tableListPath, e);
+            }
+            stateBase = tableListPath;
+        } else {
+            stateBase = jobFile;
+        }
+        if (inline != null) {
+            for (String line : inline.split(",")) {
+                if (!line.trim().isEmpty()) {
+                    tables.add(TableSpec.parse(line));
+                }
+            }
+        }
+        if (tables.isEmpty()) {
+            throw missing("tableList 或 tables");
+        }
+
+        // 水位線、斷點、監控與失敗匯總文件與交互模式相同，放在表清單旁邊；只在作業文件中列表時放在作業文件旁邊
+        options.setWatermarkFile(sibling(stateBase, ".watermark"));
+        options.setJournalFile(sibling(stateBase, ".journal"));
+        options.setMetricsFile(sibling(stateBase, ".metrics"));
+        options.setMetadataCacheFile(sibling(stateBase, ".dictionary"));
+        options.setFailureFile(sibling(stateBase, ".failed"));
+
+        Map<String, Map<String, String>> overrides = new LinkedHashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(TABLE_PREFIX)) {
+                int dot = key.lastIndexOf('.');
+                String tableName = key.substring(TABLE_PREFIX.length(), dot).toUpperCase();
+                overrides.computeIfAbsent(tableName, name -> new LinkedHashMap<>())
+                    .put(key.substring(dot + 1), props.getProperty(key).trim());
+            }
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            Map<String, String> tableOverrides = overrides.remove(tables.get(i).getTableName());
+            if (tableOverrides != null) {
+                tables.set(i, applyOverrides(tables.get(i), tableOverrides));
+            }
+        }
+        if (!overrides.isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "作業文件為不在表清單中的表設置了屬性: " + overrides.keySet());
+        }
+    }
+
+    private TableSpec applyOverrides(TableSpec spec, Map<String, String> overrides) {
+        String tableName = spec.getTableName();
+        String watermarkColumn = overrides.containsKey("watermarkColumn") ?
+            emptyToNull(overrides.get("watermarkColumn").toUpperCase()) : spec.getWatermarkColumn();
+        SyncMode syncMode = null;
+        String modeValue = overrides.get("syncMode");
+        if (modeValue != null) {
+            try {
+                syncMode = SyncMode.valueOf(modeValue.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw invalid(TABLE_PREFIX + tableName + ".syncMode", modeValue);
+            }
+        }
+        // 水位線列只在增量同步時生效；指定 FULL 或 DIFF 時忽略表清單中的水位線列
+        if (syncMode == SyncMode.INCREMENTAL && watermarkColumn == null) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "表 " + tableName + " 設置為增量同步但沒有指定水位線列 (watermarkColumn)");
+        }
+        if (syncMode == SyncMode.FULL || syncMode == SyncMode.DIFF) {
+            watermarkColumn = null;
+        }
+
+        TableSpec result = new TableSpec(tableName, watermarkColumn);
+        if (syncMode != SyncMode.INCREMENTAL) {
+            result.setSyncMode(syncMode);
+        }
+        String prefix = TABLE_PREFIX + tableName + ".";
+        if (overrides.containsKey("chunkingStrategy")) {
+            result.setChunkingStrategy(parseStrategy(prefix + "chunkingStrategy", overrides.get("chunkingStrategy")));
+        }
+        if (overrides.containsKey("batchSize")) {
+            result.setBatchSize(parsePositive(prefix + "batchSize", overrides.get("batchSize")));
+        }
+        if (overrides.containsKey("parallelism")) {
+            result.setParallelism(parsePositive(prefix + "parallelism", overrides.get("parallelism")));
+        }
+        result.setFilter(emptyToNull(overrides.get("where")));
+        return result;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public SyncOptions getOptions() {
+        return options;
+    }
+
+    public File getSourceConfig() {
+        return sourceConfig;
+    }
+
+    public List<File> getTargetConfigs() {
+        return targetConfigs;
+    }
+
+    public List<TableSpec> getTables() {
+        return tables;
+    }
+
+    private Path resolve(String path) {
+        return jobFile.resolveSibling(path).normalize();
+    }
+
+    private static Path sibling(Path base, String suffix) {
+        return base.resolveSibling(base.getFileName() + suffix);
+    }
+
+    private String stringProperty(String key, String defaultValue) {
+        String value = emptyToNull(props.getProperty(key));
+        return value == null ? defaultValue : value;
+    }
+
+    private int intProperty(String key, int defaultValue) {
+        String value = stringProperty(key, null);
+        return value == null ? defaultValue : parsePositive(key, value);
+    }
+
+    private boolean booleanProperty(String key, boolean defaultValue) {
+        String value = stringProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (Arrays.asList("Y", "YES", "TRUE").contains(value.toUpperCase())) {
+            return true;
+        }
+        if (Arrays.asList("N", "NO", "FALSE").contains(value.toUpperCase())) {
+            return false;
+        }
+        throw invalid(key, value);
+    }
+
+    private ChunkingStrategy strategyProperty(String key, ChunkingStrategy defaultValue) {
+        String value = stringProperty(key, null);
+        return value == null ? defaultValue : parseStrategy(key, value);
+    }
+
+    private static ChunkingStrategy parseStrategy(String key, String value) {
+        try {
+            return ChunkingStrategy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw invalid(key, value);
+        }
+    }
+
+    private static int parsePositive(String key, String value) {
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // 下面統一報錯
+        }
+        throw invalid(key, value);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static DBSyncException invalid(String key, String value) {
+        return new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+            "作業文件中 " + key + " 的值無效: " + value);
+    }
+
+    private static DBSyncException missing(String key) {
+        return new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+            "作業文件缺少 " + key);
+    }
+}
@@ -0,0 +1,35 @@
+package com.yt.config;
+
+// 按並發模型計算連接池大小，數據庫配置文件中的 pool.maximumPoolSize 可覆蓋
+public class PoolSizing {
+    // 虛擬線程模式的並發只受連接數限制，默認每個數據庫 32 個連接
+    public static final int VIRTUAL_THREAD_POOL_SIZE = 32;
+
+    private final int sourcePoolSize;
+    private final int targetPoolSize;
+
+    public PoolSizing(int sourcePoolSize, int targetPoolSize) {
+        this.sourcePoolSize = sourcePoolSize;
+        this.targetPoolSize = targetPoolSize;
+    }
+
+    // 平台線程模式：每張正在同步的表一對連接做驗證與規劃，dbThreads × tableThreads 個批次
+    // 工作線程各佔一對連接，管線模式下每張表的寫入線程另外各佔一個目標連接
+    public static PoolSizing forOptions(SyncOptions options) {
+        if (options.isVirtualThreads()) {
+            return new PoolSizing(VIRTUAL_THREAD_POOL_SIZE, VIRTUAL_THREAD_POOL_SIZE);
+        }
+        int coordinators = options.getDbThreads();
+        int workers = options.getDbThreads() * options.getTableThreads();
+        int writers = options.isPipelined() ? coordinators * options.getPipelineWriters() : 0;
+        return new PoolSizing(coordinators + workers, coordinators + workers + writers);
+    }
+
+    public int getSourcePoolSize() {
+        return sourcePoolSize;
+    }
+
+    public int getTargetPoolSize() {
+        return targetPoolSize;
+    }
+}
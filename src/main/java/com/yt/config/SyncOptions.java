@@ -0,0 +1,222 @@
+package com.yt.config;
+
+import com.yt.chunk.ChunkingStrategy;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class SyncOptions {
+    private int fetchSize = 3000;
+    private int dbThreads = 1;
+    private boolean virtualThreads;
+    private int tableThreads = 1;
+    private boolean truncateTarget;
+    private ChunkingStrategy chunkingStrategy = ChunkingStrategy.KEYSET;
+    private boolean pipelined;
+    private int pipelineWriters = 2;
+    private int pipelineBufferBatches = 8;
+    private boolean directPath;
+    private boolean noLogging;
+    private int rebuildParallelism = 4;
+    private boolean verify;
+    private boolean diffSync;
+    private Path watermarkFile = Paths.get("tablelist.watermark");
+    private Path journalFile = Paths.get("tablelist.journal");
+    private Path metricsFile = Paths.get("tablelist.metrics");
+    private Path metadataCacheFile = Paths.get("tablelist.dictionary");
+    private int metricsIntervalSeconds = 30;
+    private Path spillDirectory = Paths.get("spill");
+    private int chunkRetries = 3;
+    private long retryBackoffMillis = 2000;
+    private Path failureFile = Paths.get("tablelist.failed");
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getDbThreads() {
+        return dbThreads;
+    }
+
+    public void setDbThreads(int dbThreads) {
+        this.dbThreads = dbThreads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getTableThreads() {
+        return tableThreads;
+    }
+
+    public void setTableThreads(int tableThreads) {
+        this.tableThreads = tableThreads;
+    }
+
+    public boolean isTruncateTarget() {
+        return truncateTarget;
+    }
+
+    public void setTruncateTarget(boolean truncateTarget) {
+        this.truncateTarget = truncateTarget;
+    }
+
+    public ChunkingStrategy getChunkingStrategy() {
+        return chunkingStrategy;
+    }
+
+    public void setChunkingStrategy(ChunkingStrategy chunkingStrategy) {
+        this.chunkingStrategy = chunkingStrategy;
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    public int getPipelineWriters() {
+        return pipelineWriters;
+    }
+
+    public void setPipelineWriters(int pipelineWriters) {
+        this.pipelineWriters = pipelineWriters;
+    }
+
+    public int getPipelineBufferBatches() {
+        return pipelineBufferBatches;
+    }
+
+    public void setPipelineBufferBatches(int pipelineBufferBatches) {
+        this.pipelineBufferBatches = pipelineBufferBatches;
+    }
+
+    public boolean isDirectPath() {
+        return directPath;
+    }
+
+    public void setDirectPath(boolean directPath) {
+        this.directPath = directPath;
+    }
+
+    public boolean isNoLogging() {
+        return noLogging;
+    }
+
+    public void setNoLogging(boolean noLogging) {
+        this.noLogging = noLogging;
+    }
+
+    public int getRebuildParallelism() {
+        return rebuildParallelism;
+    }
+
+    public void setRebuildParallelism(int rebuildParallelism) {
+        this.rebuildParallelism = rebuildParallelism;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    public boolean isDiffSync() {
+        return diffSync;
+    }
+
+    public void setDiffSync(boolean diffSync) {
+        this.diffSync = diffSync;
+    }
+
+    public Path getWatermarkFile() {
+        return watermarkFile;
+    }
+
+    public void setWatermarkFile(Path watermarkFile) {
+        this.watermarkFile = watermarkFile;
+    }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    public void setJournalFile(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    // 為 null 時不緩存數據字典，每次啟動都重新查詢
+    public Path getMetadataCacheFile() {
+        return metadataCacheFile;
+    }
+
+    public void setMetadataCacheFile(Path metadataCacheFile) {
+        this.metadataCacheFile = metadataCacheFile;
+    }
+
+    // 指標文件的路徑前綴，運行結束時寫出 .json 與 .prom 兩個文件
+    public Path getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(Path metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public int getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+
+    public void setMetricsIntervalSeconds(int metricsIntervalSeconds) {
+        this.metricsIntervalSeconds = metricsIntervalSeconds;
+    }
+
+    // 離線導出與導入的文件目錄，每張表一個 表名.spill 文件
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    // 批次遇到暫時性錯誤（連接中斷、快照過舊等）時的重試次數，0 表示不重試
+    public int getChunkRetries() {
+        return chunkRetries;
+    }
+
+    public void setChunkRetries(int chunkRetries) {
+        this.chunkRetries = chunkRetries;
+    }
+
+    // 第一次重試前的等待時間，之後每次加倍
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    // 運行結束時列出失敗的表與批次，全部成功時刪除
+    public Path getFailureFile() {
+        return failureFile;
+    }
+
+    public void setFailureFile(Path failureFile) {
+        this.failureFile = failureFile;
+    }
+}
@@ -0,0 +1,201 @@
+package com.yt.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// 定期把吞吐、延遲與 ETA 寫入日誌，運行結束時輸出 JSON 與 Prometheus 文本格式的指標文件
+public class MetricsReporter {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsReporter.class);
+
+    private final SyncMetrics metrics;
+    private final Path outputBase;
+    private final int intervalSeconds;
+    private final ScheduledExecutorService timer;
+
+    public MetricsReporter(SyncMetrics metrics, Path outputBase, int intervalSeconds) {
+        this.metrics = metrics;
+        this.outputBase = outputBase;
+        this.intervalSeconds = intervalSeconds;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        timer.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void report() {
+        try {
+            logger.info("總體: {} 行, {} 行/秒, {}/秒, 讀取 {}, 插入 {}, 提交 {}, 排隊批次 {}, ETA {}",
+                metrics.getRows(), format(metrics.getRowsPerSecond()), formatBytes(metrics.getBytesPerSecond()),
+                describe(metrics.getFetchLatency()), describe(metrics.getInsertLatency()),
+                describe(metrics.getCommitLatency()), metrics.getQueuedChunks(),
+                formatEta(metrics.getEtaSeconds()));
+            for (TableMetrics table : metrics.getTables()) {
+                if (table.isFinished()) {
+                    continue;
+                }
+                logger.info("表 {}: {}/{} 批次, {}/{} 行, {} 行/秒, {}/秒, 讀取 {}, 插入 {}, 提交 {}, 緩衝 {}, ETA {}",
+                    table.getTableName(), table.getCompletedChunks(), table.getTotalChunks(),
+                    table.getRows(), table.getExpectedRows() < 0 ? "?" : table.getExpectedRows(),
+                    format(table.getRowsPerSecond()), formatBytes(table.getBytesPerSecond()),
+                    describe(table.getFetchLatency()), describe(table.getInsertLatency()),
+                    describe(table.getCommitLatency()),
+                    table.getQueueDepth() < 0 ? "-" : table.getQueueDepth(),
+                    formatEta(table.getEtaSeconds()));
+            }
+        } catch (RuntimeException e) {
+            // 定時任務拋出異常後不會再被調度
+            logger.warn("輸出指標時發生錯誤", e);
+        }
+    }
+
+    // 停止定時輸出，打印最終彙總並寫出指標文件
+    public void close() {
+        timer.shutdownNow();
+        report();
+        try {
+            writeJson(Paths.get(outputBase + ".json"));
+            writePrometheus(Paths.get(outputBase + ".prom"));
+            logger.info("指標已寫入 {}.json 與 {}.prom", outputBase, outputBase);
+        } catch (IOException e) {
+            logger.warn("寫入指標文件 {} 失敗", outputBase, e);
+        }
+    }
+
+    private void writeJson(Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("{\n  \"elapsedSeconds\": " + format(metrics.getElapsedSeconds()) + ",\n");
+            out.write("  \"rows\": " + metrics.getRows() + ",\n");
+            out.write("  \"bytes\": " + metrics.getBytes() + ",\n");
+            out.write("  \"rowsPerSecond\": " + format(metrics.getRowsPerSecond()) + ",\n");
+            out.write("  \"fetchLatency\": " + json(metrics.getFetchLatency()) + ",\n");
+            out.write("  \"insertLatency\": " + json(metrics.getInsertLatency()) + ",\n");
+            out.write("  \"commitLatency\": " + json(metrics.getCommitLatency()) + ",\n");
+            out.write("  \"tables\": [");
+            String separator = "\n";
+            for (TableMetrics table : metrics.getTables()) {
+                out.write(separator);
+                separator = ",\n";
+                out.write("    {\"table\": \"" + escape(table.getTableName()) + "\"" +
+                    ", \"finished\": " + table.isFinished() +
+                    ", \"elapsedSeconds\": " + format(table.getElapsedSeconds()) +
+                    ", \"indexBuildSeconds\": " + format(table.getIndexBuildMillis() / 1000.0) +
+                    ", \"rows\": " + table.getRows() +
+                    ", \"expectedRows\": " + table.getExpectedRows() +
+                    ", \"bytes\": " + table.getBytes() +
+                    ", \"rowsPerSecond\": " + format(table.getRowsPerSecond()) +
+                    ", \"chunks\": " + table.getCompletedChunks() +
+                    ", \"totalChunks\": " + table.getTotalChunks() +
+                    ", \"fetchLatency\": " + json(table.getFetchLatency()) +
+                    ", \"insertLatency\": " + json(table.getInsertLatency()) +
+                    ", \"commitLatency\": " + json(table.getCommitLatency()) + "}");
+            }
+            out.write("\n  ]\n}\n");
+        }
+    }
+
+    private void writePrometheus(Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("# TYPE dbsync_rows_total counter\n");
+            for (TableMetrics table : metrics.getTables()) {
+                out.write("dbsync_rows_total" + labels(table, "") + " " + table.getRows() + "\n");
+            }
+            out.write("# TYPE dbsync_bytes_total counter\n");
+            for (TableMetrics table : metrics.getTables()) {
+                out.write("dbsync_bytes_total" + labels(table, "") + " " + table.getBytes() + "\n");
+            }
+            out.write("# TYPE dbsync_expected_rows gauge\n");
+            for (TableMetrics table : metrics.getTables()) {
+                out.write("dbsync_expected_rows" + labels(table, "") + " " + table.getExpectedRows() + "\n");
+            }
+            out.write("# TYPE dbsync_table_duration_seconds gauge\n");
+            for (TableMetrics table : metrics.getTables()) {
+                out.write("dbsync_table_duration_seconds" + labels(table, "") + " " +
+                    format(table.getElapsedSeconds()) + "\n");
+            }
+            out.write("# TYPE dbsync_index_build_seconds gauge\n");
+            for (TableMetrics table : metrics.getTables()) {
+                out.write("dbsync_index_build_seconds" + labels(table, "") + " " +
+                    format(table.getIndexBuildMillis() / 1000.0) + "\n");
+            }
+            writeHistogram(out, "dbsync_fetch_latency_seconds", TableMetrics::getFetchLatency);
+            writeHistogram(out, "dbsync_insert_latency_seconds", TableMetrics::getInsertLatency);
+            writeHistogram(out, "dbsync_commit_latency_seconds", TableMetrics::getCommitLatency);
+        }
+    }
+
+    private void writeHistogram(Writer out, String name,
+                                Function<TableMetrics, LatencyHistogram> stage) throws IOException {
+        out.write("# TYPE " + name + " histogram\n");
+        for (TableMetrics table : metrics.getTables()) {
+            LatencyHistogram histogram = stage.apply(table);
+            long[] counts = histogram.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < LatencyHistogram.BOUNDS_MS.length; i++) {
+                cumulative += counts[i];
+                String le = format(LatencyHistogram.BOUNDS_MS[i] / 1000.0);
+                out.write(name + "_bucket" + labels(table, ",le=\"" + le + "\"") + " " + cumulative + "\n");
+            }
+            cumulative += counts[counts.length - 1];
+            out.write(name + "_bucket" + labels(table, ",le=\"+Inf\"") + " " + cumulative + "\n");
+            out.write(name + "_sum" + labels(table, "") + " " + format(histogram.getSumSeconds()) + "\n");
+            out.write(name + "_count" + labels(table, "") + " " + histogram.getCount() + "\n");
+        }
+    }
+
+    private static String labels(TableMetrics table, String extra) {
+        return "{table=\"" + escape(table.getTableName()) + "\"" + extra + "}";
+    }
+
+    private static String json(LatencyHistogram histogram) {
+        return "{\"count\": " + histogram.getCount() +
+            ", \"meanMs\": " + format(histogram.getMeanMillis()) +
+            ", \"p50Ms\": " + format(histogram.percentileMillis(0.5)) +
+            ", \"p95Ms\": " + format(histogram.percentileMillis(0.95)) +
+            ", \"p99Ms\": " + format(histogram.percentileMillis(0.99)) +
+            ", \"maxMs\": " + format(histogram.getMaxMillis()) + "}";
+    }
+
+    private static String describe(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "p50=%.0fms p95=%.0fms max=%.0fms",
+            histogram.percentileMillis(0.5), histogram.percentileMillis(0.95), histogram.getMaxMillis());
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String formatBytes(double bytesPerSecond) {
+        return String.format(Locale.ROOT, "%.1f MB", bytesPerSecond / (1024 * 1024));
+    }
+
+    private static String formatEta(long seconds) {
+        if (seconds < 0) {
+            return "未知";
+        }
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
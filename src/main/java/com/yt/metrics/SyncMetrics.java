@@ -0,0 +1,96 @@
+package com.yt.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// 本次運行的全部指標：每張表一份，另有跨表彙總
+public class SyncMetrics {
+    private final Map<String, TableMetrics> tables = new ConcurrentSkipListMap<>();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+    private final long startNanos = System.nanoTime();
+    private volatile IntSupplier queuedChunks;
+
+    public TableMetrics register(String tableName, int rowWidth) {
+        TableMetrics metrics = new TableMetrics(tableName, this, rowWidth);
+        tables.put(tableName, metrics);
+        return metrics;
+    }
+
+    public List<TableMetrics> getTables() {
+        return new ArrayList<>(tables.values());
+    }
+
+    void recordRows(long batchRows, long batchBytes) {
+        rows.add(batchRows);
+        bytes.add(batchBytes);
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public double getElapsedSeconds() {
+        return Math.max(1, System.nanoTime() - startNanos) / 1e9;
+    }
+
+    public double getRowsPerSecond() {
+        return getRows() / getElapsedSeconds();
+    }
+
+    public double getBytesPerSecond() {
+        return getBytes() / getElapsedSeconds();
+    }
+
+    // 所有已知總行數的表按總體速率估算剩餘秒數，未知時返回 -1
+    public long getEtaSeconds() {
+        long remaining = 0;
+        for (TableMetrics table : tables.values()) {
+            if (table.isFinished()) {
+                continue;
+            }
+            if (table.getExpectedRows() < 0) {
+                return -1;
+            }
+            remaining += Math.max(0, table.getExpectedRows() - table.getRows());
+        }
+        double rate = getRowsPerSecond();
+        if (remaining == 0) {
+            return 0;
+        }
+        return rate <= 0 ? -1 : (long) (remaining / rate);
+    }
+
+    // 全局調度器中等待執行的批次數
+    public int getQueuedChunks() {
+        IntSupplier supplier = queuedChunks;
+        return supplier == null ? 0 : supplier.getAsInt();
+    }
+
+    public void setQueuedChunks(IntSupplier queuedChunks) {
+        this.queuedChunks = queuedChunks;
+    }
+
+    public LatencyHistogram getFetchLatency() {
+        return fetchLatency;
+    }
+
+    public LatencyHistogram getInsertLatency() {
+        return insertLatency;
+    }
+
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency;
+    }
+}
@@ -0,0 +1,152 @@
+package com.yt.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// 單張表的吞吐與延遲，同時累加到全局指標
+public class TableMetrics {
+    private final String tableName;
+    private final SyncMetrics overall;
+    private final int rowWidth;
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+    private final LatencyHistogram commitLatency = new LatencyHistogram();
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+    private volatile long expectedRows = -1;
+    private volatile int totalChunks;
+    private volatile IntSupplier queueDepth;
+    private volatile long indexBuildMillis;
+
+    TableMetrics(String tableName, SyncMetrics overall, int rowWidth) {
+        this.tableName = tableName;
+        this.overall = overall;
+        this.rowWidth = rowWidth;
+    }
+
+    // 從源端讀取一個批次（含逐行綁定）的耗時
+    public void recordFetch(long nanos) {
+        fetchLatency.record(nanos);
+        overall.getFetchLatency().record(nanos);
+    }
+
+    // 目標端一次批量插入的行數與耗時
+    public void recordInsert(int batchRows, long nanos) {
+        rows.add(batchRows);
+        insertLatency.record(nanos);
+        overall.recordRows(batchRows, (long) batchRows * rowWidth);
+        overall.getInsertLatency().record(nanos);
+    }
+
+    public void recordCommit(long nanos) {
+        commitLatency.record(nanos);
+        overall.getCommitLatency().record(nanos);
+    }
+
+    public void chunkCompleted() {
+        completedChunks.incrementAndGet();
+    }
+
+    // 裝載結束時調用，之後的索引建立不計入裝載耗時；重複調用保留第一次的時間
+    public void finish() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    public boolean isFinished() {
+        return endNanos != 0;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    // 按估算行寬換算，LOB 內容不計入
+    public long getBytes() {
+        return rows.sum() * rowWidth;
+    }
+
+    public double getElapsedSeconds() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return Math.max(1, end - startNanos) / 1e9;
+    }
+
+    public double getRowsPerSecond() {
+        return getRows() / getElapsedSeconds();
+    }
+
+    public double getBytesPerSecond() {
+        return getBytes() / getElapsedSeconds();
+    }
+
+    // 按估算行數與當前速率估算剩餘秒數，未知時返回 -1
+    public long getEtaSeconds() {
+        if (isFinished()) {
+            return 0;
+        }
+        double rate = getRowsPerSecond();
+        if (expectedRows < 0 || rate <= 0) {
+            return -1;
+        }
+        return (long) (Math.max(0, expectedRows - getRows()) / rate);
+    }
+
+    // 裝載後建立索引與約束的耗時，沒有建立時為 0
+    public long getIndexBuildMillis() {
+        return indexBuildMillis;
+    }
+
+    public void setIndexBuildMillis(long indexBuildMillis) {
+        this.indexBuildMillis = indexBuildMillis;
+    }
+
+    public long getExpectedRows() {
+        return expectedRows;
+    }
+
+    public void setExpectedRows(long expectedRows) {
+        this.expectedRows = expectedRows;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public void setTotalChunks(int totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    // 管線模式下讀寫之間緩衝區中的批次數，其他模式為 -1
+    public int getQueueDepth() {
+        IntSupplier supplier = queueDepth;
+        return supplier == null ? -1 : supplier.getAsInt();
+    }
+
+    public void setQueueDepth(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public LatencyHistogram getFetchLatency() {
+        return fetchLatency;
+    }
+
+    public LatencyHistogram getInsertLatency() {
+        return insertLatency;
+    }
+
+    public LatencyHistogram getCommitLatency() {
+        return commitLatency;
+    }
+}
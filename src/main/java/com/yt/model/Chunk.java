@@ -0,0 +1,123 @@
+package com.yt.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Chunk {
+    private final int index;
+    private final String predicate;
+    private final List<Object> params;
+    private final boolean keyRange;
+    private final String orderBy;
+    private final long offset;
+    private final int limit;
+
+    public Chunk(int index, String predicate, List<Object> params, boolean keyRange,
+                 String orderBy, long offset, int limit) {
+        this.index = index;
+        this.predicate = predicate;
+        this.params = params == null ? Collections.emptyList() :
+            Collections.unmodifiableList(new ArrayList<>(params));
+        this.keyRange = keyRange;
+        this.orderBy = orderBy;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    // 以 WHERE 條件界定的範圍分批，predicate 為 null 時表示整張表
+    public static Chunk range(int index, String predicate, List<Object> params) {
+        return new Chunk(index, predicate, params, false, null, -1, 0);
+    }
+
+    // 按主鍵等目標端同樣存在的列界定的範圍，條件在目標庫上同樣有效
+    public static Chunk keyRange(int index, String predicate, List<Object> params) {
+        return new Chunk(index, predicate, params, true, null, -1, 0);
+    }
+
+    // OFFSET/FETCH 分頁分批，必須帶穩定的排序
+    public static Chunk page(int index, String orderBy, long offset, int limit) {
+        return new Chunk(index, null, null, false, orderBy, offset, limit);
+    }
+
+    // 在原有範圍上再疊加一個過濾條件，例如增量同步的水位線範圍
+    public Chunk filtered(String filter, List<Object> filterParams) {
+        List<Object> combined = new ArrayList<>(filterParams);
+        combined.addAll(params);
+        String combinedPredicate = predicate == null ? filter : filter + " AND (" + predicate + ")";
+        return new Chunk(index, combinedPredicate, combined, keyRange, orderBy, offset, limit);
+    }
+
+    // 分頁批次中的一段，offset 相對於本批次的起點，保留原有的過濾條件
+    public Chunk subPage(long pageOffset, int pageLimit) {
+        return new Chunk(index, predicate, params, keyRange, orderBy, offset + pageOffset, pageLimit);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getPredicate() {
+        return predicate;
+    }
+
+    public List<Object> getParams() {
+        return params;
+    }
+
+    public boolean isKeyRange() {
+        return keyRange;
+    }
+
+    public String getOrderBy() {
+        return orderBy;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isPaged() {
+        return offset >= 0;
+    }
+
+    // 附加在 "SELECT ... FROM table" 之後的子句
+    public String toSqlClause() {
+        StringBuilder sql = new StringBuilder();
+        if (predicate != null) {
+            sql.append(" WHERE ").append(predicate);
+        }
+        if (isPaged()) {
+            sql.append(" ORDER BY ").append(orderBy)
+               .append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+        }
+        return sql.toString();
+    }
+
+    // 依序綁定參數，返回下一個可用的參數位置
+    public int bind(PreparedStatement stmt, int startIndex) throws SQLException {
+        int idx = startIndex;
+        for (Object param : params) {
+            stmt.setObject(idx++, param);
+        }
+        if (isPaged()) {
+            stmt.setLong(idx++, offset);
+            stmt.setInt(idx++, limit);
+        }
+        return idx;
+    }
+
+    @Override
+    public String toString() {
+        if (isPaged()) {
+            return "#" + index + " [offset " + offset + ", size " + limit + "]";
+        }
+        return "#" + index + " [" + (predicate == null ? "全表" : predicate) + " " + params + "]";
+    }
+}
@@ -0,0 +1,17 @@
+package com.yt.model;
+
+public enum SyncMode {
+    FULL("全量同步"),
+    INCREMENTAL("增量同步"),
+    DIFF("差異同步");
+
+    private final String description;
+
+    SyncMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -8,12 +8,16 @@ public class TableMetadata {
     private final String tableName;
     private final List<ColumnMetadata> columns;
     private final List<String> primaryKeys;
+    private final List<IndexMetadata> indexes;
+    private final List<ConstraintMetadata> constraints;
     private String tableComment;
 
     public TableMetadata(String tableName) {
         this.tableName = tableName;
         this.columns = new ArrayList<>();
         this.primaryKeys = new ArrayList<>();
+        this.indexes = new ArrayList<>();
+        this.constraints = new ArrayList<>();
     }
 
     public void addColumn(ColumnMetadata column) {
@@ -24,6 +28,14 @@ public class TableMetadata {
         primaryKeys.add(columnName);
     }
 
+    public void addIndex(IndexMetadata index) {
+        indexes.add(index);
+    }
+
+    public void addConstraint(ConstraintMetadata constraint) {
+        constraints.add(constraint);
+    }
+
     public String getTableName() {
         return tableName;
     }
@@ -32,10 +44,30 @@ public class TableMetadata {
         return columns;
     }
 
+    // 按列名查找，不存在時返回 null
+    public ColumnMetadata getColumn(String name) {
+        for (ColumnMetadata column : columns) {
+            if (column.getName().equals(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
     public List<String> getPrimaryKeys() {
         return primaryKeys;
     }
 
+    // 主鍵以外的索引，不參與結構比較
+    public List<IndexMetadata> getIndexes() {
+        return indexes;
+    }
+
+    // 唯一、檢查與外鍵約束，不參與結構比較
+    public List<ConstraintMetadata> getConstraints() {
+        return constraints;
+    }
+
     public String getTableComment() {
         return tableComment;
     }
@@ -64,16 +96,18 @@ public class TableMetadata {
         private final String dataType;
         private final int dataLength;
         private final int dataPrecision;
+        private final int dataScale;
         private final boolean nullable;
         private final int columnId;
         private String comment;
 
         public ColumnMetadata(String name, String dataType, int dataLength, 
-                            int dataPrecision, boolean nullable, int columnId) {
+                            int dataPrecision, int dataScale, boolean nullable, int columnId) {
             this.name = name;
             this.dataType = dataType;
             this.dataLength = dataLength;
             this.dataPrecision = dataPrecision;
+            this.dataScale = dataScale;
             this.nullable = nullable;
             this.columnId = columnId;
         }
@@ -94,6 +128,10 @@ public class TableMetadata {
             return dataPrecision;
         }
 
+        public int getDataScale() {
+            return dataScale;
+        }
+
         public boolean isNullable() {
             return nullable;
         }
@@ -117,6 +155,7 @@ public class TableMetadata {
             ColumnMetadata that = (ColumnMetadata) o;
             return dataLength == that.dataLength &&
                     dataPrecision == that.dataPrecision &&
+                    dataScale == that.dataScale &&
                     nullable == that.nullable &&
                     columnId == that.columnId &&
                     Objects.equals(name, that.name) &&
@@ -125,7 +164,113 @@ public class TableMetadata {
 
         @Override
         public int hashCode() {
-            return Objects.hash(name, dataType, dataLength, dataPrecision, nullable, columnId);
+            return Objects.hash(name, dataType, dataLength, dataPrecision, dataScale, nullable, columnId);
+        }
+    }
+
+    public static class IndexMetadata {
+        private final String name;
+        private final boolean unique;
+        private final boolean bitmap;
+        private final List<String> columns;
+
+        public IndexMetadata(String name, boolean unique, boolean bitmap, List<String> columns) {
+            this.name = name;
+            this.unique = unique;
+            this.bitmap = bitmap;
+            this.columns = columns;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        public boolean isBitmap() {
+            return bitmap;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+    }
+
+    public static class ConstraintMetadata {
+        private final String name;
+        private final String type;
+        private final boolean generatedName;
+        private final List<String> columns;
+        private String indexName;
+        private String searchCondition;
+        private String referencedTable;
+        private List<String> referencedColumns;
+        private String deleteRule;
+
+        // type 與 user_constraints.constraint_type 相同：U 唯一鍵、C 檢查、R 外鍵
+        public ConstraintMetadata(String name, String type, boolean generatedName, List<String> columns) {
+            this.name = name;
+            this.type = type;
+            this.generatedName = generatedName;
+            this.columns = columns;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public boolean isGeneratedName() {
+            return generatedName;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public String getIndexName() {
+            return indexName;
+        }
+
+        public void setIndexName(String indexName) {
+            this.indexName = indexName;
+        }
+
+        public String getSearchCondition() {
+            return searchCondition;
+        }
+
+        public void setSearchCondition(String searchCondition) {
+            this.searchCondition = searchCondition;
+        }
+
+        public String getReferencedTable() {
+            return referencedTable;
+        }
+
+        public void setReferencedTable(String referencedTable) {
+            this.referencedTable = referencedTable;
+        }
+
+        public List<String> getReferencedColumns() {
+            return referencedColumns;
+        }
+
+        public void setReferencedColumns(List<String> referencedColumns) {
+            this.referencedColumns = referencedColumns;
+        }
+
+        public String getDeleteRule() {
+            return deleteRule;
+        }
+
+        public void setDeleteRule(String deleteRule) {
+            this.deleteRule = deleteRule;
         }
     }
-} 
\ No newline at end of file
+}
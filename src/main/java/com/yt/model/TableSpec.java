@@ -0,0 +1,131 @@
+package com.yt.model;
+
+import com.yt.chunk.ChunkingStrategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TableSpec {
+    private final String tableName;
+    private final String watermarkColumn;
+    // 作業文件中的單表設置，未設置時使用全局選項
+    private ChunkingStrategy chunkingStrategy;
+    private int batchSize;
+    private int parallelism;
+    private String filter;
+    private SyncMode syncMode;
+
+    public TableSpec(String tableName, String watermarkColumn) {
+        this.tableName = tableName;
+        this.watermarkColumn = watermarkColumn;
+    }
+
+    // 表清單中的一行：TABLE 或 TABLE:WATERMARK_COLUMN
+    public static TableSpec parse(String line) {
+        String[] parts = line.trim().toUpperCase().split(":", 2);
+        String watermarkColumn = parts.length > 1 && !parts[1].trim().isEmpty() ?
+            parts[1].trim() : null;
+        return new TableSpec(parts[0].trim(), watermarkColumn);
+    }
+
+    // 表清單文件，每行一張表，忽略空行
+    public static List<TableSpec> readList(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return reader.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .map(TableSpec::parse)
+                .collect(Collectors.toList());
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getWatermarkColumn() {
+        return watermarkColumn;
+    }
+
+    public boolean isIncremental() {
+        return watermarkColumn != null;
+    }
+
+    public ChunkingStrategy getChunkingStrategy() {
+        return chunkingStrategy;
+    }
+
+    public void setChunkingStrategy(ChunkingStrategy chunkingStrategy) {
+        this.chunkingStrategy = chunkingStrategy;
+    }
+
+    // 每個批次的行數，0 表示使用全局 fetchSize
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // 該表同時進行的批次數上限，0 表示不另外限制
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    // 只同步滿足條件的行，條件原樣加入每個批次的 WHERE 子句
+    public String getFilter() {
+        return filter;
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    // FULL 或 DIFF 覆蓋全局的差異同步選項；是否增量仍以水位線列為準
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    public void setSyncMode(SyncMode syncMode) {
+        this.syncMode = syncMode;
+    }
+
+    public boolean hasOverrides() {
+        return chunkingStrategy != null || batchSize > 0 || parallelism > 0 ||
+            filter != null || syncMode != null;
+    }
+
+    public String describeOverrides() {
+        List<String> overrides = new ArrayList<>();
+        if (syncMode != null) {
+            overrides.add(syncMode.getDescription());
+        }
+        if (chunkingStrategy != null) {
+            overrides.add(chunkingStrategy.getDescription());
+        }
+        if (batchSize > 0) {
+            overrides.add("每批 " + batchSize + " 行");
+        }
+        if (parallelism > 0) {
+            overrides.add("最多 " + parallelism + " 個並發批次");
+        }
+        if (filter != null) {
+            overrides.add("條件 " + filter);
+        }
+        return String.join(", ", overrides);
+    }
+
+    @Override
+    public String toString() {
+        return isIncremental() ? tableName + ":" + watermarkColumn : tableName;
+    }
+}
@@ -0,0 +1,213 @@
+package com.yt.service;
+
+import com.yt.model.TableMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.function.Supplier;
+
+public class AdaptiveBatchController {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBatchController.class);
+    private static final long TARGET_FETCH_BYTES = 2L * 1024 * 1024;
+    private static final long TARGET_BATCH_BYTES = 4L * 1024 * 1024;
+    private static final int MIN_SIZE = 50;
+    private static final int MAX_SIZE = 20000;
+    private static final int BATCHES_PER_COMMIT = 5;
+    private static final int MAX_BATCHES_PER_COMMIT = 10;
+    private static final int SAMPLE_BATCHES = 4;
+    private static final double STEP = 1.25;
+    private static final double HEAP_PRESSURE = 0.8;
+    private static final long REPORT_INTERVAL_MS = 10000;
+
+    private final String tableName;
+    private final int rowWidth;
+    private final Supplier<String> poolStatus;
+    // 三個參數各自按自己的耗時信號調整：fetchSize 看讀取耗時，batchSize 看插入耗時，commitInterval 看提交耗時
+    private final Knob fetch;
+    private final Knob batch;
+    private final Knob commit;
+
+    private long totalRows;
+    private final long startTime = System.currentTimeMillis();
+    private long lastReportTime = startTime;
+
+    public AdaptiveBatchController(TableMetadata metadata, Supplier<String> poolStatus) {
+        this.tableName = metadata.getTableName();
+        this.poolStatus = poolStatus;
+        this.rowWidth = estimateRowWidth(metadata);
+        // 按估算行寬給出初始值：窄表用大批量，寬表用小批量
+        int batchSize = clamp(TARGET_BATCH_BYTES / rowWidth);
+        this.fetch = new Knob("fetchSize", clamp(TARGET_FETCH_BYTES / rowWidth), MIN_SIZE, MAX_SIZE);
+        this.batch = new Knob("batchSize", batchSize, MIN_SIZE, MAX_SIZE);
+        this.commit = new Knob("commitInterval", batchSize * BATCHES_PER_COMMIT,
+            batchSize, batchSize * MAX_BATCHES_PER_COMMIT);
+        logger.info("表 {} 估算行寬 {} 字節, 初始 fetchSize={}, batchSize={}, commitInterval={}",
+            tableName, rowWidth, fetch.value, batch.value, commit.value);
+    }
+
+    public int getFetchSize() {
+        return fetch.value;
+    }
+
+    public int getInsertBatchSize() {
+        return batch.value;
+    }
+
+    public int getCommitInterval() {
+        return commit.value;
+    }
+
+    // 讀取 rows 行（不含插入）的耗時，用於調整 fetchSize
+    public synchronized void recordFetch(int rows, long elapsedNanos) {
+        if (fetch.record(rows, elapsedNanos)) {
+            relieveHeap();
+        }
+    }
+
+    // 執行一次批量插入的行數與耗時，用於調整 batchSize
+    public synchronized void recordInsert(int rows, long elapsedNanos) {
+        totalRows += rows;
+        if (batch.record(rows, elapsedNanos)) {
+            relieveHeap();
+            limitCommitInterval();
+        }
+    }
+
+    // 一次提交覆蓋的行數與耗時，用於調整 commitInterval。每行分攤的提交耗時只會隨間隔增大而下降，
+    // 單看它會一直調到上限；而間隔越大，未提交的 undo 越多，出錯時回滾與重做的行也越多，
+    // 因此間隔限制在 1 到 MAX_BATCHES_PER_COMMIT 個插入批次之間，隨 batchSize 一起移動
+    public synchronized void recordCommit(int rows, long elapsedNanos) {
+        commit.record(rows, elapsedNanos);
+    }
+
+    // 堆內存緊張時讀取與插入的緩衝立即減半，並繼續向縮小方向探測
+    private void relieveHeap() {
+        if (heapUsage() > HEAP_PRESSURE) {
+            fetch.shrink();
+            batch.shrink();
+            limitCommitInterval();
+            logger.debug("表 {} 堆內存使用率偏高，fetchSize 縮小為 {}, batchSize 縮小為 {}",
+                tableName, fetch.value, batch.value);
+        }
+    }
+
+    private void limitCommitInterval() {
+        commit.limit(batch.value, batch.value * MAX_BATCHES_PER_COMMIT);
+    }
+
+    // 進度日誌，每張表最多每 10 秒輸出一次
+    public void reportProgress(int completedChunks, int totalChunks, boolean force) {
+        long rows;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (!force && now - lastReportTime < REPORT_INTERVAL_MS) {
+                return;
+            }
+            lastReportTime = now;
+            rows = totalRows;
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        logger.info("表 {} 進度: {}/{} 批次, {} 行, {} 行/秒, fetchSize={}, batchSize={}, commitInterval={}, 連接池: {}",
+            tableName, completedChunks, totalChunks, rows, rows * 1000 / elapsed,
+            getFetchSize(), getInsertBatchSize(), getCommitInterval(), poolStatus.get());
+    }
+
+    static int estimateRowWidth(TableMetadata metadata) {
+        int width = 0;
+        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+            String dataType = column.getDataType();
+            if (dataType.equals("NUMBER") && column.getDataPrecision() > 0) {
+                width += column.getDataPrecision() / 2 + 2;
+            } else if (dataType.equals("DATE")) {
+                width += 7;
+            } else if (dataType.startsWith("TIMESTAMP")) {
+                width += 11;
+            } else {
+                width += Math.max(1, column.getDataLength());
+            }
+        }
+        return Math.max(1, width);
+    }
+
+    // 取 GC 後的老年代使用率：回收前的瞬時佔用大多是很快就會被回收的垃圾，不代表真正的內存壓力
+    static double heapUsage() {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            MemoryUsage collected = pool.getCollectionUsage();
+            if (collected != null && collected.getMax() > 0) {
+                usage = Math.max(usage, (double) collected.getUsed() / collected.getMax());
+            }
+        }
+        return usage;
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(MIN_SIZE, Math.min(MAX_SIZE, value));
+    }
+
+    // 單個參數的爬山調整：每累計幾個樣本比較一次每行耗時，變慢則反向
+    private final class Knob {
+        private final String name;
+        private int min;
+        private int max;
+        private volatile int value;
+        private long windowRows;
+        private long windowNanos;
+        private int windowSamples;
+        private double lastCost;
+        private int direction = 1;
+
+        private Knob(String name, int value, int min, int max) {
+            this.name = name;
+            this.value = value;
+            this.min = min;
+            this.max = max;
+        }
+
+        // 返回本次是否做了調整
+        private boolean record(int rows, long elapsedNanos) {
+            windowRows += rows;
+            windowNanos += elapsedNanos;
+            if (++windowSamples < SAMPLE_BATCHES || windowRows == 0) {
+                return false;
+            }
+            double cost = (double) windowNanos / windowRows;
+            windowRows = 0;
+            windowNanos = 0;
+            windowSamples = 0;
+
+            if (lastCost > 0 && cost > lastCost * 1.05) {
+                direction = -direction;
+            }
+            double factor = direction > 0 ? STEP : 1 / STEP;
+            value = bound((long) (value * factor));
+            lastCost = cost;
+            logger.debug("表 {} 每行耗時 {} 納秒, {} 調整為 {}", tableName, (long) cost, name, value);
+            return true;
+        }
+
+        // 調整上下限，當前值超出時移回範圍內
+        private void limit(int min, int max) {
+            this.min = min;
+            this.max = max;
+            value = bound(value);
+        }
+
+        private void shrink() {
+            value = bound(value / 2);
+            direction = -1;
+            lastCost = 0;
+        }
+
+        private int bound(long v) {
+            return (int) Math.max(min, Math.min(max, v));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.yt.service;
+
+import com.yt.exception.DBSyncException;
+import com.yt.model.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 只追加的斷點日誌：記錄每張表的分批計劃、已提交的批次、新建的表與已完成的表
+public class CheckpointJournal {
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointJournal.class);
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final String PLAN = "P";
+    private static final String PLAN_END = "E";
+    private static final String CHUNK_DONE = "D";
+    private static final String TABLE_DONE = "F";
+    private static final String TABLE_CREATED = "C";
+    private static final String DIRECT_PATH_BEGIN = "L";
+    private static final String DIRECT_PATH_RESTORED = "R";
+
+    private final Path file;
+    private final Map<String, List<Chunk>> plans = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> doneChunks = new ConcurrentHashMap<>();
+    private final Set<String> doneTables = ConcurrentHashMap.newKeySet();
+    private final Set<String> createdTables = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> directPathLoads = new ConcurrentHashMap<>();
+    private final StringBuilder pending = new StringBuilder();
+    private final Object flushLock = new Object();
+    private final FileChannel channel;
+    private final ScheduledExecutorService flusher;
+
+    public CheckpointJournal(Path file) {
+        this.file = file;
+        try {
+            if (Files.exists(file)) {
+                load();
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "無法打開斷點日誌 " + file, e);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+            FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isTableDone(String tableName) {
+        return doneTables.contains(tableName);
+    }
+
+    // 上次運行新建了目標表但尚未完成，索引與約束還沒有建立
+    public boolean isTableCreated(String tableName) {
+        return createdTables.contains(tableName);
+    }
+
+    // 上次運行已記錄的完整分批計劃，沒有則返回 null
+    public List<Chunk> getPlan(String tableName) {
+        return plans.get(tableName);
+    }
+
+    public boolean isChunkDone(String tableName, int index) {
+        Set<Integer> done = doneChunks.get(tableName);
+        return done != null && done.contains(index);
+    }
+
+    public void recordPlan(String tableName, List<Chunk> chunks) {
+        StringBuilder lines = new StringBuilder();
+        for (Chunk chunk : chunks) {
+            lines.append(encodeChunk(tableName, chunk)).append('\n');
+        }
+        lines.append(PLAN_END).append('\t').append(tableName).append('\t').append(chunks.size());
+        append(lines.toString(), true);
+        plans.put(tableName, chunks);
+    }
+
+    // 按主鍵範圍的批次重做前會先刪除目標端的同一範圍，日誌可以延遲落盤；
+    // 其他批次重做會產生重複數據，需要等待落盤
+    public void recordChunkDone(String tableName, Chunk chunk) {
+        append(CHUNK_DONE + '\t' + tableName + '\t' + chunk.getIndex(), !chunk.isKeyRange());
+    }
+
+    public void recordTableCreated(String tableName) {
+        append(TABLE_CREATED + '\t' + tableName, true);
+        createdTables.add(tableName);
+    }
+
+    public void recordTableDone(String tableName) {
+        append(TABLE_DONE + '\t' + tableName, true);
+        doneTables.add(tableName);
+    }
+
+    // 直接路徑裝載停用約束與索引之前記錄原來的狀態，必須先落盤再修改目標表
+    public void recordDirectPathBegin(String tableName, String state) {
+        append(DIRECT_PATH_BEGIN + '\t' + tableName + '\t' + encodeText(state), true);
+        directPathLoads.put(tableName, state);
+    }
+
+    public void recordDirectPathRestored(String tableName) {
+        append(DIRECT_PATH_RESTORED + '\t' + tableName, true);
+        directPathLoads.remove(tableName);
+    }
+
+    // 上次運行中停用了約束與索引、但沒有恢復的表 -> 停用前記錄的狀態
+    public Map<String, String> getPendingDirectPathLoads() {
+        return new HashMap<>(directPathLoads);
+    }
+
+    // 全部表同步成功後刪除日誌，下一次運行重新開始
+    public void complete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("無法刪除斷點日誌 {}", file, e);
+        }
+    }
+
+    public void close() {
+        flusher.shutdownNow();
+        flushQuietly();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("關閉斷點日誌時發生錯誤", e);
+        }
+    }
+
+    private void append(String line, boolean durable) {
+        synchronized (pending) {
+            pending.append(line).append('\n');
+        }
+        if (durable) {
+            flush();
+        }
+    }
+
+    // 併發調用時後到的線程會發現自己的記錄已被前一次落盤帶走，多個記錄共用一次 fsync
+    private void flush() {
+        synchronized (flushLock) {
+            String data;
+            synchronized (pending) {
+                if (pending.length() == 0) {
+                    return;
+                }
+                data = pending.toString();
+                pending.setLength(0);
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                    "寫入斷點日誌失敗", e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DBSyncException e) {
+            logger.error("寫入斷點日誌失敗", e);
+        }
+    }
+
+    private void load() throws IOException {
+        Map<String, List<Chunk>> partialPlans = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", -1);
+            try {
+                switch (fields[0]) {
+                    case PLAN:
+                        partialPlans.computeIfAbsent(fields[1], k -> new ArrayList<>())
+                            .add(decodeChunk(fields));
+                        break;
+                    case PLAN_END:
+                        List<Chunk> chunks = partialPlans.remove(fields[1]);
+                        if (chunks != null && chunks.size() == Integer.parseInt(fields[2])) {
+                            plans.put(fields[1], chunks);
+                        }
+                        break;
+                    case CHUNK_DONE:
+                        doneChunks.computeIfAbsent(fields[1], k -> new HashSet<>())
+                            .add(Integer.parseInt(fields[2]));
+                        break;
+                    case TABLE_DONE:
+                        doneTables.add(fields[1]);
+                        break;
+                    case TABLE_CREATED:
+                        createdTables.add(fields[1]);
+                        break;
+                    case DIRECT_PATH_BEGIN:
+                        directPathLoads.put(fields[1], decodeText(fields[2]));
+                        break;
+                    case DIRECT_PATH_RESTORED:
+                        directPathLoads.remove(fields[1]);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                // 崩潰時最後一行可能只寫了一半
+                logger.warn("忽略斷點日誌中無法解析的記錄: {}", line);
+            }
+        }
+        logger.info("已載入斷點日誌 {}: {} 個表已完成, {} 個表有未完成的分批計劃",
+            file, doneTables.size(), plans.size() - doneTables.size());
+    }
+
+    private static String encodeChunk(String tableName, Chunk chunk) {
+        StringBuilder line = new StringBuilder(PLAN);
+        line.append('\t').append(tableName)
+            .append('\t').append(chunk.getIndex())
+            .append('\t').append(chunk.isKeyRange() ? 1 : 0)
+            .append('\t').append(encodeText(chunk.getPredicate()))
+            .append('\t').append(encodeText(chunk.getOrderBy()))
+            .append('\t').append(chunk.getOffset())
+            .append('\t').append(chunk.getLimit());
+        for (Object param : chunk.getParams()) {
+            line.append('\t').append(encodeText(ValueCodec.encode(param)));
+        }
+        return line.toString();
+    }
+
+    private static Chunk decodeChunk(String[] fields) {
+        List<Object> params = new ArrayList<>();
+        for (int i = 8; i < fields.length; i++) {
+            params.add(ValueCodec.decode(decodeText(fields[i])));
+        }
+        return new Chunk(Integer.parseInt(fields[2]), decodeText(fields[4]), params,
+            "1".equals(fields[3]), decodeText(fields[5]),
+            Long.parseLong(fields[6]), Integer.parseInt(fields[7]));
+    }
+
+    private static String encodeText(String text) {
+        return text == null ? "-" :
+            Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeText(String text) {
+        return "-".equals(text) ? null :
+            new String(Base64.getDecoder().decode(text), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,218 @@
+package com.yt.service;
+
+import com.yt.model.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 全局批次調度器：所有表的批次共用一組工作線程。每張表一個雙端隊列，
+// 線程優先處理平均每個在做線程剩餘批次最多的表，小表做完後空閒線程自動分擔大表的批次
+public class ChunkScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkScheduler.class);
+
+    public interface ChunkTask {
+        void run(Chunk chunk) throws Exception;
+    }
+
+    // 不用 synchronized/wait，虛擬線程在 Object.wait 中會釘住載體線程
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<TableJob> jobs = new ArrayList<>();
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final AtomicLong steals = new AtomicLong();
+    private boolean shutdown;
+
+    public ChunkScheduler(int workerCount, ThreadFactory threadFactory) {
+        this.workerCount = workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::work);
+        }
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public long getSteals() {
+        return steals.get();
+    }
+
+    public int getQueuedChunks() {
+        lock.lock();
+        try {
+            int queued = 0;
+            for (TableJob job : jobs) {
+                queued += job.queue.size();
+            }
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // maxWorkers 限制同一張表同時處理的批次數，例如持有表鎖的直接路徑裝載
+    public TableJob submit(String tableName, List<Chunk> chunks, int maxWorkers, ChunkTask task) {
+        TableJob job = new TableJob(tableName, chunks, maxWorkers, task);
+        if (chunks.isEmpty()) {
+            job.done.complete(null);
+            return job;
+        }
+        lock.lock();
+        try {
+            jobs.add(job);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return job;
+    }
+
+    private void work() {
+        TableJob current = null;
+        while (true) {
+            TableJob job;
+            Chunk chunk;
+            lock.lock();
+            try {
+                while ((job = select(current)) == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    changed.await();
+                }
+                // 繼續做同一張表時從隊頭取，轉去別的表時從隊尾取，減少與原有線程的交錯
+                if (job == current) {
+                    chunk = job.queue.pollFirst();
+                } else {
+                    chunk = job.queue.pollLast();
+                    if (job.active > 0) {
+                        steals.incrementAndGet();
+                    }
+                }
+                job.active++;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            current = job;
+
+            // Error（例如 OutOfMemoryError）也要記為該表失敗並完成計數，否則 await() 永遠等不到結束
+            Throwable error = null;
+            try {
+                job.task.run(chunk);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                lock.lock();
+                try {
+                    job.active--;
+                    if (error != null) {
+                        job.fail(error);
+                    }
+                    if (job.queue.isEmpty() && job.active == 0) {
+                        jobs.remove(job);
+                        job.complete();
+                    }
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private TableJob select(TableJob current) {
+        TableJob best = null;
+        long bestQueued = 0;
+        long bestActive = 0;
+        for (TableJob job : jobs) {
+            if (job.queue.isEmpty() || job.active >= job.maxWorkers) {
+                continue;
+            }
+            // 比較 queued / (active + 1)，同分時留在當前的表
+            long queued = job.queue.size();
+            long active = job.active + 1;
+            long diff = queued * bestActive - bestQueued * active;
+            if (best == null || diff > 0 || (diff == 0 && job == current)) {
+                best = job;
+                bestQueued = queued;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public class TableJob {
+        private final String tableName;
+        private final Deque<Chunk> queue;
+        private final int maxWorkers;
+        private final ChunkTask task;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private int active;
+        private Throwable failure;
+
+        private TableJob(String tableName, List<Chunk> chunks, int maxWorkers, ChunkTask task) {
+            this.tableName = tableName;
+            this.queue = new ArrayDeque<>(chunks);
+            this.maxWorkers = maxWorkers;
+            this.task = task;
+        }
+
+        // 第一個失敗的批次取消該表剩餘的批次，已在處理的批次照常結束
+        private void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+                queue.clear();
+            } else {
+                logger.error("表 {} 的其他批次也發生錯誤", tableName, e);
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                done.completeExceptionally(failure);
+            } else {
+                done.complete(null);
+            }
+        }
+
+        public void await() throws InterruptedException, ExecutionException {
+            done.get();
+        }
+    }
+}
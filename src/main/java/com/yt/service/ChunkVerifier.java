@@ -0,0 +1,335 @@
+package com.yt.service;
+
+import com.yt.binder.ColumnBinder;
+import com.yt.binder.ColumnBinders;
+import com.yt.exception.DBSyncException;
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// 逐批校驗一張表：源與目標並行計算每批的行數與兩個與順序無關的行哈希和，只比較聚合結果。
+// 不一致的批次按主鍵哈希分桶逐層下鑽，桶足夠小時才拉取主鍵與行哈希定位差異行，不拉取整行數據
+public class ChunkVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkVerifier.class);
+    private static final int BUCKETS = 16;
+    private static final int MAX_LEVELS = 8;
+    private static final long LEAF_ROWS = 2000;
+    private static final int MAX_SAMPLES = 20;
+    private static final String HASH_RANGE = "4294967295";
+    // 行哈希取模用的梅森素數 2^61-1；每列哈希小於 2^33，乘以權重後 1000 列求和仍在 NUMBER 的 38 位精度內
+    private static final BigInteger ROW_MODULUS = BigInteger.valueOf(2305843009213693951L);
+    private static final BigInteger WEIGHT_BASE = BigInteger.valueOf(1000003);
+    // ORA_HASH 的結果在 0..4294967295 之間，NULL 用範圍外的值代替
+    private static final String NULL_HASH = "4294967296";
+
+    private final String tableName;
+    private final List<String> keys;
+    private final String rowExpr;
+    private final String keyExpr;
+    private final boolean incremental;
+    private final ExecutorService sideQueries;
+    private final AtomicInteger checkedChunks = new AtomicInteger();
+    private final AtomicInteger mismatchedChunks = new AtomicInteger();
+    private final LongAdder missingRows = new LongAdder();
+    private final LongAdder extraRows = new LongAdder();
+    private final LongAdder changedRows = new LongAdder();
+    private final AtomicInteger samples = new AtomicInteger();
+
+    // incremental 為 true 時目標多出的行不算不一致：源端在讀取高水位線之後更新的行水位線已超出校驗範圍，
+    // 在源端刪除的行增量同步也不會刪除，目標端保留的舊版本都表現為多出的行，留給下一次同步
+    public ChunkVerifier(TableMetadata metadata, ExecutorService sideQueries, boolean incremental) {
+        this.tableName = metadata.getTableName();
+        this.keys = metadata.getPrimaryKeys();
+        this.incremental = incremental;
+        this.sideQueries = sideQueries;
+
+        List<String> columnHashes = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        BigInteger weight = BigInteger.ONE;
+        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+            String expr = hashExpression(column);
+            if (expr == null) {
+                skipped.add(column.getName() + " (" + column.getDataType() + ")");
+                continue;
+            }
+            weight = weight.multiply(WEIGHT_BASE).mod(ROW_MODULUS);
+            columnHashes.add("NVL(" + expr + ", " + NULL_HASH + ") * " + weight);
+        }
+        if (!skipped.isEmpty()) {
+            logger.warn("表 {} 的列 {} 無法在數據庫端計算哈希，不參與校驗", tableName, skipped);
+        }
+        // 每列各自哈希後按列位置加權求和再取模，行哈希是一個定長的數字：
+        // 不做字符串拼接，列再多也不會超過 VARCHAR2 上限 (ORA-01489)，列的位置互換也會改變結果
+        this.rowExpr = columnHashes.isEmpty() ? "0" :
+            "MOD(" + String.join(" + ", columnHashes) + ", " + ROW_MODULUS + ")";
+        // 分桶依據：有主鍵時按主鍵，同一行在兩端落在同一桶；沒有主鍵時按整行哈希
+        this.keyExpr = keys.isEmpty() ? rowExpr : TablePlan.keyHashInput(metadata);
+    }
+
+    // LOB 用 DBMS_CRYPTO 對整個值做 SHA-1（需要 EXECUTE ON DBMS_CRYPTO 權限）；
+    // LONG 類型不能出現在表達式中，對象類型 (ADT、VARRAY、XMLTYPE、SDO_GEOMETRY 等) ORA_HASH 不支持
+    private static String hashExpression(TableMetadata.ColumnMetadata column) {
+        String name = column.getName();
+        ColumnBinder binder = ColumnBinders.forColumn(column);
+        if (binder == ColumnBinders.LONG_TEXT || binder == ColumnBinders.LONG_RAW) {
+            return null;
+        }
+        if (binder == ColumnBinders.CLOB || binder == ColumnBinders.BLOB) {
+            return "ORA_HASH(DBMS_CRYPTO.HASH(" + name + ", 3))";
+        }
+        if (binder == ColumnBinders.NCLOB) {
+            return "ORA_HASH(DBMS_CRYPTO.HASH(TO_CLOB(" + name + "), 3))";
+        }
+        if (binder == ColumnBinders.OBJECT) {
+            // 帶時區的時間戳與時間間隔是內置標量類型，可以直接哈希
+            String dataType = column.getDataType();
+            return dataType.startsWith("TIMESTAMP") || dataType.startsWith("INTERVAL") ?
+                "ORA_HASH(" + name + ")" : null;
+        }
+        return "ORA_HASH(" + name + ")";
+    }
+
+    public void verify(Connection sourceConn, Connection targetConn, Chunk chunk)
+            throws SQLException, InterruptedException {
+        checkedChunks.incrementAndGet();
+        Both<Digest> digests = digest(sourceConn, targetConn, chunk);
+        if (digests.source.equals(digests.target)) {
+            return;
+        }
+
+        mismatchedChunks.incrementAndGet();
+        logger.warn("表 {} 批次 {} 不一致: 源 {} 行, 目標 {} 行", tableName, chunk,
+            digests.source.rows, digests.target.rows);
+        drill(sourceConn, targetConn, chunk, 0, Math.max(digests.source.rows, digests.target.rows));
+    }
+
+    // 只比較聚合結果，不下鑽，用於差異同步判斷批次是否需要重新複製
+    public boolean matches(Connection sourceConn, Connection targetConn, Chunk chunk)
+            throws SQLException, InterruptedException {
+        Both<Digest> digests = digest(sourceConn, targetConn, chunk);
+        return digests.source.equals(digests.target);
+    }
+
+    private Both<Digest> digest(Connection sourceConn, Connection targetConn, Chunk chunk)
+            throws SQLException, InterruptedException {
+        String sql = "SELECT COUNT(*), SUM(ORA_HASH(r, " + HASH_RANGE + ")), SUM(ORA_HASH(r, " + HASH_RANGE +
+            ", 1)) FROM (SELECT " + rowExpr + " r FROM " + tableName + chunk.toSqlClause() + ")";
+        return onBoth(sourceConn, targetConn, conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                chunk.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return new Digest(rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3));
+                }
+            }
+        });
+    }
+
+    private void drill(Connection sourceConn, Connection targetConn, Chunk chunk,
+                       int level, long rows) throws SQLException, InterruptedException {
+        if (rows <= LEAF_ROWS || level >= MAX_LEVELS) {
+            compareRows(sourceConn, targetConn, chunk);
+            return;
+        }
+
+        // 每層使用不同的種子，上一層同一桶中的行在下一層重新分散
+        String bucket = "ORA_HASH(" + keyExpr + ", " + (BUCKETS - 1) + ", " + level + ")";
+        String sql = "SELECT b, COUNT(*), SUM(ORA_HASH(r, " + HASH_RANGE + ")), SUM(ORA_HASH(r, " +
+            HASH_RANGE + ", 1)) FROM (SELECT " + bucket + " b, " + rowExpr + " r FROM " + tableName +
+            chunk.toSqlClause() + ") GROUP BY b";
+        Both<Map<Long, Digest>> buckets = onBoth(sourceConn, targetConn, conn -> {
+            Map<Long, Digest> result = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                chunk.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getLong(1), new Digest(rs.getLong(2), rs.getBigDecimal(3), rs.getBigDecimal(4)));
+                    }
+                }
+            }
+            return result;
+        });
+
+        Set<Long> all = new HashSet<>(buckets.source.keySet());
+        all.addAll(buckets.target.keySet());
+        for (Long b : all) {
+            Digest source = buckets.source.getOrDefault(b, Digest.EMPTY);
+            Digest target = buckets.target.getOrDefault(b, Digest.EMPTY);
+            if (!source.equals(target)) {
+                drill(sourceConn, targetConn, chunk.filtered(bucket + " = ?", List.of(b)),
+                    level + 1, Math.max(source.rows, target.rows));
+            }
+        }
+    }
+
+    // 只拉取主鍵與行哈希；沒有主鍵時按行哈希的多重集合比較
+    private void compareRows(Connection sourceConn, Connection targetConn, Chunk chunk)
+            throws SQLException, InterruptedException {
+        String keyColumns = keys.isEmpty() ? "" : String.join(", ", keys) + ", ";
+        String sql = "SELECT " + keyColumns + "ORA_HASH(r, " + HASH_RANGE + ") FROM (SELECT " + keyColumns +
+            rowExpr + " r FROM " + tableName + chunk.toSqlClause() + ")";
+        Both<Map<String, Long>> rows = onBoth(sourceConn, targetConn, conn -> {
+            Map<String, Long> result = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                chunk.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (keys.isEmpty()) {
+                            result.merge(rs.getString(1), 1L, Long::sum);
+                        } else {
+                            StringBuilder key = new StringBuilder();
+                            for (int i = 1; i <= keys.size(); i++) {
+                                key.append(i > 1 ? "," : "").append(rs.getString(i));
+                            }
+                            result.put(key.toString(), rs.getLong(keys.size() + 1));
+                        }
+                    }
+                }
+            }
+            return result;
+        });
+
+        Set<String> all = new HashSet<>(rows.source.keySet());
+        all.addAll(rows.target.keySet());
+        for (String key : all) {
+            Long source = rows.source.get(key);
+            Long target = rows.target.get(key);
+            if (keys.isEmpty()) {
+                long diff = (source == null ? 0 : source) - (target == null ? 0 : target);
+                if (diff > 0) {
+                    missingRows.add(diff);
+                    sample("目標缺少 " + diff + " 行 (行哈希 " + key + ")");
+                } else if (diff < 0) {
+                    extraRows.add(-diff);
+                    sample("目標多出 " + -diff + " 行 (行哈希 " + key + ")");
+                }
+            } else if (target == null) {
+                missingRows.increment();
+                sample("目標缺少主鍵 " + key);
+            } else if (source == null) {
+                extraRows.increment();
+                if (!incremental) {
+                    sample("目標多出主鍵 " + key);
+                }
+            } else if (!source.equals(target)) {
+                changedRows.increment();
+                sample("主鍵 " + key + " 的數據不同");
+            }
+        }
+    }
+
+    // 每張表只輸出前幾條差異，總數見校驗摘要
+    private void sample(String detail) {
+        if (samples.incrementAndGet() <= MAX_SAMPLES) {
+            logger.warn("表 {} {}", tableName, detail);
+        }
+    }
+
+    // 源端查詢交給另一個線程，與目標端查詢同時進行
+    private <T> Both<T> onBoth(Connection sourceConn, Connection targetConn, SqlQuery<T> query)
+            throws SQLException, InterruptedException {
+        Future<T> source = sideQueries.submit(() -> query.run(sourceConn));
+        T target;
+        try {
+            target = query.run(targetConn);
+        } finally {
+            // 無論目標端是否失敗都等源端結束，連接才能安全歸還
+            try {
+                source.get();
+            } catch (ExecutionException ignored) {
+                // 在下面取結果時處理
+            }
+        }
+        try {
+            return new Both<>(source.get(), target);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new DBSyncException(DBSyncException.ErrorCode.VALIDATION_ERROR,
+                "校驗表 " + tableName + " 時發生錯誤", e.getCause());
+        }
+    }
+
+    public boolean isConsistent() {
+        if (incremental) {
+            return missingRows.sum() == 0 && changedRows.sum() == 0;
+        }
+        return mismatchedChunks.get() == 0;
+    }
+
+    public String getSummary() {
+        return "校驗 " + checkedChunks.get() + " 個批次，不一致 " + mismatchedChunks.get() +
+            " 個，目標缺少 " + missingRows.sum() + " 行，多出 " + extraRows.sum() +
+            " 行，數據不同 " + changedRows.sum() + " 行";
+    }
+
+    private interface SqlQuery<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private static class Both<T> {
+        private final T source;
+        private final T target;
+
+        private Both(T source, T target) {
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    private static class Digest {
+        private static final Digest EMPTY = new Digest(0, null, null);
+
+        private final long rows;
+        private final BigDecimal hash1;
+        private final BigDecimal hash2;
+
+        private Digest(long rows, BigDecimal hash1, BigDecimal hash2) {
+            this.rows = rows;
+            this.hash1 = hash1;
+            this.hash2 = hash2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Digest)) {
+                return false;
+            }
+            Digest other = (Digest) o;
+            return rows == other.rows && compare(hash1, other.hash1) && compare(hash2, other.hash2);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rows);
+        }
+
+        private static boolean compare(BigDecimal a, BigDecimal b) {
+            return a == null ? b == null : b != null && a.compareTo(b) == 0;
+        }
+    }
+}
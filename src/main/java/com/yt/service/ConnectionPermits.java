@@ -0,0 +1,51 @@
+package com.yt.service;
+
+import java.util.concurrent.Semaphore;
+
+// 虛擬線程模式下按連接池大小限制同時使用的連接，大量線程在許可上排隊，而不是在連接池上等待超時。
+// 需要兩種連接時總是先取源端再取目標端，按固定順序取得不會互相死鎖
+public class ConnectionPermits {
+    private final Semaphore source;
+    private final Semaphore target;
+
+    public ConnectionPermits(int sourcePermits, int targetPermits) {
+        this.source = new Semaphore(sourcePermits, true);
+        this.target = new Semaphore(targetPermits, true);
+    }
+
+    // 平台線程模式下線程數已按連接池大小決定，不需要再限制
+    public static ConnectionPermits unbounded() {
+        return new ConnectionPermits(Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public void acquireBoth() throws InterruptedException {
+        source.acquire();
+        try {
+            target.acquire();
+        } catch (InterruptedException e) {
+            source.release();
+            throw e;
+        }
+    }
+
+    public void releaseBoth() {
+        target.release();
+        source.release();
+    }
+
+    public void acquireSource() throws InterruptedException {
+        source.acquire();
+    }
+
+    public void releaseSource() {
+        source.release();
+    }
+
+    public void acquireTarget() throws InterruptedException {
+        target.acquire();
+    }
+
+    public void releaseTarget() {
+        target.release();
+    }
+}
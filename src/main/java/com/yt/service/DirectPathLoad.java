@@ -0,0 +1,207 @@
+package com.yt.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// 清空後的全量裝載：裝載前停用非主鍵約束並把索引設為不可用，裝載後並行重建
+public class DirectPathLoad {
+    private static final Logger logger = LoggerFactory.getLogger(DirectPathLoad.class);
+    private static final String NO_LOGGING = "N";
+    private static final String CONSTRAINT = "C";
+    private static final String INDEX = "I";
+    private static final String UNIQUE = "U";
+
+    private final String tableName;
+    private final boolean noLogging;
+    private final int rebuildParallelism;
+    private final List<String> disabledConstraints = new ArrayList<>();
+    private final List<String> unusableIndexes = new ArrayList<>();
+    // 唯一約束 -> {索引名, 列1, 列2, ...}，用於在啟用約束前並行建立它的索引
+    private final Map<String, List<String>> uniqueIndexes = new LinkedHashMap<>();
+
+    public DirectPathLoad(String tableName, boolean noLogging, int rebuildParallelism) {
+        this.tableName = tableName;
+        this.noLogging = noLogging;
+        this.rebuildParallelism = rebuildParallelism;
+    }
+
+    // 從斷點日誌中上次運行留下的狀態恢復，用於重建索引與啟用約束
+    public static DirectPathLoad fromState(String tableName, String state, int rebuildParallelism) {
+        boolean noLogging = false;
+        List<String[]> entries = new ArrayList<>();
+        for (String line : state.split("\n")) {
+            String[] fields = line.split("\t");
+            if (NO_LOGGING.equals(fields[0])) {
+                noLogging = "1".equals(fields[1]);
+            } else {
+                entries.add(fields);
+            }
+        }
+        DirectPathLoad load = new DirectPathLoad(tableName, noLogging, rebuildParallelism);
+        for (String[] fields : entries) {
+            switch (fields[0]) {
+                case CONSTRAINT:
+                    load.disabledConstraints.add(fields[1]);
+                    break;
+                case INDEX:
+                    load.unusableIndexes.add(fields[1]);
+                    break;
+                case UNIQUE:
+                    load.uniqueIndexes.put(fields[1], List.of(fields).subList(2, fields.length));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return load;
+    }
+
+    // 先查出要停用的約束與要設為不可用的索引，交給 beforeChange 持久化後才修改目標表，
+    // 中途崩潰時下次運行可以據此恢復
+    public void begin(Connection conn, Consumer<String> beforeChange) throws SQLException {
+        // 外鍵、唯一鍵與用戶定義的檢查約束；停用唯一鍵會一併刪除它自動創建的索引
+        disabledConstraints.addAll(queryNames(conn,
+            "SELECT constraint_name FROM user_constraints WHERE table_name = ? " +
+            "AND status = 'ENABLED' AND (constraint_type IN ('R', 'U') " +
+            "OR (constraint_type = 'C' AND generated = 'USER NAME'))"));
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT c.constraint_name, c.index_name, cc.column_name FROM user_constraints c " +
+                "JOIN user_cons_columns cc ON cc.table_name = c.table_name " +
+                "AND cc.constraint_name = c.constraint_name WHERE c.table_name = ? " +
+                "AND c.status = 'ENABLED' AND c.constraint_type = 'U' AND c.index_name IS NOT NULL " +
+                "ORDER BY c.constraint_name, cc.position")) {
+            stmt.setString(1, tableName.toUpperCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String indexName = rs.getString(2);
+                    uniqueIndexes.computeIfAbsent(rs.getString(1), k -> new ArrayList<>(List.of(indexName)))
+                        .add(rs.getString(3));
+                }
+            }
+        }
+
+        // 唯一索引不可用時插入會失敗，主鍵索引保留用於檢查重複
+        unusableIndexes.addAll(queryNames(conn,
+            "SELECT index_name FROM user_indexes WHERE table_name = ? " +
+            "AND uniqueness = 'NONUNIQUE' AND index_type IN ('NORMAL', 'BITMAP', 'FUNCTION-BASED NORMAL') " +
+            "AND partitioned = 'NO' AND index_name NOT IN (SELECT index_name FROM user_constraints " +
+            "WHERE table_name = ? AND constraint_type = 'P' AND index_name IS NOT NULL)"));
+
+        beforeChange.accept(describeState());
+
+        if (noLogging) {
+            execute(conn, "ALTER TABLE " + tableName + " NOLOGGING");
+        }
+        for (String constraint : disabledConstraints) {
+            execute(conn, "ALTER TABLE " + tableName + " DISABLE CONSTRAINT " + constraint);
+        }
+        for (String index : unusableIndexes) {
+            execute(conn, "ALTER INDEX " + index + " UNUSABLE");
+        }
+        logger.info("表 {} 進入直接路徑裝載: 停用 {} 個約束 {}，{} 個索引設為不可用 {}{}",
+            tableName, disabledConstraints.size(), disabledConstraints,
+            unusableIndexes.size(), unusableIndexes, noLogging ? "，NOLOGGING" : "");
+    }
+
+    // 返回重建索引與啟用約束的耗時（毫秒）；只處理當前仍不可用的索引與仍停用的約束，
+    // begin 中途失敗或上次運行崩潰後都可以重複調用
+    public long finish(Connection conn) throws SQLException {
+        long start = System.currentTimeMillis();
+        Set<String> stillUnusable = new HashSet<>(queryNames(conn,
+            "SELECT index_name FROM user_indexes WHERE table_name = ? AND status = 'UNUSABLE'"));
+        Set<String> stillDisabled = new HashSet<>(queryNames(conn,
+            "SELECT constraint_name FROM user_constraints WHERE table_name = ? AND status = 'DISABLED'"));
+        Set<String> existingIndexes = new HashSet<>(queryNames(conn,
+            "SELECT index_name FROM user_indexes WHERE table_name = ?"));
+
+        for (String index : unusableIndexes) {
+            if (stillUnusable.contains(index)) {
+                execute(conn, "ALTER INDEX " + index + " REBUILD PARALLEL " + rebuildParallelism +
+                    (noLogging ? " NOLOGGING" : ""));
+                resetIndexAttributes(conn, index);
+            }
+        }
+        for (String constraint : disabledConstraints) {
+            if (!stillDisabled.contains(constraint)) {
+                continue;
+            }
+            List<String> unique = uniqueIndexes.get(constraint);
+            if (unique == null) {
+                execute(conn, "ALTER TABLE " + tableName + " ENABLE VALIDATE CONSTRAINT " + constraint);
+                continue;
+            }
+            // 停用時被刪除的唯一索引先並行建立，再讓約束直接使用它，避免啟用約束時串行建索引
+            String index = unique.get(0);
+            if (!existingIndexes.contains(index)) {
+                execute(conn, "CREATE UNIQUE INDEX " + index + " ON " + tableName + " (" +
+                    String.join(", ", unique.subList(1, unique.size())) + ") PARALLEL " +
+                    rebuildParallelism + (noLogging ? " NOLOGGING" : ""));
+                resetIndexAttributes(conn, index);
+            }
+            execute(conn, "ALTER TABLE " + tableName + " ENABLE VALIDATE CONSTRAINT " + constraint +
+                " USING INDEX " + index);
+        }
+        if (noLogging) {
+            execute(conn, "ALTER TABLE " + tableName + " LOGGING");
+            logger.warn("表 {} 以 NOLOGGING 裝載，裝載的數據無法從歸檔日誌恢復，請盡快備份", tableName);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    // 恢復原來的並行度與日誌屬性，避免影響之後的查詢計劃
+    private void resetIndexAttributes(Connection conn, String index) throws SQLException {
+        execute(conn, "ALTER INDEX " + index + " NOPARALLEL");
+        if (noLogging) {
+            execute(conn, "ALTER INDEX " + index + " LOGGING");
+        }
+    }
+
+    private String describeState() {
+        StringBuilder state = new StringBuilder(NO_LOGGING).append('\t').append(noLogging ? 1 : 0);
+        for (String constraint : disabledConstraints) {
+            state.append('\n').append(CONSTRAINT).append('\t').append(constraint);
+        }
+        for (String index : unusableIndexes) {
+            state.append('\n').append(INDEX).append('\t').append(index);
+        }
+        for (Map.Entry<String, List<String>> unique : uniqueIndexes.entrySet()) {
+            state.append('\n').append(UNIQUE).append('\t').append(unique.getKey())
+                .append('\t').append(String.join("\t", unique.getValue()));
+        }
+        return state.toString();
+    }
+
+    private List<String> queryNames(Connection conn, String sql) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int parameters = sql.length() - sql.replace("?", "").length();
+            for (int i = 1; i <= parameters; i++) {
+                stmt.setString(i, tableName.toUpperCase());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.execute();
+        }
+    }
+}
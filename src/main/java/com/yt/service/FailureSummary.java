@@ -0,0 +1,113 @@
+package com.yt.service;
+
+import com.yt.model.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 本次運行中失敗的表與批次。失敗的表不記錄完成，未完成的批次仍在斷點日誌中，
+// 重新運行同一表清單時跳過已完成的表與批次，只重做這裡列出的內容
+final class FailureSummary {
+    private static final Logger logger = LoggerFactory.getLogger(FailureSummary.class);
+
+    private final Path file;
+    private final Map<String, String> failedTables = new LinkedHashMap<>();
+    private final Map<String, List<String>> details = new LinkedHashMap<>();
+
+    FailureSummary(Path file) {
+        this.file = file;
+    }
+
+    synchronized void chunkFailed(String label, Chunk chunk, Throwable error) {
+        addDetail(label, "批次 " + chunk + ": " + describe(error));
+    }
+
+    // 拆分到最小範圍後仍然失敗的行，keys 為其中的主鍵值（沒有主鍵時為空）
+    synchronized void rowsFailed(String label, Chunk chunk, List<String> keys, Throwable error) {
+        addDetail(label, "批次 " + chunk + " 中無法複製的行" +
+            (keys.isEmpty() ? "" : " " + keys) + ": " + describe(error));
+    }
+
+    synchronized void tableFailed(String tableName, Throwable error) {
+        failedTables.put(tableName, describe(error));
+    }
+
+    synchronized boolean isEmpty() {
+        return failedTables.isEmpty();
+    }
+
+    synchronized List<String> getFailedTables() {
+        return new ArrayList<>(failedTables.keySet());
+    }
+
+    // 寫入日誌與匯總文件；全部成功時刪除上次留下的匯總文件
+    synchronized void report() {
+        if (failedTables.isEmpty()) {
+            deleteQuietly();
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + LocalDateTime.now() + " 同步失敗 " + failedTables.size() + " 張表；" +
+            "修正原因後重新運行同一表清單，只會重做以下的表與其未完成的批次");
+        for (Map.Entry<String, String> table : failedTables.entrySet()) {
+            lines.add(table.getKey() + ": " + table.getValue());
+            for (Map.Entry<String, List<String>> entry : details.entrySet()) {
+                if (belongsTo(entry.getKey(), table.getKey())) {
+                    for (String detail : entry.getValue()) {
+                        lines.add("    " + (entry.getKey().equals(table.getKey()) ? "" : entry.getKey() + " ") + detail);
+                    }
+                }
+            }
+        }
+        lines.forEach(logger::error);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.write(file, lines, StandardCharsets.UTF_8);
+            logger.error("失敗匯總已寫入 {}", file);
+        } catch (IOException e) {
+            logger.warn("無法寫入失敗匯總 {}", file, e);
+        }
+    }
+
+    private void addDetail(String label, String detail) {
+        details.computeIfAbsent(label, key -> new ArrayList<>()).add(detail);
+    }
+
+    // 多目標時明細按 表名@目標 記錄
+    private static boolean belongsTo(String label, String tableName) {
+        return label.equals(tableName) || label.startsWith(tableName + "@");
+    }
+
+    // 只保留最內層的數據庫錯誤信息，完整堆棧已在發生時寫入日誌
+    private static String describe(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage().trim();
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private void deleteQuietly() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("無法刪除上次的失敗匯總 {}", file, e);
+        }
+    }
+}
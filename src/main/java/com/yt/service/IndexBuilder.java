@@ -0,0 +1,143 @@
+package com.yt.service;
+
+import com.yt.model.TableMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// 新建目標表的索引與約束在數據裝載完成後才建立：索引以 PARALLEL NOLOGGING 一次構建，
+// 比裝載時逐行維護快得多；外鍵引用的表可能還在裝載，由調用方在所有表完成後建立
+public class IndexBuilder {
+    private static final Logger logger = LoggerFactory.getLogger(IndexBuilder.class);
+    // 12.2 之前（或 COMPATIBLE 低於 12.2）的標識符上限
+    private static final int MAX_IDENTIFIER_BYTES = 30;
+
+    private final String tableName;
+    private final int parallelism;
+    private final List<TableMetadata.IndexMetadata> indexes = new ArrayList<>();
+    private final List<TableMetadata.ConstraintMetadata> constraints = new ArrayList<>();
+    private final List<TableMetadata.ConstraintMetadata> foreignKeys = new ArrayList<>();
+
+    // targetMetadata 為 null 表示目標表本次新建，源表的索引與約束全部需要建立
+    public IndexBuilder(TableMetadata sourceMetadata, TableMetadata targetMetadata, int parallelism) {
+        this.tableName = sourceMetadata.getTableName();
+        this.parallelism = parallelism;
+        for (TableMetadata.IndexMetadata index : sourceMetadata.getIndexes()) {
+            if (targetMetadata == null || targetMetadata.getIndexes().stream()
+                    .noneMatch(existing -> existing.getColumns().equals(index.getColumns()))) {
+                indexes.add(index);
+            }
+        }
+        for (TableMetadata.ConstraintMetadata constraint : sourceMetadata.getConstraints()) {
+            if (targetMetadata != null && targetMetadata.getConstraints().stream()
+                    .anyMatch(existing -> sameConstraint(existing, constraint))) {
+                continue;
+            }
+            if ("R".equals(constraint.getType())) {
+                foreignKeys.add(constraint);
+            } else {
+                constraints.add(constraint);
+            }
+        }
+    }
+
+    public boolean hasWork() {
+        return !indexes.isEmpty() || !constraints.isEmpty() || !foreignKeys.isEmpty();
+    }
+
+    public List<TableMetadata.ConstraintMetadata> getForeignKeys() {
+        return foreignKeys;
+    }
+
+    // 建立索引、唯一鍵與檢查約束，返回耗時（毫秒）
+    public long build(Connection conn) throws SQLException {
+        long start = System.currentTimeMillis();
+        for (TableMetadata.IndexMetadata index : indexes) {
+            createIndex(conn, index.getName(), index.isUnique(), index.isBitmap(), index.getColumns());
+        }
+        int uniqueKeys = 0;
+        for (TableMetadata.ConstraintMetadata constraint : constraints) {
+            if ("U".equals(constraint.getType())) {
+                // 先並行建立唯一索引，再以該索引啟用約束，避免 ADD CONSTRAINT 串行建索引
+                String indexName = constraint.isGeneratedName() || constraint.getIndexName() == null ?
+                    uniqueIndexName(tableName, ++uniqueKeys) : constraint.getIndexName();
+                createIndex(conn, indexName, true, false, constraint.getColumns());
+                execute(conn, "ALTER TABLE " + tableName + " ADD " + constraintName(constraint) +
+                    "UNIQUE (" + String.join(",", constraint.getColumns()) + ") USING INDEX " + indexName);
+            } else {
+                execute(conn, "ALTER TABLE " + tableName + " ADD " + constraintName(constraint) +
+                    "CHECK (" + constraint.getSearchCondition() + ")");
+            }
+        }
+        if (!indexes.isEmpty() || !constraints.isEmpty()) {
+            logger.info("表 {} 建立了 {} 個索引、{} 個約束 (並行度 {})",
+                tableName, indexes.size(), constraints.size(), parallelism);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    public static void createForeignKey(Connection conn, String tableName,
+                                        TableMetadata.ConstraintMetadata foreignKey) throws SQLException {
+        String sql = "ALTER TABLE " + tableName + " ADD " + constraintName(foreignKey) +
+            "FOREIGN KEY (" + String.join(",", foreignKey.getColumns()) + ") REFERENCES " +
+            foreignKey.getReferencedTable() + " (" + String.join(",", foreignKey.getReferencedColumns()) + ")";
+        if ("CASCADE".equals(foreignKey.getDeleteRule())) {
+            sql += " ON DELETE CASCADE";
+        } else if ("SET NULL".equals(foreignKey.getDeleteRule())) {
+            sql += " ON DELETE SET NULL";
+        }
+        execute(conn, sql);
+    }
+
+    private void createIndex(Connection conn, String indexName, boolean unique, boolean bitmap,
+                             List<String> columns) throws SQLException {
+        execute(conn, "CREATE " + (unique ? "UNIQUE " : bitmap ? "BITMAP " : "") + "INDEX " + indexName +
+            " ON " + tableName + " (" + String.join(",", columns) + ") PARALLEL " + parallelism + " NOLOGGING");
+        // 恢復默認的並行度與日誌屬性，避免影響之後的查詢計劃與恢復
+        execute(conn, "ALTER INDEX " + indexName + " NOPARALLEL");
+        execute(conn, "ALTER INDEX " + indexName + " LOGGING");
+    }
+
+    // UK_表名_序號；超過 30 字節時截短表名並加上完整表名的哈希，前綴相同的長表名不會得到同一個索引名
+    static String uniqueIndexName(String tableName, int number) {
+        String suffix = "_" + number;
+        String name = "UK_" + tableName + suffix;
+        if (name.getBytes(StandardCharsets.UTF_8).length <= MAX_IDENTIFIER_BYTES) {
+            return name;
+        }
+        String hash = String.format("_%08X", tableName.hashCode());
+        String prefix = tableName;
+        while (("UK_" + prefix + hash + suffix).getBytes(StandardCharsets.UTF_8).length > MAX_IDENTIFIER_BYTES) {
+            prefix = prefix.substring(0, prefix.offsetByCodePoints(prefix.length(), -1));
+        }
+        return "UK_" + prefix + hash + suffix;
+    }
+
+    // 系統生成的約束名在目標庫中可能已被佔用，交給目標庫重新生成
+    private static String constraintName(TableMetadata.ConstraintMetadata constraint) {
+        return constraint.isGeneratedName() ? "" : "CONSTRAINT " + constraint.getName() + " ";
+    }
+
+    private static boolean sameConstraint(TableMetadata.ConstraintMetadata existing,
+                                          TableMetadata.ConstraintMetadata constraint) {
+        if (!existing.getType().equals(constraint.getType())) {
+            return false;
+        }
+        if ("C".equals(constraint.getType())) {
+            return existing.getSearchCondition().equals(constraint.getSearchCondition());
+        }
+        return existing.getColumns().equals(constraint.getColumns());
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.execute();
+        }
+    }
+}
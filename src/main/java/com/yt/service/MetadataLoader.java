@@ -0,0 +1,400 @@
+package com.yt.service;
+
+import com.yt.model.TableMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+// 以少量批量數據字典查詢載入整個表清單的結構（列、主鍵、索引與約束），代替每張表單獨查詢；
+// 可選緩存到本地文件，表的 LAST_DDL_TIME 變化時重新查詢
+public class MetadataLoader {
+    private static final Logger logger = LoggerFactory.getLogger(MetadataLoader.class);
+    // Oracle IN 列表最多 1000 個值
+    private static final int IN_LIST_LIMIT = 1000;
+    private static final String IDENTITY_KEY = "identity";
+    // 系統為 NOT NULL 列生成的檢查約束，已包含在列定義中
+    private static final Pattern NOT_NULL_CHECK = Pattern.compile("\"?[^\"\\s]+\"? IS NOT NULL");
+
+    private final String side;
+    private final Path cacheFile;
+    private final Map<String, TableMetadata> tables = new HashMap<>();
+    private int queries;
+
+    public MetadataLoader(String side, Path cacheFile) {
+        this.side = side;
+        this.cacheFile = cacheFile;
+    }
+
+    public void load(Connection conn, List<String> tableNames) throws SQLException {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            names.put(tableName.toUpperCase(), tableName);
+        }
+
+        // 查詢 LAST_DDL_TIME 同時確認表是否存在
+        String identity = queryIdentity(conn);
+        Map<String, String> ddlTimes = new HashMap<>();
+        for (List<String> batch : partition(new ArrayList<>(names.keySet()))) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT object_name, TO_CHAR(last_ddl_time, 'YYYY-MM-DD HH24:MI:SS') FROM user_objects " +
+                    "WHERE object_type = 'TABLE' AND object_name IN (" + placeholders(batch.size()) + ")")) {
+                bind(stmt, batch);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ddlTimes.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+            }
+        }
+
+        Properties cache = readCache(identity);
+        List<String> stale = new ArrayList<>();
+        for (String upperName : ddlTimes.keySet()) {
+            TableMetadata cached = ddlTimes.get(upperName).equals(cache.getProperty(upperName + ".ddl")) ?
+                fromCache(cache, upperName, names.get(upperName)) : null;
+            if (cached != null) {
+                tables.put(upperName, cached);
+            } else {
+                tables.put(upperName, new TableMetadata(names.get(upperName)));
+                stale.add(upperName);
+            }
+        }
+
+        for (List<String> batch : partition(stale)) {
+            loadColumns(conn, batch);
+            loadPrimaryKeys(conn, batch);
+            loadIndexes(conn, batch);
+            loadConstraints(conn, batch);
+        }
+
+        // 全部命中且緩存中沒有多餘的表時不重寫文件，大表清單上重寫比查詢數據字典還慢
+        if (cacheFile != null && (!stale.isEmpty() || countCachedTables(cache) != ddlTimes.size())) {
+            writeCache(identity, ddlTimes);
+        }
+        logger.info("{}數據庫結構載入完成: 表清單 {} 張，存在 {} 張，緩存命中 {} 張，數據字典查詢 {} 次",
+            side, names.size(), ddlTimes.size(), ddlTimes.size() - stale.size(), queries);
+    }
+
+    // 表不存在時返回 null
+    public TableMetadata get(String tableName) {
+        return tables.get(tableName.toUpperCase());
+    }
+
+    private void loadColumns(Connection conn, List<String> batch) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT table_name, column_name, data_type, data_length, data_precision, data_scale, " +
+                "nullable, column_id FROM user_tab_columns WHERE table_name IN (" +
+                placeholders(batch.size()) + ") ORDER BY table_name, column_id")) {
+            bind(stmt, batch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tables.get(rs.getString("table_name")).addColumn(new TableMetadata.ColumnMetadata(
+                        rs.getString("column_name"),
+                        rs.getString("data_type"),
+                        rs.getInt("data_length"),
+                        rs.getInt("data_precision"),
+                        rs.getInt("data_scale"),
+                        "Y".equals(rs.getString("nullable")),
+                        rs.getInt("column_id")
+                    ));
+                }
+            }
+        }
+    }
+
+    private void loadPrimaryKeys(Connection conn, List<String> batch) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT c.table_name, cc.column_name FROM user_constraints c " +
+                "JOIN user_cons_columns cc ON cc.constraint_name = c.constraint_name " +
+                "WHERE c.constraint_type = 'P' AND c.table_name IN (" + placeholders(batch.size()) + ") " +
+                "ORDER BY c.table_name, cc.position")) {
+            bind(stmt, batch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tables.get(rs.getString(1)).addPrimaryKey(rs.getString(2));
+                }
+            }
+        }
+    }
+
+    // 主鍵與唯一鍵的索引隨約束建立；函數索引與降序索引不在範圍內
+    private void loadIndexes(Connection conn, List<String> batch) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT i.table_name, i.index_name, i.uniqueness, i.index_type, c.column_name " +
+                "FROM user_indexes i JOIN user_ind_columns c ON c.index_name = i.index_name " +
+                "WHERE i.index_type IN ('NORMAL', 'BITMAP') AND i.table_name IN (" +
+                placeholders(batch.size()) + ") AND i.index_name NOT IN (SELECT index_name " +
+                "FROM user_constraints WHERE constraint_type IN ('P', 'U') AND index_name IS NOT NULL) " +
+                "ORDER BY i.table_name, i.index_name, c.column_position")) {
+            bind(stmt, batch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                TableMetadata.IndexMetadata index = null;
+                while (rs.next()) {
+                    if (index == null || !index.getName().equals(rs.getString(2))) {
+                        index = new TableMetadata.IndexMetadata(rs.getString(2),
+                            "UNIQUE".equals(rs.getString(3)), "BITMAP".equals(rs.getString(4)),
+                            new ArrayList<>());
+                        tables.get(rs.getString(1)).addIndex(index);
+                    }
+                    index.getColumns().add(rs.getString(5));
+                }
+            }
+        }
+    }
+
+    // 只載入啟用的約束；外鍵只支持引用同一用戶下的表
+    private void loadConstraints(Connection conn, List<String> batch) throws SQLException {
+        Map<String, TableMetadata.ConstraintMetadata> constraints = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT c.table_name, c.constraint_name, c.constraint_type, c.generated, c.index_name, " +
+                "c.delete_rule, r.table_name, c.search_condition FROM user_constraints c " +
+                "LEFT JOIN user_constraints r ON r.constraint_name = c.r_constraint_name " +
+                "WHERE c.constraint_type IN ('U', 'C', 'R') AND c.status = 'ENABLED' " +
+                "AND c.table_name IN (" + placeholders(batch.size()) + ") " +
+                "ORDER BY c.table_name, c.constraint_name")) {
+            bind(stmt, batch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String type = rs.getString(3);
+                    boolean generated = "GENERATED NAME".equals(rs.getString(4));
+                    String indexName = rs.getString(5);
+                    String deleteRule = rs.getString(6);
+                    String referencedTable = rs.getString(7);
+                    // search_condition 是 LONG 列，必須最後讀取
+                    String condition = rs.getString(8);
+                    if ("C".equals(type) && (condition == null ||
+                            (generated && NOT_NULL_CHECK.matcher(condition.trim()).matches()))) {
+                        continue;
+                    }
+                    if ("R".equals(type) && referencedTable == null) {
+                        continue;
+                    }
+                    TableMetadata.ConstraintMetadata constraint = new TableMetadata.ConstraintMetadata(
+                        rs.getString(2), type, generated, new ArrayList<>());
+                    constraint.setIndexName(indexName);
+                    constraint.setSearchCondition(condition);
+                    if ("R".equals(type)) {
+                        constraint.setReferencedTable(referencedTable);
+                        constraint.setReferencedColumns(new ArrayList<>());
+                        constraint.setDeleteRule(deleteRule);
+                    }
+                    tables.get(rs.getString(1)).addConstraint(constraint);
+                    constraints.put(constraint.getName(), constraint);
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT c.constraint_name, cc.column_name, rc.column_name FROM user_constraints c " +
+                "JOIN user_cons_columns cc ON cc.constraint_name = c.constraint_name " +
+                "LEFT JOIN user_cons_columns rc ON rc.constraint_name = c.r_constraint_name " +
+                "AND rc.position = cc.position WHERE c.constraint_type IN ('U', 'R') " +
+                "AND c.table_name IN (" + placeholders(batch.size()) + ") " +
+                "ORDER BY c.constraint_name, cc.position")) {
+            bind(stmt, batch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    TableMetadata.ConstraintMetadata constraint = constraints.get(rs.getString(1));
+                    if (constraint == null) {
+                        continue;
+                    }
+                    constraint.getColumns().add(rs.getString(2));
+                    if (constraint.getReferencedColumns() != null) {
+                        constraint.getReferencedColumns().add(rs.getString(3));
+                    }
+                }
+            }
+        }
+    }
+
+    // 緩存只對同一用戶、同一數據庫有效
+    private String queryIdentity(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT USER || '@' || SYS_CONTEXT('USERENV', 'DB_UNIQUE_NAME') FROM dual");
+             ResultSet rs = stmt.executeQuery()) {
+            queries++;
+            return rs.next() ? rs.getString(1) : "";
+        }
+    }
+
+    private Properties readCache(String identity) {
+        Properties cache = new Properties();
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return cache;
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile)) {
+            cache.load(reader);
+        } catch (IOException e) {
+            logger.warn("無法讀取{}數據庫結構緩存 {}，重新查詢", side, cacheFile, e);
+            return new Properties();
+        }
+        if (!identity.equals(cache.getProperty(IDENTITY_KEY))) {
+            logger.info("{}數據庫結構緩存屬於 {}，當前連接為 {}，不使用緩存", side,
+                cache.getProperty(IDENTITY_KEY), identity);
+            return new Properties();
+        }
+        return cache;
+    }
+
+    // 列記錄為 列號,類型,長度,精度,刻度,可空,列名；列名放在最後，可以包含逗號
+    private TableMetadata fromCache(Properties cache, String upperName, String tableName) {
+        try {
+            TableMetadata metadata = new TableMetadata(tableName);
+            int columns = Integer.parseInt(cache.getProperty(upperName + ".columns"));
+            for (int i = 1; i <= columns; i++) {
+                String[] fields = cache.getProperty(upperName + ".column." + i).split(",", 7);
+                metadata.addColumn(new TableMetadata.ColumnMetadata(fields[6], fields[1],
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4]),
+                    "Y".equals(fields[5]), Integer.parseInt(fields[0])));
+            }
+            int keys = Integer.parseInt(cache.getProperty(upperName + ".pks"));
+            for (int i = 1; i <= keys; i++) {
+                metadata.addPrimaryKey(cache.getProperty(upperName + ".pk." + i));
+            }
+            int indexes = Integer.parseInt(cache.getProperty(upperName + ".indexes"));
+            for (int i = 1; i <= indexes; i++) {
+                String prefix = upperName + ".index." + i;
+                String[] fields = cache.getProperty(prefix).split(",", 3);
+                metadata.addIndex(new TableMetadata.IndexMetadata(fields[2], "U".equals(fields[0]),
+                    "B".equals(fields[1]), splitList(cache.getProperty(prefix + ".columns"))));
+            }
+            int constraints = Integer.parseInt(cache.getProperty(upperName + ".constraints"));
+            for (int i = 1; i <= constraints; i++) {
+                String prefix = upperName + ".constraint." + i;
+                String[] fields = cache.getProperty(prefix).split(",", 3);
+                TableMetadata.ConstraintMetadata constraint = new TableMetadata.ConstraintMetadata(
+                    fields[2], fields[0], "G".equals(fields[1]), splitList(cache.getProperty(prefix + ".columns")));
+                constraint.setIndexName(cache.getProperty(prefix + ".index"));
+                constraint.setSearchCondition(cache.getProperty(prefix + ".condition"));
+                constraint.setReferencedTable(cache.getProperty(prefix + ".refTable"));
+                if (constraint.getReferencedTable() != null) {
+                    constraint.setReferencedColumns(splitList(cache.getProperty(prefix + ".refColumns")));
+                }
+                constraint.setDeleteRule(cache.getProperty(prefix + ".deleteRule"));
+                metadata.addConstraint(constraint);
+            }
+            return metadata;
+        } catch (RuntimeException e) {
+            logger.warn("{}數據庫結構緩存中表 {} 的記錄無效，重新查詢", side, upperName);
+            return null;
+        }
+    }
+
+    private static long countCachedTables(Properties cache) {
+        return cache.stringPropertyNames().stream().filter(key -> key.endsWith(".ddl")).count();
+    }
+
+    // 先寫臨時文件再原子替換，寫入失敗只影響下次啟動速度
+    private void writeCache(String identity, Map<String, String> ddlTimes) {
+        Properties cache = new Properties();
+        cache.setProperty(IDENTITY_KEY, identity);
+        for (Map.Entry<String, String> entry : ddlTimes.entrySet()) {
+            String upperName = entry.getKey();
+            TableMetadata metadata = tables.get(upperName);
+            cache.setProperty(upperName + ".ddl", entry.getValue());
+            List<TableMetadata.ColumnMetadata> columns = metadata.getColumns();
+            cache.setProperty(upperName + ".columns", String.valueOf(columns.size()));
+            for (int i = 0; i < columns.size(); i++) {
+                TableMetadata.ColumnMetadata column = columns.get(i);
+                cache.setProperty(upperName + ".column." + (i + 1), column.getColumnId() + "," +
+                    column.getDataType() + "," + column.getDataLength() + "," + column.getDataPrecision() +
+                    "," + column.getDataScale() + "," + (column.isNullable() ? "Y" : "N") + "," + column.getName());
+            }
+            List<String> keys = metadata.getPrimaryKeys();
+            cache.setProperty(upperName + ".pks", String.valueOf(keys.size()));
+            for (int i = 0; i < keys.size(); i++) {
+                cache.setProperty(upperName + ".pk." + (i + 1), keys.get(i));
+            }
+            List<TableMetadata.IndexMetadata> indexes = metadata.getIndexes();
+            cache.setProperty(upperName + ".indexes", String.valueOf(indexes.size()));
+            for (int i = 0; i < indexes.size(); i++) {
+                TableMetadata.IndexMetadata index = indexes.get(i);
+                String prefix = upperName + ".index." + (i + 1);
+                cache.setProperty(prefix, (index.isUnique() ? "U" : "N") + "," +
+                    (index.isBitmap() ? "B" : "N") + "," + index.getName());
+                cache.setProperty(prefix + ".columns", String.join(",", index.getColumns()));
+            }
+            List<TableMetadata.ConstraintMetadata> constraints = metadata.getConstraints();
+            cache.setProperty(upperName + ".constraints", String.valueOf(constraints.size()));
+            for (int i = 0; i < constraints.size(); i++) {
+                TableMetadata.ConstraintMetadata constraint = constraints.get(i);
+                String prefix = upperName + ".constraint." + (i + 1);
+                cache.setProperty(prefix, constraint.getType() + "," +
+                    (constraint.isGeneratedName() ? "G" : "U") + "," + constraint.getName());
+                cache.setProperty(prefix + ".columns", String.join(",", constraint.getColumns()));
+                setIfPresent(cache, prefix + ".index", constraint.getIndexName());
+                setIfPresent(cache, prefix + ".condition", constraint.getSearchCondition());
+                setIfPresent(cache, prefix + ".refTable", constraint.getReferencedTable());
+                if (constraint.getReferencedColumns() != null) {
+                    cache.setProperty(prefix + ".refColumns", String.join(",", constraint.getReferencedColumns()));
+                }
+                setIfPresent(cache, prefix + ".deleteRule", constraint.getDeleteRule());
+            }
+        }
+
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile)) {
+                cache.store(writer, "DBSyncTool metadata cache");
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("無法保存{}數據庫結構緩存 {}", side, cacheFile, e);
+        }
+    }
+
+    private static void setIfPresent(Properties cache, String key, String value) {
+        if (value != null) {
+            cache.setProperty(key, value);
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        if (value != null && !value.isEmpty()) {
+            Collections.addAll(items, value.split(","));
+        }
+        return items;
+    }
+
+    static List<List<String>> partition(List<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < names.size(); i += IN_LIST_LIMIT) {
+            batches.add(names.subList(i, Math.min(i + IN_LIST_LIMIT, names.size())));
+        }
+        return batches;
+    }
+
+    private void bind(PreparedStatement stmt, List<String> batch) throws SQLException {
+        queries++;
+        for (int i = 0; i < batch.size(); i++) {
+            stmt.setString(i + 1, batch.get(i));
+        }
+    }
+
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
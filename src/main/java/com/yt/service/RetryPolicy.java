@@ -0,0 +1,87 @@
+package com.yt.service;
+
+import com.yt.model.Chunk;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 批次失敗的分類與重試間隔：連接中斷、快照過舊等暫時性錯誤隔一段時間重做整個批次通常就能成功；
+// 違反約束、值超出列長度等數據錯誤重做無用，只能拆分批次找出有問題的行
+final class RetryPolicy {
+    private static final Set<Integer> TRANSIENT_ERRORS = Set.of(
+        60,                         // 死鎖
+        1555,                       // 快照過舊
+        1033, 1034, 1089,           // 數據庫正在啟動或關閉
+        3113, 3114, 3135,           // 連接中斷
+        12170, 12514, 12516, 12518, 12519, 12520, 12528, 12537, 12541, 12543, 12571, // 監聽程序與網絡
+        17002, 17008, 17410,        // 驅動端 IO 錯誤、連接已關閉、套接字沒有更多數據
+        25408);                     // 連接故障後無法安全重放
+    private static final Set<Integer> DATA_ERRORS = Set.of(
+        1,                          // 違反唯一約束
+        1400, 1407,                 // 不能插入或更新為 NULL
+        1401, 1438, 12899,          // 值超出列的精度或長度
+        1461,                       // LONG 值只能插入 LONG 列
+        1722,                       // 無效數字
+        1830, 1839, 1840, 1841, 1843, 1847, 1858, 1861, // 日期轉換
+        2290, 2291,                 // 違反檢查約束、父鍵不存在
+        22835,                      // LOB 轉換為 CHAR/RAW 時緩衝區不足
+        29275);                     // 不完整的多字節字符
+    private static final long MAX_BACKOFF_MILLIS = 5 * 60 * 1000;
+
+    private final long initialBackoffMillis;
+
+    RetryPolicy(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    // 沿異常鏈查找，批量執行的錯誤常被包裝在 BatchUpdateException 或連接池的異常中
+    static boolean isTransient(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (e instanceof SQLException && TRANSIENT_ERRORS.contains(((SQLException) e).getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isDataError(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof SQLException && DATA_ERRORS.contains(((SQLException) e).getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 分頁批次按行號對半分；其他批次按主鍵（keyHashInput 為空時按 ROWID）的哈希分成兩半，
+    // 每層使用不同的種子，上一層同一半中的行在下一層重新分散。已經縮小到約一行時返回空清單。
+    // 拆分後的條件也用於刪除目標端的同一範圍，keyHashInput 須與會話的 NLS 設置無關（見 TablePlan.keyHashInput）
+    static List<Chunk> split(Chunk chunk, String keyHashInput, int chunkSize, int level) {
+        if (chunk.isPaged()) {
+            if (chunk.getLimit() <= 1) {
+                return List.of();
+            }
+            int half = chunk.getLimit() / 2;
+            return List.of(chunk.subPage(0, half), chunk.subPage(half, chunk.getLimit() - half));
+        }
+        if (level >= 32 - Integer.numberOfLeadingZeros(chunkSize)) {
+            return List.of();
+        }
+        String keyExpr = keyHashInput.isEmpty() ? "ROWID" : keyHashInput;
+        String bucket = "ORA_HASH(" + keyExpr + ", 1, " + level + ") = ?";
+        return List.of(chunk.filtered(bucket, List.of(0)), chunk.filtered(bucket, List.of(1)));
+    }
+
+    // 指數退避，加上最多一半的隨機抖動，避免同時失敗的批次在同一時刻一起重試
+    long getBackoffMillis(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -0,0 +1,229 @@
+package com.yt.service;
+
+import com.yt.chunk.ChunkPlanner;
+import com.yt.chunk.ChunkingStrategy;
+import com.yt.chunk.KeysetChunkPlanner;
+import com.yt.chunk.OffsetChunkPlanner;
+import com.yt.chunk.RowidChunkPlanner;
+import com.yt.config.DatabaseConfig;
+import com.yt.config.SyncOptions;
+import com.yt.exception.DBSyncException;
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import com.yt.model.TableSpec;
+import com.yt.spill.ColumnEncoding;
+import com.yt.spill.SpillBlock;
+import com.yt.spill.SpillWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// 離線傳輸的導出端：每張表導出為一個列式壓縮文件（表名.spill），拷貝到目標環境後由 SpillImporter 導入，
+// 源庫與目標庫之間不需要網絡互通。表按同步時的分批方式切分，各批次由工作線程並行讀取並追加到同一文件
+public class SpillExporter {
+    private static final Logger logger = LoggerFactory.getLogger(SpillExporter.class);
+    public static final String FILE_SUFFIX = ".spill";
+
+    private final DatabaseConfig sourceDb;
+    private final Path directory;
+    private final int fetchSize;
+    private final ChunkingStrategy chunkingStrategy;
+    private final ExecutorService executorService;
+    private final ExecutorService chunkExecutor;
+    private final MetadataLoader schema;
+    private final TableSizeEstimator tableSizes = new TableSizeEstimator();
+    private final Map<ChunkingStrategy, ChunkPlanner> planners = new EnumMap<>(ChunkingStrategy.class);
+
+    public SpillExporter(DatabaseConfig sourceDb, SyncOptions options) {
+        this.sourceDb = sourceDb;
+        this.directory = options.getSpillDirectory();
+        this.fetchSize = options.getFetchSize();
+        this.chunkingStrategy = options.getChunkingStrategy();
+        // 與同步相同的連接預算：DB 線程數張表同時規劃，DB 線程數 × Table 線程數個批次同時讀取
+        this.executorService = Executors.newFixedThreadPool(options.getDbThreads());
+        this.chunkExecutor = Executors.newFixedThreadPool(options.getDbThreads() * options.getTableThreads());
+        Path cacheFile = options.getMetadataCacheFile();
+        this.schema = new MetadataLoader("源",
+            cacheFile == null ? null : cacheFile.resolveSibling(cacheFile.getFileName() + ".source"));
+        planners.put(ChunkingStrategy.OFFSET, new OffsetChunkPlanner());
+        planners.put(ChunkingStrategy.KEYSET, new KeysetChunkPlanner());
+        planners.put(ChunkingStrategy.ROWID, new RowidChunkPlanner());
+    }
+
+    public void exportTables(List<TableSpec> tables) {
+        List<String> tableNames = new ArrayList<>();
+        for (TableSpec table : tables) {
+            tableNames.add(table.getTableName());
+        }
+        try (Connection sourceConn = sourceDb.getConnection()) {
+            Files.createDirectories(directory);
+            schema.load(sourceConn, tableNames);
+            tableSizes.load(sourceConn, tableNames);
+        } catch (SQLException e) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONNECTION_ERROR,
+                "載入源數據庫結構時發生錯誤", e);
+        } catch (IOException e) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "無法建立導出目錄 " + directory, e);
+        }
+
+        // LOB/LONG 值只能逐行流式複製；數據塊需要把每個值完整讀入內存，大對象會耗盡堆，
+        // 超過 2 GB 的值也超出塊內的長度字段。開始前一次列出，不在導出中途失敗
+        List<String> streaming = new ArrayList<>();
+        for (TableSpec table : tables) {
+            TableMetadata metadata = schema.get(table.getTableName());
+            if (metadata != null && new TablePlan(metadata, false).hasStreamingColumns()) {
+                streaming.add(table.getTableName());
+            }
+        }
+        if (!streaming.isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "表 " + String.join(", ", streaming) + " 含 LOB/LONG 列，不支持離線導出，請從表清單中移除並以 SYNC 模式同步");
+        }
+
+        // 大表優先，與同步相同
+        tables = new ArrayList<>(tables);
+        tables.sort(Comparator.comparingLong((TableSpec t) -> tableSizes.getBytes(t.getTableName())).reversed());
+        List<Future<?>> futures = new ArrayList<>();
+        for (TableSpec table : tables) {
+            futures.add(executorService.submit(() -> {
+                exportTable(table);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("表導出失敗", e);
+                futures.forEach(pending -> pending.cancel(true));
+                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                    "表導出過程中發生錯誤", e);
+            }
+        }
+    }
+
+    private void exportTable(TableSpec spec) throws Exception {
+        String tableName = spec.getTableName();
+        TableMetadata metadata = schema.get(tableName);
+        if (metadata == null) {
+            throw new DBSyncException(DBSyncException.ErrorCode.TABLE_NOT_FOUND,
+                "源數據庫中不存在表 " + tableName);
+        }
+        if (spec.isIncremental()) {
+            logger.warn("表 {} 的水位線列在導出時不生效，導出整張表", tableName);
+        }
+        TablePlan plan = new TablePlan(metadata, false);
+        ColumnEncoding[] encodings = encodingsFor(plan);
+
+        ChunkingStrategy strategy = spec.getChunkingStrategy() != null ? spec.getChunkingStrategy() : chunkingStrategy;
+        if (strategy == ChunkingStrategy.KEYSET && metadata.getPrimaryKeys().isEmpty()) {
+            strategy = ChunkingStrategy.ROWID;
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        try (Connection sourceConn = sourceDb.getConnection()) {
+            long totalRows = strategy == ChunkingStrategy.OFFSET ? countRows(sourceConn, tableName) :
+                tableSizes.getEstimatedRows(tableName, AdaptiveBatchController.estimateRowWidth(metadata));
+            int chunkSize = spec.getBatchSize() > 0 ? spec.getBatchSize() : fetchSize;
+            for (Chunk chunk : planners.get(strategy).plan(sourceConn, metadata, totalRows, chunkSize)) {
+                chunks.add(spec.getFilter() == null ? chunk : chunk.filtered("(" + spec.getFilter() + ")", List.of()));
+            }
+        }
+        logger.info("開始導出表 {}, 切分為 {} 個批次 ({})", tableName, chunks.size(), strategy.getDescription());
+
+        long start = System.currentTimeMillis();
+        Path file = directory.resolve(tableName + FILE_SUFFIX);
+        try (SpillWriter writer = new SpillWriter(file, metadata)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                futures.add(chunkExecutor.submit(() -> {
+                    exportChunk(plan, encodings, chunk, writer);
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                throw e;
+            }
+            writer.finish();
+            long millis = Math.max(1, System.currentTimeMillis() - start);
+            logger.info("表 {} 導出完成: {} 行，文件 {} ({} MB)，耗時 {} ms，{} 行/秒", tableName,
+                writer.getTotalRows(), file, Files.size(file) / (1024 * 1024), millis,
+                writer.getTotalRows() * 1000 / millis);
+        }
+    }
+
+    // 每個批次獨立累積自己的數據塊，只有寫入文件時與其他批次競爭
+    private void exportChunk(TablePlan plan, ColumnEncoding[] encodings, Chunk chunk,
+                             SpillWriter writer) throws SQLException, IOException {
+        SpillBlock block = new SpillBlock(encodings);
+        try (Connection sourceConn = sourceDb.getConnection();
+             PreparedStatement stmt = sourceConn.prepareStatement(plan.getSelectSql(chunk))) {
+            chunk.bind(stmt, 1);
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    block.add(plan.readRow(rs));
+                    if (block.isFull()) {
+                        writer.append(block);
+                    }
+                }
+            }
+        }
+        writer.append(block);
+    }
+
+    // 導出與導入按同一 TablePlan 的列順序編碼
+    static ColumnEncoding[] encodingsFor(TablePlan plan) {
+        ColumnEncoding[] encodings = new ColumnEncoding[plan.getColumnCount()];
+        for (int i = 0; i < encodings.length; i++) {
+            encodings[i] = ColumnEncoding.forBinder(plan.getBinder(i));
+            if (encodings[i] == null) {
+                throw new DBSyncException(DBSyncException.ErrorCode.STRUCTURE_MISMATCH,
+                    "表 " + plan.getTableName() + " 的列 " + plan.getColumns().get(i) + " 類型不支持導出");
+            }
+        }
+        return encodings;
+    }
+
+    private long countRows(Connection conn, String tableName) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + tableName);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public void shutdown() {
+        chunkExecutor.shutdown();
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.yt.service;
+
+import com.yt.config.DatabaseConfig;
+import com.yt.config.SyncOptions;
+import com.yt.exception.DBSyncException;
+import com.yt.model.TableMetadata;
+import com.yt.model.TableSpec;
+import com.yt.spill.ColumnEncoding;
+import com.yt.spill.SpillReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 離線傳輸的導入端：讀取 SpillExporter 的導出文件，目標表不存在時按文件中的列定義建表。
+// 寫入線程從塊索引中輪流領取數據塊，以內存映射讀取、解壓後批量插入，每塊提交一次；
+// 並行度只取決於本端的線程數，與導出時如何切分無關。
+// 已提交的塊記錄在導出文件旁的進度文件中，中斷後重新運行只導入其餘的塊
+public class SpillImporter {
+    private static final Logger logger = LoggerFactory.getLogger(SpillImporter.class);
+    static final String PROGRESS_SUFFIX = ".imported";
+
+    private final DatabaseConfig targetDb;
+    private final Path directory;
+    private final boolean truncateTarget;
+    private final int insertBatchSize;
+    private final int writerThreads;
+    private final ExecutorService executorService;
+    private final ExecutorService writerExecutor;
+    private final MetadataLoader schema;
+
+    public SpillImporter(DatabaseConfig targetDb, SyncOptions options) {
+        this.targetDb = targetDb;
+        this.directory = options.getSpillDirectory();
+        this.truncateTarget = options.isTruncateTarget();
+        this.insertBatchSize = options.getFetchSize();
+        this.writerThreads = options.getDbThreads() * options.getTableThreads();
+        this.executorService = Executors.newFixedThreadPool(options.getDbThreads());
+        this.writerExecutor = Executors.newFixedThreadPool(writerThreads);
+        Path cacheFile = options.getMetadataCacheFile();
+        this.schema = new MetadataLoader("目標",
+            cacheFile == null ? null : cacheFile.resolveSibling(cacheFile.getFileName() + ".target"));
+    }
+
+    public void importTables(List<TableSpec> tables) {
+        List<String> tableNames = new ArrayList<>();
+        for (TableSpec table : tables) {
+            tableNames.add(table.getTableName());
+        }
+        try (Connection targetConn = targetDb.getConnection()) {
+            schema.load(targetConn, tableNames);
+        } catch (SQLException e) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONNECTION_ERROR,
+                "載入目標數據庫結構時發生錯誤", e);
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (TableSpec table : tables) {
+            futures.add(executorService.submit(() -> {
+                importTable(table.getTableName());
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("表導入失敗", e);
+                futures.forEach(pending -> pending.cancel(true));
+                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                    "表導入過程中發生錯誤", e);
+            }
+        }
+    }
+
+    private void importTable(String tableName) throws Exception {
+        Path file = directory.resolve(tableName + SpillExporter.FILE_SUFFIX);
+        if (!Files.exists(file)) {
+            throw new DBSyncException(DBSyncException.ErrorCode.TABLE_NOT_FOUND,
+                "表 " + tableName + " 的導出文件 " + file + " 不存在");
+        }
+        Path progressFile = directory.resolve(tableName + SpillExporter.FILE_SUFFIX + PROGRESS_SUFFIX);
+        try (SpillReader reader = new SpillReader(file)) {
+            TableMetadata metadata = reader.getMetadata();
+            TableMetadata existing = schema.get(tableName);
+            // 進度文件第一行記錄導出文件的大小與塊數，重新導出後舊的進度作廢
+            String identity = Files.size(file) + "\t" + reader.getBlockCount() + "\t" + reader.getTotalRows();
+            Set<Integer> doneBlocks = truncateTarget ? new HashSet<>() : loadProgress(progressFile, identity);
+            try (Connection targetConn = targetDb.getConnection()) {
+                if (existing == null) {
+                    // 新建的表是空表，舊的進度不適用
+                    doneBlocks = new HashSet<>();
+                    TableDdl.createTable(targetConn, metadata);
+                    logger.info("目標數據庫中不存在表 {}，已按導出文件中的列定義建表", tableName);
+                } else if (!metadata.equals(existing)) {
+                    throw new DBSyncException(DBSyncException.ErrorCode.STRUCTURE_MISMATCH,
+                        "表 " + tableName + " 的結構與導出文件不匹配");
+                } else if (truncateTarget) {
+                    TableDdl.truncateTable(targetConn, tableName);
+                } else if (doneBlocks == null && hasRows(targetConn, tableName)) {
+                    // 沒有本導出文件的導入進度，不知道表中的數據從哪裡來，追加會產生重複數據
+                    throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                        "目標表 " + tableName + " 已有數據且沒有導入進度記錄，請選擇清空目標表後重新導入");
+                }
+            }
+            if (doneBlocks == null) {
+                doneBlocks = new HashSet<>();
+            } else if (!doneBlocks.isEmpty()) {
+                logger.info("表 {} 上次導入已提交 {}/{} 個數據塊，繼續導入其餘的塊",
+                    tableName, doneBlocks.size(), reader.getBlockCount());
+            }
+
+            TablePlan plan = new TablePlan(metadata, false);
+            ColumnEncoding[] encodings = SpillExporter.encodingsFor(plan);
+            int writers = Math.max(1, Math.min(writerThreads, reader.getBlockCount()));
+            logger.info("開始導入表 {}, 共 {} 行 {} 個數據塊，{} 個寫入線程",
+                tableName, reader.getTotalRows(), reader.getBlockCount(), writers);
+
+            long start = System.currentTimeMillis();
+            AtomicInteger nextBlock = new AtomicInteger();
+            Set<Integer> skipped = doneBlocks;
+            List<Future<?>> futures = new ArrayList<>();
+            try (ImportProgress progress = new ImportProgress(progressFile, identity, !skipped.isEmpty())) {
+                for (int i = 0; i < writers; i++) {
+                    futures.add(writerExecutor.submit(() -> {
+                        writeBlocks(reader, plan, encodings, nextBlock, skipped, progress);
+                        return null;
+                    }));
+                }
+                try {
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    futures.forEach(pending -> pending.cancel(true));
+                    throw e;
+                }
+            }
+            // 全部塊都已提交，進度文件不再需要
+            Files.deleteIfExists(progressFile);
+            long millis = Math.max(1, System.currentTimeMillis() - start);
+            logger.info("表 {} 導入完成: {} 行，耗時 {} ms，{} 行/秒", tableName,
+                reader.getTotalRows(), millis, reader.getTotalRows() * 1000 / millis);
+        }
+    }
+
+    // 一個寫入線程一個連接，反覆領取下一個未導入的數據塊，每塊提交後記錄進度
+    private void writeBlocks(SpillReader reader, TablePlan plan, ColumnEncoding[] encodings,
+                             AtomicInteger nextBlock, Set<Integer> doneBlocks,
+                             ImportProgress progress) throws SQLException, IOException {
+        int batchSize = plan.getInsertBatchSize(insertBatchSize);
+        try (Connection targetConn = targetDb.getConnection();
+             PreparedStatement insertStmt = targetConn.prepareStatement(plan.getInsertSql())) {
+            targetConn.setAutoCommit(false);
+            try {
+                int block;
+                while ((block = nextBlock.getAndIncrement()) < reader.getBlockCount()) {
+                    if (doneBlocks.contains(block)) {
+                        continue;
+                    }
+                    int pending = 0;
+                    for (Object[] row : reader.readBlock(block, encodings)) {
+                        plan.writeRow(insertStmt, row);
+                        if (batchSize == 1) {
+                            // LONG 列不能進入批量，逐行執行
+                            insertStmt.executeUpdate();
+                            continue;
+                        }
+                        insertStmt.addBatch();
+                        if (++pending >= batchSize) {
+                            insertStmt.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        insertStmt.executeBatch();
+                    }
+                    targetConn.commit();
+                    progress.blockDone(block);
+                }
+            } catch (SQLException | IOException e) {
+                targetConn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static boolean hasRows(Connection conn, String tableName) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM " + tableName + " WHERE ROWNUM = 1");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    // 返回上次導入已提交的塊；沒有進度文件或進度屬於另一個導出文件時返回 null
+    static Set<Integer> loadProgress(Path progressFile, String identity) throws IOException {
+        if (!Files.exists(progressFile)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(progressFile, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(identity)) {
+            logger.warn("導入進度文件 {} 與當前導出文件不符，忽略", progressFile);
+            return null;
+        }
+        Set<Integer> done = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            try {
+                done.add(Integer.parseInt(line));
+            } catch (NumberFormatException e) {
+                // 崩潰時最後一行可能只寫了一半
+                logger.warn("忽略導入進度文件中無法解析的記錄: {}", line);
+            }
+        }
+        return done;
+    }
+
+    // 只追加的導入進度：每塊提交後落盤一行塊號
+    static class ImportProgress implements Closeable {
+        private final FileChannel channel;
+
+        ImportProgress(Path file, String identity, boolean resume) throws IOException {
+            if (resume) {
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } else {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                write(identity);
+            }
+        }
+
+        synchronized void blockDone(int block) throws IOException {
+            write(Integer.toString(block));
+        }
+
+        private void write(String line) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public void shutdown() {
+        writerExecutor.shutdown();
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
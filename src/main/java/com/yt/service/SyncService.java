@@ -1,289 +1,1373 @@
 package com.yt.service;
 
+import com.yt.binder.ColumnBinder;
+import com.yt.binder.ColumnBinders;
+import com.yt.binder.RowCopier;
+import com.yt.chunk.ChunkPlanner;
+import com.yt.chunk.ChunkingStrategy;
+import com.yt.chunk.KeysetChunkPlanner;
+import com.yt.chunk.OffsetChunkPlanner;
+import com.yt.chunk.RowidChunkPlanner;
 import com.yt.config.DatabaseConfig;
+import com.yt.config.SyncOptions;
 import com.yt.exception.DBSyncException;
+import com.yt.metrics.MetricsReporter;
+import com.yt.metrics.SyncMetrics;
+import com.yt.metrics.TableMetrics;
+import com.yt.model.Chunk;
+import com.yt.model.SyncMode;
 import com.yt.model.TableMetadata;
+import com.yt.model.TableSpec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SyncService {
     private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+    private static final int DIRECT_PATH_MIN_BATCH = 5000;
+    private static final Set<ColumnBinder> WATERMARK_BINDERS = Set.of(ColumnBinders.INT, ColumnBinders.LONG,
+        ColumnBinders.DOUBLE, ColumnBinders.FLOAT, ColumnBinders.DECIMAL, ColumnBinders.STRING,
+        ColumnBinders.NSTRING, ColumnBinders.TIMESTAMP);
     private final DatabaseConfig sourceDb;
     private final DatabaseConfig targetDb;
+    private final List<SyncTarget> targets = new ArrayList<>();
+    private final boolean fanOut;
     private final int fetchSize;
     private final ExecutorService executorService;
     private final int tableThreads;
+    private final ChunkScheduler scheduler;
+    private final ConnectionPermits permits;
+    private final SyncMetrics metrics = new SyncMetrics();
+    private final Path metricsFile;
+    private final int metricsIntervalSeconds;
+    private final boolean verify;
+    private final boolean diffSync;
+    private final ExecutorService verifyExecutor;
+    private final ExecutorService pipelineWriterExecutor;
+    private final List<String> inconsistentTables = new CopyOnWriteArrayList<>();
+    private final List<String> failedForeignKeys = new ArrayList<>();
     private final boolean truncateTarget;
+    private final ChunkingStrategy chunkingStrategy;
+    private final boolean pipelined;
+    private final int pipelineWriters;
+    private final int pipelineBufferBatches;
+    private final boolean directPath;
+    private final boolean noLogging;
+    private final int rebuildParallelism;
+    private final TablePlanCache planCache = new TablePlanCache();
+    private final WatermarkStore watermarkStore;
+    private final CheckpointJournal journal;
+    private final Map<ChunkingStrategy, ChunkPlanner> planners = new EnumMap<>(ChunkingStrategy.class);
+    private final MetadataLoader sourceSchema;
+    private final TableSizeEstimator tableSizes = new TableSizeEstimator();
+    private final int chunkRetries;
+    private final RetryPolicy retryPolicy;
+    private final FailureSummary failures;
+    private String dbLink;
 
-    public SyncService(DatabaseConfig sourceDb, DatabaseConfig targetDb, 
-                      int fetchSize, int dbThreads, int tableThreads, 
-                      boolean truncateTarget) {
+    // 多於一個目標時為扇出模式：每張表只讀取一次源數據，同時寫入所有目標
+    public SyncService(DatabaseConfig sourceDb, List<DatabaseConfig> targetDbs, SyncOptions options) {
         this.sourceDb = sourceDb;
-        this.targetDb = targetDb;
-        this.fetchSize = fetchSize;
-        this.executorService = Executors.newFixedThreadPool(dbThreads);
-        this.tableThreads = tableThreads;
-        this.truncateTarget = truncateTarget;
+        this.targetDb = targetDbs.get(0);
+        this.fanOut = targetDbs.size() > 1;
+        if (fanOut && options.isVirtualThreads()) {
+            // 扇出依賴每個目標長期佔用連接的寫入線程，與按需取得連接許可的虛擬線程模式不能共存
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "虛擬線程模式不支持多目標扇出");
+        }
+        this.fetchSize = options.getFetchSize();
+        this.tableThreads = options.getTableThreads();
+        this.truncateTarget = options.isTruncateTarget();
+        this.chunkingStrategy = options.getChunkingStrategy();
+        this.pipelined = (options.isPipelined() || fanOut) && !options.isVirtualThreads();
+        this.pipelineWriters = options.getPipelineWriters();
+        this.pipelineBufferBatches = options.getPipelineBufferBatches();
+        if (fanOut && options.isDirectPath()) {
+            logger.warn("多目標扇出不支持直接路徑裝載，改用常規插入");
+        }
+        this.directPath = options.isDirectPath() && !fanOut;
+        this.dbLink = targetDb.getDbLink();
+        if (fanOut && dbLink != null) {
+            logger.warn("多目標扇出不使用數據庫鏈接 {}，改用 JDBC 複製", dbLink);
+            this.dbLink = null;
+        }
+        this.noLogging = options.isNoLogging();
+        this.rebuildParallelism = options.getRebuildParallelism();
+        if (options.isVirtualThreads()) {
+            // 每張表與每個工作線程都是虛擬線程，阻塞在 JDBC 網絡調用時不佔用平台線程；
+            // 並發上限只由連接許可決定，不需要再設定線程數
+            int sourcePool = sourceDb.getMaximumPoolSize();
+            int targetPool = targetDb.getMaximumPoolSize();
+            this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+            this.permits = new ConnectionPermits(sourcePool, targetPool);
+            this.scheduler = new ChunkScheduler(Math.min(sourcePool, targetPool),
+                Thread.ofVirtual().name("chunk-worker-", 0).factory());
+            logger.info("使用虛擬線程模式，源連接許可 {}，目標連接許可 {}", sourcePool, targetPool);
+            if (options.isPipelined()) {
+                // 管線寫入線程長期佔用目標連接，與按需取得連接許可的批次不能安全共存
+                logger.warn("虛擬線程模式不支持管線模式，改為分批同步");
+            }
+        } else {
+            this.executorService = Executors.newFixedThreadPool(options.getDbThreads());
+            this.permits = ConnectionPermits.unbounded();
+            this.scheduler = new ChunkScheduler(resolveWorkerCount(options),
+                Executors.defaultThreadFactory());
+        }
+        this.watermarkStore = new WatermarkStore(options.getWatermarkFile());
+        this.journal = new CheckpointJournal(options.getJournalFile());
+        this.metricsFile = options.getMetricsFile();
+        this.metricsIntervalSeconds = options.getMetricsIntervalSeconds();
+        this.verify = options.isVerify();
+        this.diffSync = options.isDiffSync();
+        this.chunkRetries = options.getChunkRetries();
+        this.retryPolicy = new RetryPolicy(options.getRetryBackoffMillis());
+        this.failures = new FailureSummary(options.getFailureFile());
+        // 校驗時源端的哈希查詢在這裡執行，與目標端同時進行
+        this.verifyExecutor = options.isVirtualThreads() ?
+            Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+        // 所有表的管線寫入線程共用，不再每張表各建一個線程池；連接數由 permits 限制
+        this.pipelineWriterExecutor = options.isVirtualThreads() ?
+            Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+        Path cacheFile = options.getMetadataCacheFile();
+        this.sourceSchema = new MetadataLoader("源",
+            cacheFile == null ? null : cacheFile.resolveSibling(cacheFile.getFileName() + ".source"));
+        for (int i = 0; i < targetDbs.size(); i++) {
+            DatabaseConfig db = targetDbs.get(i);
+            // 第一個目標沿用單目標時的緩存文件名
+            String suffix = i == 0 ? ".target" : ".target" + (i + 1);
+            targets.add(new SyncTarget(db, new MetadataLoader(fanOut ? "目標 " + db.getName() + " " : "目標",
+                cacheFile == null ? null : cacheFile.resolveSibling(cacheFile.getFileName() + suffix))));
+        }
+        if (fanOut) {
+            logger.info("多目標扇出: {} 個目標，每個目標 {} 個寫入線程，緩衝區上限 {} 個批次",
+                targets.size(), pipelineWriters, pipelineBufferBatches);
+        }
+        planners.put(ChunkingStrategy.OFFSET, new OffsetChunkPlanner());
+        planners.put(ChunkingStrategy.KEYSET, new KeysetChunkPlanner());
+        planners.put(ChunkingStrategy.ROWID, new RowidChunkPlanner());
+    }
+
+    // 批次工作線程數由連接池決定：每張正在同步的表佔用一對源/目標連接做驗證與規劃，
+    // 管線模式的寫入線程另外佔用目標連接，其餘連接全部分給批次工作線程
+    private int resolveWorkerCount(SyncOptions options) {
+        int coordinators = options.getDbThreads();
+        int sourceAvailable = sourceDb.getMaximumPoolSize() - coordinators;
+        int targetAvailable = targetDb.getMaximumPoolSize() - coordinators;
+        if (options.isPipelined()) {
+            targetAvailable -= coordinators * options.getPipelineWriters();
+        }
+        int workers = Math.min(sourceAvailable, targetAvailable);
+        if (workers < 1) {
+            logger.warn("連接池不足以支撐 {} 個表線程，批次工作線程數降為 1，可能需要等待連接", coordinators);
+            workers = 1;
+        }
+        logger.info("批次工作線程數: {} (源連接池 {}，目標連接池 {})", workers,
+            sourceDb.getMaximumPoolSize(), targetDb.getMaximumPoolSize());
+        return workers;
+    }
+
+    private String getPoolStatus() {
+        StringBuilder status = new StringBuilder("源 [" + sourceDb.getPoolStatus() + "]");
+        for (SyncTarget target : targets) {
+            status.append(" 目標").append(fanOut ? " " + target.getName() : "")
+                .append(" [").append(target.getDb().getPoolStatus()).append("]");
+        }
+        return status.toString();
     }
 
-    public void syncTables(List<String> tables) {
+    private List<DatabaseConfig> getTargetDbs() {
+        List<DatabaseConfig> targetDbs = new ArrayList<>();
+        for (SyncTarget target : targets) {
+            targetDbs.add(target.getDb());
+        }
+        return targetDbs;
+    }
+
+    // 對每個目標執行同一步驟，第一個目標使用調用方已持有的連接
+    private void forEachTarget(Connection primaryConn, TargetAction action) throws SQLException {
+        action.run(targets.get(0), primaryConn);
+        for (SyncTarget target : targets.subList(1, targets.size())) {
+            try (Connection targetConn = target.getDb().getConnection()) {
+                action.run(target, targetConn);
+            }
+        }
+    }
+
+    private interface TargetAction {
+        void run(SyncTarget target, Connection targetConn) throws SQLException;
+    }
+
+    private String describeTarget(String tableName, SyncTarget target) {
+        return fanOut ? tableName + "@" + target.getName() : tableName;
+    }
+
+    public void syncTables(List<TableSpec> tables) {
+        restorePendingDirectPathLoads();
+        loadMetadata(tables);
+        checkDbLink();
         List<Future<?>> futures = new ArrayList<>();
+        // 大表優先 (LPT)：表線程按提交順序取表，最大的表最先開始，不會在最後拖長整體運行時間
+        tables = new ArrayList<>(tables);
+        tables.sort(Comparator.comparingLong((TableSpec t) -> tableSizes.getBytes(t.getTableName())).reversed());
+        logger.info("表同步順序 (按估算大小從大到小): {}", describeOrder(tables));
+        metrics.setQueuedChunks(scheduler::getQueuedChunks);
+        MetricsReporter reporter = new MetricsReporter(metrics, metricsFile, metricsIntervalSeconds);
+        reporter.start();
         
-        for (String table : tables) {
+        for (TableSpec table : tables) {
             futures.add(executorService.submit(() -> syncTable(table)));
         }
 
-        // 等待所有表同步完成
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (InterruptedException | ExecutionException e) {
-                logger.error("表同步失敗", e);
-                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR, 
-                    "表同步過程中發生錯誤", e);
+        // 等待所有表同步完成；一張表失敗不影響其他表，運行結束時匯總
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failures.tableFailed(tables.get(i).getTableName(), e.getCause());
+                } catch (InterruptedException e) {
+                    futures.forEach(pending -> pending.cancel(true));
+                    // 保留斷點日誌，下次運行從中斷處繼續
+                    journal.close();
+                    Thread.currentThread().interrupt();
+                    throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                        "表同步過程中被中斷", e);
+                }
             }
+            createForeignKeys();
+        } finally {
+            // 失敗時也寫出指標，便於分析慢在哪一端
+            reporter.close();
+        }
+        failures.report();
+        if (failures.isEmpty() && inconsistentTables.isEmpty()) {
+            journal.complete();
+        } else {
+            // 保留斷點日誌，重新運行時跳過已完成的表與批次
+            journal.close();
+        }
+
+        logger.info("同步計劃緩存共被批次重用 {} 次，省去等量的數據字典查詢",
+            planCache.getSavedDictionaryQueries());
+        logger.info("空閒工作線程共 {} 次轉去分擔其他表的批次", scheduler.getSteals());
+        logger.info("連接池: {}", getPoolStatus());
+
+        if (!failures.isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                "以下表同步失敗: " + failures.getFailedTables());
+        }
+        if (!failedForeignKeys.isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.STRUCTURE_MISMATCH,
+                "以下外鍵建立失敗: " + failedForeignKeys);
+        }
+        if (!inconsistentTables.isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.VALIDATION_ERROR,
+                "以下表的源與目標數據不一致: " + inconsistentTables);
         }
     }
 
-    private void syncTable(String tableName) {
-        try (Connection sourceConn = sourceDb.getConnection();
-             Connection targetConn = targetDb.getConnection()) {
-            
-            // 驗證表結構
-            TableMetadata sourceMetadata = getTableMetadata(sourceConn, tableName);
-            validateAndSyncStructure(sourceMetadata, targetConn);
+    // 開始同步前一次性載入整個表清單在兩端的結構，源與目標同時查詢
+    private void loadMetadata(List<TableSpec> tables) {
+        List<String> tableNames = new ArrayList<>();
+        for (TableSpec table : tables) {
+            tableNames.add(table.getTableName());
+        }
+        List<Future<?>> targetLoads = new ArrayList<>();
+        for (SyncTarget target : targets) {
+            targetLoads.add(executorService.submit(() -> {
+                try (Connection targetConn = target.getDb().getConnection()) {
+                    target.getSchema().load(targetConn, tableNames);
+                }
+                return null;
+            }));
+        }
+        try (Connection sourceConn = sourceDb.getConnection()) {
+            sourceSchema.load(sourceConn, tableNames);
+            tableSizes.load(sourceConn, tableNames);
+            for (Future<?> targetLoad : targetLoads) {
+                targetLoad.get();
+            }
+        } catch (SQLException | ExecutionException e) {
+            targetLoads.forEach(targetLoad -> targetLoad.cancel(true));
+            throw new DBSyncException(DBSyncException.ErrorCode.CONNECTION_ERROR,
+                "載入數據庫結構時發生錯誤", e);
+        } catch (InterruptedException e) {
+            targetLoads.forEach(targetLoad -> targetLoad.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DBSyncException(DBSyncException.ErrorCode.UNKNOWN_ERROR,
+                "載入數據庫結構時被中斷", e);
+        }
+    }
 
-            // 如果需要，清空目標表
-            if (truncateTarget) {
-                truncateTable(targetConn, tableName);
+    // 數據庫鏈接不可用時整次運行退回 JDBC 複製
+    private void checkDbLink() {
+        if (dbLink == null) {
+            return;
+        }
+        try (Connection targetConn = targetDb.getConnection();
+             PreparedStatement stmt = targetConn.prepareStatement("SELECT 1 FROM dual@" + dbLink);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            logger.info("經數據庫鏈接 {} 在目標端以 INSERT ... SELECT 複製數據，不經過客戶端", dbLink);
+        } catch (SQLException e) {
+            logger.warn("目標數據庫無法使用數據庫鏈接 {}，改用 JDBC 複製: {}", dbLink, e.getMessage());
+            dbLink = null;
+        }
+    }
+
+    private String describeOrder(List<TableSpec> tables) {
+        StringBuilder order = new StringBuilder();
+        for (int i = 0; i < Math.min(tables.size(), 10); i++) {
+            String tableName = tables.get(i).getTableName();
+            if (i > 0) {
+                order.append(", ");
             }
+            order.append(tableName).append(" (").append(tableSizes.getBytes(tableName) / (1024 * 1024)).append(" MB)");
+        }
+        if (tables.size() > 10) {
+            order.append(" ... 共 ").append(tables.size()).append(" 張");
+        }
+        return order.toString();
+    }
 
-            // 獲取源表數據總量
-            int totalRows = getTableRowCount(sourceConn, tableName);
-            logger.info("開始同步表 {}, 總行數: {}", tableName, totalRows);
+    private void syncTable(TableSpec spec) {
+        String tableName = spec.getTableName();
+        if (journal.isTableDone(tableName)) {
+            logger.info("表 {} 已在上次運行中完成，跳過", tableName);
+            return;
+        }
 
-            // 分批同步數據
-            int batchSize = fetchSize;
-            int totalBatches = (totalRows + batchSize - 1) / batchSize;
-            
-            List<Future<?>> batchFutures = new ArrayList<>();
-            ExecutorService tableExecutor = Executors.newFixedThreadPool(tableThreads);
+        TableContext context = null;
+        try {
+            // 驗證與規劃階段佔用一對連接，複製批次前歸還，讓給批次工作線程
+            permits.acquireBoth();
+            try (Connection sourceConn = sourceDb.getConnection();
+                 Connection targetConn = targetDb.getConnection()) {
+                context = prepareTable(spec, sourceConn, targetConn);
+            } finally {
+                permits.releaseBoth();
+            }
+            if (context == null) {
+                return;
+            }
 
-            for (int i = 0; i < totalBatches; i++) {
-                final int batchIndex = i;
-                batchFutures.add(tableExecutor.submit(() -> 
-                    syncBatch(tableName, batchIndex * batchSize, batchSize)));
+            if (context.isDirectPath()) {
+                copyDirectPath(context);
+            } else if (context.isDiff()) {
+                copyDifferences(context);
+            } else {
+                copyChunks(context, context.getChunks());
             }
 
-            // 等待所有批次完成
-            for (Future<?> future : batchFutures) {
-                future.get();
+            context.getTargetMetrics().forEach(TableMetrics::finish);
+            if (context.getFailedChunks() > 0) {
+                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                    "表 " + tableName + " 有 " + context.getFailedChunks() + " 個批次在重試後仍未完成");
             }
 
-            tableExecutor.shutdown();
+            // 所有批次都已在所有目標上提交後才推進水位線
+            if (spec.isIncremental()) {
+                watermarkStore.advance(tableName, context.getHighWatermark());
+            }
+            if (!context.getIndexBuilders().isEmpty()) {
+                buildIndexes(context);
+            }
             logger.info("表 {} 同步完成", tableName);
 
+            // 校驗通過後才記錄表已完成，校驗不一致的表重新運行時不會被跳過
+            if (!verify || verifyTable(context)) {
+                journal.recordTableDone(tableName);
+            }
+
         } catch (Exception e) {
             logger.error("同步表 {} 時發生錯誤", tableName, e);
             throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR, 
                 "同步表 " + tableName + " 時發生錯誤", e);
+        } finally {
+            if (context != null) {
+                context.getTargetMetrics().forEach(TableMetrics::finish);
+            }
         }
     }
 
-    private TableMetadata getTableMetadata(Connection conn, String tableName) throws SQLException {
-        TableMetadata metadata = new TableMetadata(tableName);
-        
-        // 獲取列信息
-        try (PreparedStatement stmt = conn.prepareStatement(
-                "SELECT Column_Name, Data_Type, Data_Length, DATA_PRECISION, " +
-                "Nullable, COLUMN_ID FROM user_tab_columns WHERE table_name = ? " +
-                "ORDER BY COLUMN_ID")) {
-            stmt.setString(1, tableName.toUpperCase());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    metadata.addColumn(new TableMetadata.ColumnMetadata(
-                        rs.getString("Column_Name"),
-                        rs.getString("Data_Type"),
-                        rs.getInt("Data_Length"),
-                        rs.getInt("DATA_PRECISION"),
-                        "Y".equals(rs.getString("Nullable")),
-                        rs.getInt("COLUMN_ID")
-                    ));
+    // 返回 null 表示該表本次沒有需要同步的數據
+    private TableContext prepareTable(TableSpec spec, Connection sourceConn,
+                                      Connection targetConn) throws SQLException {
+        String tableName = spec.getTableName();
+
+        // 驗證表結構
+        TableMetadata sourceMetadata = sourceSchema.get(tableName);
+        if (sourceMetadata == null) {
+            throw new DBSyncException(DBSyncException.ErrorCode.TABLE_NOT_FOUND,
+                "源數據庫中不存在表 " + tableName);
+        }
+        List<SyncTarget> createdTargets = new ArrayList<>();
+        forEachTarget(targetConn, (target, conn) -> {
+            if (validateAndSyncStructure(sourceMetadata, conn, target)) {
+                createdTargets.add(target);
+            }
+        });
+        if (!createdTargets.isEmpty()) {
+            journal.recordTableCreated(tableName);
+        }
+        if (spec.isIncremental()) {
+            validateIncremental(spec, sourceMetadata);
+        }
+        TablePlan plan = planCache.register(sourceMetadata, spec.isIncremental());
+        AdaptiveBatchController controller = new AdaptiveBatchController(sourceMetadata, this::getPoolStatus);
+
+        if (spec.hasOverrides()) {
+            logger.info("表 {} 使用單表設置: {}", tableName, spec.describeOverrides());
+        }
+        // 差異同步可以按表單獨開啟或關閉
+        boolean diffRequested = spec.getSyncMode() == null ? diffSync : spec.getSyncMode() == SyncMode.DIFF;
+        // 直接路徑裝載只用於清空後的全量同步
+        boolean tableDirectPath = directPath && truncateTarget && !spec.isIncremental() &&
+            spec.getSyncMode() != SyncMode.DIFF;
+        if (tableDirectPath && !plan.supportsDirectPath()) {
+            logger.warn("表 {} 含 LONG 列，改用常規插入", tableName);
+            tableDirectPath = false;
+        }
+        int rowWidth = AdaptiveBatchController.estimateRowWidth(sourceMetadata);
+        TableMetrics tableMetrics = metrics.register(describeTarget(tableName, targets.get(0)), rowWidth);
+        // 差異同步需要在兩端都能定位的主鍵範圍，重做無副作用，不清空也不記錄斷點
+        boolean tableDiff = diffRequested && !spec.isIncremental() && !tableDirectPath;
+        if (tableDiff && sourceMetadata.getPrimaryKeys().isEmpty()) {
+            logger.warn("表 {} 沒有主鍵，無法差異同步，改為全量同步", tableName);
+            tableDiff = false;
+        }
+        ChunkingStrategy strategy = resolveStrategy(spec, sourceMetadata);
+        // 扇出時不按主鍵範圍的批次在各目標分別提交，部分目標已提交的批次無法清理後重做，不記錄斷點
+        boolean journaled = !spec.isIncremental() && !tableDirectPath && !tableDiff &&
+            !(fanOut && strategy != ChunkingStrategy.KEYSET);
+        TableContext context = new TableContext(spec, plan, controller,
+            journaled, tableDirectPath, tableMetrics);
+        context.setDiff(tableDiff);
+        // 增量表按主鍵 MERGE，仍逐行經客戶端綁定
+        if (dbLink != null && !spec.isIncremental()) {
+            if (plan.supportsDbLink()) {
+                context.setDbLink(true);
+            } else {
+                logger.warn("表 {} 含 LONG 或對象類型列，不能經數據庫鏈接複製，改用 JDBC 複製", tableName);
+            }
+        }
+        if (fanOut) {
+            List<TableMetrics> targetMetrics = new ArrayList<>();
+            targetMetrics.add(tableMetrics);
+            for (SyncTarget target : targets.subList(1, targets.size())) {
+                targetMetrics.add(metrics.register(describeTarget(tableName, target), rowWidth));
+            }
+            context.setTargetMetrics(targetMetrics);
+        }
+
+        // 新建的目標表（含上次新建後中斷的表）在裝載完成後才建立源表的索引與約束
+        for (SyncTarget target : targets) {
+            boolean created = createdTargets.contains(target);
+            if (created || journal.isTableCreated(tableName)) {
+                IndexBuilder indexBuilder = new IndexBuilder(sourceMetadata,
+                    created ? null : target.getSchema().get(tableName), rebuildParallelism);
+                if (indexBuilder.hasWork()) {
+                    context.getIndexBuilders().put(target, indexBuilder);
                 }
             }
         }
 
-        // 獲取主鍵信息
-        try (PreparedStatement stmt = conn.prepareStatement(
-                "SELECT column_name FROM user_cons_columns WHERE constraint_name IN " +
-                "(SELECT constraint_name FROM user_constraints WHERE table_name = ? " +
-                "AND constraint_type = 'P')")) {
-            stmt.setString(1, tableName.toUpperCase());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    metadata.addPrimaryKey(rs.getString("column_name"));
+        // 上次運行留下的分批計劃，續傳時沿用原計劃以保證批次邊界不變
+        List<Chunk> resumedPlan = context.isJournaled() ? journal.getPlan(tableName) : null;
+
+        // 如果需要，清空目標表；增量同步與續傳的表保留目標數據
+        if (truncateTarget && !spec.isIncremental() && !tableDiff && resumedPlan == null) {
+            forEachTarget(targetConn, (target, conn) -> TableDdl.truncateTable(conn, tableName));
+        }
+
+        // 切分數據範圍
+        List<Chunk> chunks;
+        if (spec.isIncremental()) {
+            // 先固定本次的上限，同步期間新寫入的數據留給下一次
+            Object lowWatermark = watermarkStore.get(tableName);
+            Object highWatermark = getMaxValue(sourceConn, tableName,
+                sourceMetadata.getColumn(spec.getWatermarkColumn()));
+            if (highWatermark == null || (lowWatermark != null &&
+                    compareWatermark(highWatermark, lowWatermark) <= 0)) {
+                logger.info("表 {} 沒有超過水位線 {} 的新數據", tableName, lowWatermark);
+                forEachTarget(targetConn, (target, conn) -> {
+                    IndexBuilder indexBuilder = context.getIndexBuilders().get(target);
+                    if (indexBuilder != null) {
+                        indexBuilder.build(conn);
+                        registerForeignKeys(tableName, target, indexBuilder);
+                    }
+                });
+                return null;
+            }
+            logger.info("開始增量同步表 {}, 水位線範圍: ({}, {}]", tableName, lowWatermark, highWatermark);
+            chunks = applyFilter(spec, planIncremental(sourceConn, sourceMetadata, spec, strategy,
+                lowWatermark, highWatermark));
+            context.setHighWatermark(highWatermark);
+        } else if (tableDiff) {
+            long totalRows = getPlanningRowCount(sourceConn, sourceMetadata, ChunkingStrategy.KEYSET);
+            logger.info("開始差異同步表 {}, 估算行數: {}", tableName, totalRows);
+            tableMetrics.setExpectedRows(totalRows);
+            chunks = applyFilter(spec, planners.get(ChunkingStrategy.KEYSET).plan(sourceConn, sourceMetadata,
+                totalRows, getChunkSize(spec)));
+        } else if (resumedPlan != null) {
+            chunks = new ArrayList<>();
+            for (Chunk chunk : resumedPlan) {
+                if (!journal.isChunkDone(tableName, chunk.getIndex())) {
+                    chunks.add(chunk);
+                }
+            }
+            logger.info("表 {} 從斷點續傳: 共 {} 個批次，剩餘 {} 個",
+                tableName, resumedPlan.size(), chunks.size());
+            List<Chunk> unfinished = chunks;
+            forEachTarget(targetConn, (target, conn) -> clearUnfinishedRanges(conn, tableName, unfinished));
+        } else {
+            // 獲取源表數據總量
+            long totalRows = getPlanningRowCount(sourceConn, sourceMetadata, strategy);
+            logger.info("開始同步表 {}, {}: {}", tableName,
+                strategy == ChunkingStrategy.OFFSET ? "總行數" : "估算行數", totalRows);
+            tableMetrics.setExpectedRows(totalRows);
+            // 記錄的計劃已含過濾條件，續傳時不再疊加
+            chunks = applyFilter(spec, planners.get(strategy).plan(sourceConn, sourceMetadata,
+                totalRows, getChunkSize(spec)));
+            if (context.isJournaled()) {
+                journal.recordPlan(tableName, chunks);
+            }
+        }
+        logger.info("表 {} 切分為 {} 個批次 ({})", tableName, chunks.size(),
+            spec.isIncremental() ? "增量" : tableDiff ? "差異同步" : strategy.getDescription());
+        context.setChunks(chunks);
+        for (TableMetrics targetMetrics : context.getTargetMetrics()) {
+            targetMetrics.setExpectedRows(tableMetrics.getExpectedRows());
+            targetMetrics.setTotalChunks(chunks.size());
+        }
+        return context;
+    }
+
+    // 按主鍵範圍分批校驗，與 KEYSET 模式複製時的批次相同；沒有主鍵的表整表校驗。
+    // ROWID 與 OFFSET 批次在目標端不能定位同一批數據，不用於校驗
+    // 返回所有目標是否都與源一致
+    private boolean verifyTable(TableContext context) throws Exception {
+        String tableName = context.getTableName();
+        TableMetadata metadata = context.getPlan().getMetadata();
+        List<Chunk> chunks;
+        permits.acquireSource();
+        try (Connection sourceConn = sourceDb.getConnection()) {
+            if (metadata.getPrimaryKeys().isEmpty()) {
+                chunks = List.of(Chunk.range(0, null, null));
+            } else {
+                chunks = planners.get(ChunkingStrategy.KEYSET).plan(sourceConn, metadata,
+                    getPlanningRowCount(sourceConn, metadata, ChunkingStrategy.KEYSET),
+                    getChunkSize(context.getSpec()));
+            }
+        } finally {
+            permits.releaseSource();
+        }
+        chunks = applyFilter(context.getSpec(), chunks);
+
+        // 增量表只校驗本次水位線以內的數據，之後寫入源表的數據留給下一次同步；
+        // 目標端多出的行（源端之後更新或刪除的行）只記入摘要，不算不一致
+        if (context.getSpec().isIncremental()) {
+            String filter = context.getSpec().getWatermarkColumn() + " <= ?";
+            List<Chunk> filtered = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                filtered.add(chunk.filtered(filter, List.of(context.getHighWatermark())));
+            }
+            chunks = filtered;
+        }
+
+        boolean consistent = true;
+        for (SyncTarget target : targets) {
+            String label = describeTarget(tableName, target);
+            logger.info("開始校驗表 {}, 共 {} 個批次", label, chunks.size());
+            ChunkVerifier verifier = new ChunkVerifier(metadata, verifyExecutor, context.getSpec().isIncremental());
+            scheduler.submit(tableName, chunks, getMaxWorkers(context), chunk -> {
+                permits.acquireBoth();
+                try (Connection sourceConn = sourceDb.getConnection();
+                     Connection targetConn = target.getDb().getConnection()) {
+                    verifier.verify(sourceConn, targetConn, chunk);
+                } finally {
+                    permits.releaseBoth();
                 }
+            }).await();
+
+            if (verifier.isConsistent()) {
+                logger.info("表 {} 校驗一致: {}", label, verifier.getSummary());
+            } else {
+                logger.error("表 {} 校驗不一致: {}", label, verifier.getSummary());
+                inconsistentTables.add(label);
+                consistent = false;
             }
         }
+        return consistent;
+    }
 
-        return metadata;
+    private void copyDifferences(TableContext context) throws InterruptedException, ExecutionException {
+        // 各目標的差異不同，逐個目標比較，只有不一致的批次需要重新讀取源數據
+        for (int i = 0; i < targets.size(); i++) {
+            copyDifferences(context, targets.get(i), context.getTargetMetrics().get(i));
+        }
     }
 
-    private void validateAndSyncStructure(TableMetadata sourceMetadata, 
-                                        Connection targetConn) throws SQLException {
-        String tableName = sourceMetadata.getTableName();
-        
-        // 檢查目標表是否存在
-        try (PreparedStatement stmt = targetConn.prepareStatement(
-                "SELECT COUNT(*) FROM user_tables WHERE table_name = ?")) {
-            stmt.setString(1, tableName.toUpperCase());
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (!rs.next() || rs.getInt(1) == 0) {
-                    // 如果表不存在，創建表
-                    createTable(targetConn, sourceMetadata);
-                    return;
+    // 逐批比較兩端哈希，只刪除並重新複製不一致的批次；刪除與插入在同一事務中提交
+    private void copyDifferences(TableContext context, SyncTarget target, TableMetrics tableMetrics)
+            throws InterruptedException, ExecutionException {
+        String tableName = context.getTableName();
+        List<Chunk> chunks = context.getChunks();
+        ChunkVerifier verifier = new ChunkVerifier(context.getPlan().getMetadata(), verifyExecutor, false);
+        AtomicInteger completedChunks = new AtomicInteger();
+        AtomicInteger copiedChunks = new AtomicInteger();
+        AtomicLong deletedRows = new AtomicLong();
+
+        String label = describeTarget(tableName, target);
+        scheduler.submit(tableName, chunks, getMaxWorkers(context), chunk -> {
+            permits.acquireBoth();
+            try {
+                // 刪除與重新複製在同一事務中，失敗時整體回滾，可以直接重做
+                SQLException error = runWithRetry(label, chunk, chunkRetries, null, () -> {
+                    try (Connection sourceConn = sourceDb.getConnection();
+                         Connection targetConn = target.getDb().getConnection()) {
+                        if (!verifier.matches(sourceConn, targetConn, chunk)) {
+                            targetConn.setAutoCommit(false);
+                            int deleted = deleteRange(targetConn, tableName, chunk);
+                            copyBatch(context, chunk, sourceConn, targetConn, true, tableMetrics);
+                            deletedRows.addAndGet(deleted);
+                            copiedChunks.incrementAndGet();
+                        }
+                    }
+                });
+                if (error == null) {
+                    tableMetrics.chunkCompleted();
+                } else {
+                    logger.error("表 {} 批次 {} 差異同步失敗", label, chunk, error);
+                    failures.chunkFailed(label, chunk, error);
+                    context.recordFailedChunk();
                 }
+            } finally {
+                permits.releaseBoth();
+            }
+            context.getController().reportProgress(completedChunks.incrementAndGet(), chunks.size(), false);
+        }).await();
+
+        logger.info("表 {} 差異同步: 比較 {} 個批次，重新複製 {} 個，刪除目標舊數據 {} 行",
+            label, chunks.size(), copiedChunks.get(), deletedRows.get());
+    }
+
+    // 在表線程上建立，不佔用批次工作線程；多個表線程同時為各自的表建立索引
+    private void buildIndexes(TableContext context) throws SQLException, InterruptedException {
+        String tableName = context.getTableName();
+        for (Map.Entry<SyncTarget, IndexBuilder> entry : context.getIndexBuilders().entrySet()) {
+            SyncTarget target = entry.getKey();
+            TableMetrics tableMetrics = context.getTargetMetrics().get(targets.indexOf(target));
+            long millis;
+            permits.acquireTarget();
+            try (Connection targetConn = target.getDb().getConnection()) {
+                millis = entry.getValue().build(targetConn);
+            } finally {
+                permits.releaseTarget();
             }
+            tableMetrics.setIndexBuildMillis(millis);
+            registerForeignKeys(tableName, target, entry.getValue());
+            logger.info("表 {} 數據裝載耗時 {} ms，索引與約束建立耗時 {} ms", describeTarget(tableName, target),
+                (long) (tableMetrics.getElapsedSeconds() * 1000), millis);
         }
+    }
 
-        // 如果表存在，驗證結構
-        TableMetadata targetMetadata = getTableMetadata(targetConn, tableName);
-        if (!sourceMetadata.equals(targetMetadata)) {
-            throw new DBSyncException(DBSyncException.ErrorCode.STRUCTURE_MISMATCH,
-                "表 " + tableName + " 的結構在源和目標數據庫中不匹配");
+    private void registerForeignKeys(String tableName, SyncTarget target, IndexBuilder indexBuilder) {
+        if (!indexBuilder.getForeignKeys().isEmpty()) {
+            target.getPendingForeignKeys().put(tableName, indexBuilder.getForeignKeys());
+        }
+    }
+
+    // 外鍵引用的表可能由其他表線程裝載，所有表完成後才建立
+    private void createForeignKeys() {
+        for (SyncTarget target : targets) {
+            Map<String, List<TableMetadata.ConstraintMetadata>> pendingForeignKeys = target.getPendingForeignKeys();
+            if (pendingForeignKeys.isEmpty()) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            int created = 0;
+            try (Connection targetConn = target.getDb().getConnection()) {
+                for (Map.Entry<String, List<TableMetadata.ConstraintMetadata>> entry : pendingForeignKeys.entrySet()) {
+                    String label = describeTarget(entry.getKey(), target);
+                    for (TableMetadata.ConstraintMetadata foreignKey : entry.getValue()) {
+                        try {
+                            IndexBuilder.createForeignKey(targetConn, entry.getKey(), foreignKey);
+                            created++;
+                        } catch (SQLException e) {
+                            logger.error("表 {} 建立外鍵 {} 失敗", label, foreignKey.getName(), e);
+                            failedForeignKeys.add(label + "." + foreignKey.getName());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DBSyncException(DBSyncException.ErrorCode.CONNECTION_ERROR,
+                    "建立外鍵時無法連接目標數據庫 " + target.getName(), e);
+            }
+            logger.info("{}建立了 {} 個外鍵，耗時 {} ms", fanOut ? "目標 " + target.getName() + " " : "",
+                created, System.currentTimeMillis() - start);
         }
     }
 
-    private void createTable(Connection conn, TableMetadata metadata) throws SQLException {
-        StringBuilder sql = new StringBuilder();
-        sql.append("CREATE TABLE ").append(metadata.getTableName()).append(" (");
+    private void copyDirectPath(TableContext context)
+            throws SQLException, InterruptedException, ExecutionException {
+        String tableName = context.getTableName();
+        DirectPathLoad load = new DirectPathLoad(tableName, noLogging, rebuildParallelism);
+        try {
+            beginDirectPath(tableName, load);
+        } catch (SQLException | RuntimeException e) {
+            // 停用到一半失敗時恢復已停用的部分
+            restoreDirectPath(tableName, load, e);
+            throw e;
+        }
 
-        // 添加列定義
-        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
-            sql.append(column.getName()).append(" ")
-               .append(getColumnDefinition(column))
-               .append(column.isNullable() ? " NULL" : " NOT NULL")
-               .append(", ");
+        long loadStart = System.currentTimeMillis();
+        try {
+            copyChunks(context, context.getChunks());
+        } catch (InterruptedException | ExecutionException | RuntimeException e) {
+            // 裝載失敗也恢復索引與約束，避免目標表停留在不可用狀態
+            restoreDirectPath(tableName, load, e);
+            throw e;
         }
+        long loadMillis = System.currentTimeMillis() - loadStart;
 
-        // 添加主鍵約束
-        if (!metadata.getPrimaryKeys().isEmpty()) {
-            sql.append("CONSTRAINT PK_").append(metadata.getTableName())
-               .append(" PRIMARY KEY (")
-               .append(String.join(",", metadata.getPrimaryKeys()))
-               .append(")");
-        } else {
-            // 移除最後的逗號和空格
-            sql.setLength(sql.length() - 2);
+        long rebuildMillis = finishDirectPath(tableName, load);
+        logger.info("表 {} 直接路徑裝載耗時 {} ms，索引重建與約束啟用耗時 {} ms",
+            tableName, loadMillis, rebuildMillis);
+    }
+
+    // 停用約束與索引之前先把清單寫入斷點日誌，進程崩潰後下次運行據此恢復
+    private void beginDirectPath(String tableName, DirectPathLoad load) throws SQLException, InterruptedException {
+        permits.acquireTarget();
+        try (Connection targetConn = targetDb.getConnection()) {
+            load.begin(targetConn, state -> journal.recordDirectPathBegin(tableName, state));
+        } finally {
+            permits.releaseTarget();
         }
+    }
 
-        sql.append(")");
+    private void restoreDirectPath(String tableName, DirectPathLoad load, Exception cause) {
+        try {
+            finishDirectPath(tableName, load);
+        } catch (SQLException | RuntimeException restoreError) {
+            cause.addSuppressed(restoreError);
+        } catch (InterruptedException restoreError) {
+            Thread.currentThread().interrupt();
+            cause.addSuppressed(restoreError);
+        }
+    }
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
-            stmt.execute();
+    private long finishDirectPath(String tableName, DirectPathLoad load) throws SQLException, InterruptedException {
+        permits.acquireTarget();
+        try (Connection targetConn = targetDb.getConnection()) {
+            long millis = load.finish(targetConn);
+            journal.recordDirectPathRestored(tableName);
+            return millis;
+        } finally {
+            permits.releaseTarget();
         }
     }
 
-    private String getColumnDefinition(TableMetadata.ColumnMetadata column) {
-        StringBuilder def = new StringBuilder(column.getDataType());
-        
-        if (column.getDataType().equals("NUMBER")) {
-            if (column.getDataPrecision() > 0) {
-                def.append("(").append(column.getDataPrecision()).append(")");
+    // 上次運行在直接路徑裝載中崩潰時，目標表的約束仍停用、索引仍不可用，開始同步前先恢復
+    private void restorePendingDirectPathLoads() {
+        for (Map.Entry<String, String> pending : journal.getPendingDirectPathLoads().entrySet()) {
+            String tableName = pending.getKey();
+            logger.warn("表 {} 上次直接路徑裝載沒有恢復約束與索引，現在恢復", tableName);
+            DirectPathLoad load = DirectPathLoad.fromState(tableName, pending.getValue(), rebuildParallelism);
+            try (Connection targetConn = targetDb.getConnection()) {
+                load.finish(targetConn);
+                journal.recordDirectPathRestored(tableName);
+            } catch (SQLException e) {
+                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                    "恢復表 " + tableName + " 上次直接路徑裝載停用的約束與索引失敗", e);
             }
-        } else if (column.getDataType().equals("VARCHAR2") || 
-                   column.getDataType().equals("CHAR")) {
-            def.append("(").append(column.getDataLength()).append(")");
         }
-        
-        return def.toString();
     }
 
-    private void truncateTable(Connection conn, String tableName) throws SQLException {
+    private void copyChunks(TableContext context, List<Chunk> chunks)
+            throws InterruptedException, ExecutionException {
+        String tableName = context.getTableName();
+        TablePlan plan = context.getPlan();
+        AdaptiveBatchController controller = context.getController();
+
+        // 管線模式：讀取與寫入由不同線程並行進行；經數據庫鏈接複製時數據不經過客戶端，不需要管線
+        if (context.isDbLink()) {
+            logger.info("表 {} 經數據庫鏈接 {} 複製", tableName, dbLink);
+        } else if (pipelined && plan.hasStreamingColumns()) {
+            logger.warn("表 {} 含 LOB/LONG 列，不使用管線模式以免在緩衝區中持有大對象", tableName);
+        } else if (pipelined && context.isJournaled() && !chunks.stream().allMatch(Chunk::isKeyRange)) {
+            // 管線中同一批次的數據由多個寫入線程分別提交，只有主鍵範圍能在續傳時清理後重做
+            logger.warn("表 {} 不是按主鍵範圍分批，為保證斷點續傳不重複數據，不使用管線模式", tableName);
+        } else if (pipelined && context.isDirectPath()) {
+            // 直接路徑插入持有表級排他鎖，多個寫入線程只會互相等待
+            logger.warn("表 {} 使用直接路徑裝載，不使用管線模式", tableName);
+        } else if (pipelined && chunkRetries > 0 && !isRedoable(context, chunks)) {
+            // 管線出錯時批次可能已部分提交，只有能清理後重做的批次才能改為逐批重試
+            logger.warn("表 {} 不是按主鍵範圍分批，為支持出錯批次的重試與拆分，不使用管線模式", tableName);
+        } else if (pipelined) {
+            copyPipelined(context, chunks);
+            return;
+        }
+
+        // 分批同步數據：批次交給全局調度器，與其他表的批次共用工作線程
+        AtomicInteger completedChunks = new AtomicInteger();
+        scheduler.submit(tableName, chunks, getMaxWorkers(context), chunk -> {
+            permits.acquireBoth();
+            try {
+                syncBatch(context, chunk);
+            } finally {
+                permits.releaseBoth();
+            }
+            controller.reportProgress(completedChunks.incrementAndGet(), chunks.size(), false);
+        }).await();
+        controller.reportProgress(completedChunks.get(), chunks.size(), true);
+    }
+
+    // 管線中任一批次出錯會中止整張表的管線；之後未在所有目標上提交的批次清理目標端的同一範圍，
+    // 再逐批經重試與拆分重新複製，與非管線模式一樣只有最終失敗的批次記為失敗
+    private void copyPipelined(TableContext context, List<Chunk> chunks)
+            throws InterruptedException, ExecutionException {
+        String tableName = context.getTableName();
+        AdaptiveBatchController controller = context.getController();
+        Set<Integer> committed = ConcurrentHashMap.newKeySet();
+        try {
+            new TablePipeline(sourceDb, getTargetDbs(), context.getPlan(), controller, context.getTargetMetrics(),
+                scheduler, pipelineWriterExecutor, permits, Math.min(tableThreads, getMaxWorkers(context)),
+                pipelineWriters, pipelineBufferBatches,
+                chunk -> {
+                    committed.add(chunk.getIndex());
+                    onChunkCommitted(context, chunk);
+                }).run(chunks);
+            controller.reportProgress(chunks.size(), chunks.size(), true);
+            return;
+        } catch (DBSyncException e) {
+            if (chunkRetries == 0) {
+                throw e;
+            }
+            logger.warn("表 {} 管線同步出錯，{}/{} 個批次已完成，其餘批次改為逐批重試: {}", tableName,
+                committed.size(), chunks.size(), e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        }
+
+        List<Chunk> remaining = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            if (!committed.contains(chunk.getIndex())) {
+                remaining.add(chunk);
+            }
+        }
+        AtomicInteger completedChunks = new AtomicInteger(committed.size());
+        scheduler.submit(tableName, remaining, getMaxWorkers(context), chunk -> {
+            permits.acquireBoth();
+            try {
+                if (clearPartialChunk(context, chunk)) {
+                    syncBatch(context, chunk);
+                } else {
+                    context.recordFailedChunk();
+                }
+            } finally {
+                permits.releaseBoth();
+            }
+            controller.reportProgress(completedChunks.incrementAndGet(), chunks.size(), false);
+        }).await();
+        controller.reportProgress(completedChunks.get(), chunks.size(), true);
+    }
+
+    // 主鍵範圍可以刪除後重做，增量表按主鍵 MERGE，重做無副作用
+    private boolean isRedoable(TableContext context, List<Chunk> chunks) {
+        return context.getSpec().isIncremental() || chunks.stream().allMatch(Chunk::isKeyRange);
+    }
+
+    // 刪除管線中止前在各目標上部分提交的同一主鍵範圍，返回是否成功
+    private boolean clearPartialChunk(TableContext context, Chunk chunk) throws InterruptedException {
+        if (!chunk.isKeyRange() || context.getSpec().isIncremental()) {
+            return true;
+        }
+        for (SyncTarget target : targets) {
+            String label = describeTarget(context.getTableName(), target);
+            SQLException error = runWithRetry(label, chunk, chunkRetries, null,
+                () -> clearRange(target, context.getTableName(), chunk));
+            if (error != null) {
+                logger.error("表 {} 批次 {} 重試前無法清理目標數據", label, chunk, error);
+                failures.chunkFailed(label, chunk, error);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void onChunkCommitted(TableContext context, Chunk chunk) {
+        context.getTargetMetrics().forEach(TableMetrics::chunkCompleted);
+        if (context.isJournaled()) {
+            journal.recordChunkDone(context.getTableName(), chunk);
+        }
+    }
+
+    // 上次未完成的主鍵範圍批次可能已部分提交，重做前先刪除目標端的同一範圍
+    private void clearUnfinishedRanges(Connection targetConn, String tableName,
+                                       List<Chunk> chunks) throws SQLException {
+        targetConn.setAutoCommit(false);
+        try {
+            for (Chunk chunk : chunks) {
+                if (!chunk.isKeyRange()) {
+                    continue;
+                }
+                int deleted = deleteRange(targetConn, tableName, chunk);
+                if (deleted > 0) {
+                    logger.info("表 {} 批次 {} 清理了上次部分提交的 {} 行", tableName, chunk, deleted);
+                }
+            }
+            targetConn.commit();
+        } catch (SQLException e) {
+            targetConn.rollback();
+            throw e;
+        } finally {
+            targetConn.setAutoCommit(true);
+        }
+    }
+
+    // 刪除目標端同一主鍵範圍內的數據，由調用方提交
+    private int deleteRange(Connection targetConn, String tableName, Chunk chunk) throws SQLException {
+        String sql = "DELETE FROM " + tableName +
+            (chunk.getPredicate() == null ? "" : " WHERE " + chunk.getPredicate());
+        try (PreparedStatement stmt = targetConn.prepareStatement(sql)) {
+            chunk.bind(stmt, 1);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private void validateIncremental(TableSpec spec, TableMetadata metadata) {
+        if (metadata.getPrimaryKeys().isEmpty()) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "表 " + spec.getTableName() + " 沒有主鍵，無法進行增量合併");
+        }
+        TableMetadata.ColumnMetadata column = metadata.getColumn(spec.getWatermarkColumn());
+        if (column == null) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "表 " + spec.getTableName() + " 不存在水位線列 " + spec.getWatermarkColumn());
+        }
+        // 水位線要寫入文件並與下次的最大值比較，只能是數字、字符或日期時間類型
+        if (!WATERMARK_BINDERS.contains(ColumnBinders.forColumn(column))) {
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "表 " + spec.getTableName() + " 的水位線列 " + spec.getWatermarkColumn() +
+                " 類型 " + column.getDataType() + " 不能作為水位線");
+        }
+    }
+
+    // 首次增量同步沒有水位線，按正常分批複製上限以內的數據；之後只取兩次水位線之間的數據
+    private List<Chunk> planIncremental(Connection sourceConn, TableMetadata metadata,
+                                        TableSpec spec, ChunkingStrategy strategy,
+                                        Object lowWatermark, Object highWatermark) throws SQLException {
+        String column = spec.getWatermarkColumn();
+        List<Chunk> chunks = new ArrayList<>();
+        if (lowWatermark == null) {
+            long totalRows = getPlanningRowCount(sourceConn, metadata, strategy);
+            for (Chunk chunk : planners.get(strategy).plan(sourceConn, metadata, totalRows, getChunkSize(spec))) {
+                chunks.add(chunk.filtered(column + " <= ?", List.of(highWatermark)));
+            }
+        } else {
+            chunks.add(Chunk.range(0, column + " > ? AND " + column + " <= ?",
+                List.of(lowWatermark, highWatermark)));
+        }
+        return chunks;
+    }
+
+    // 按列的綁定器讀取，得到與複製時相同的 Java 類型（Timestamp、BigDecimal 等），可以保存並在下次還原
+    private Object getMaxValue(Connection conn, String tableName,
+                               TableMetadata.ColumnMetadata column) throws SQLException {
         try (PreparedStatement stmt = conn.prepareStatement(
-                "TRUNCATE TABLE " + tableName)) {
-            stmt.execute();
+                "SELECT MAX(" + column.getName() + ") FROM " + tableName);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? ColumnBinders.forColumn(column).read(rs, 1) : null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int compareWatermark(Object left, Object right) {
+        if (left.getClass() != right.getClass()) {
+            // 舊版本保存的水位線或列類型已改變
+            throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                "水位線 " + right + " 的類型 " + right.getClass().getSimpleName() + " 與當前列的類型 " +
+                left.getClass().getSimpleName() + " 不一致，請檢查或刪除水位線文件中該表的記錄");
+        }
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private ChunkingStrategy resolveStrategy(TableSpec spec, TableMetadata metadata) {
+        ChunkingStrategy strategy = spec.getChunkingStrategy() != null ? spec.getChunkingStrategy() : chunkingStrategy;
+        if (strategy == ChunkingStrategy.KEYSET && metadata.getPrimaryKeys().isEmpty()) {
+            logger.warn("表 {} 沒有主鍵，改用 {}", metadata.getTableName(),
+                ChunkingStrategy.ROWID.getDescription());
+            return ChunkingStrategy.ROWID;
+        }
+        return strategy;
+    }
+
+    private int getChunkSize(TableSpec spec) {
+        return spec.getBatchSize() > 0 ? spec.getBatchSize() : fetchSize;
+    }
+
+    // 過濾條件疊加在每個批次上，與分批方式無關；OFFSET 分頁在過濾後的結果上翻頁，多出的頁為空
+    private List<Chunk> applyFilter(TableSpec spec, List<Chunk> chunks) {
+        if (spec.getFilter() == null) {
+            return chunks;
         }
+        List<Chunk> filtered = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            filtered.add(chunk.filtered("(" + spec.getFilter() + ")", List.of()));
+        }
+        return filtered;
     }
 
-    private int getTableRowCount(Connection conn, String tableName) throws SQLException {
+    // 直接路徑插入持有表級排他鎖，同一張表同時只做一個批次，不佔用其他線程的連接；
+    // 其他表按單表設置限制並發批次，未設置時只受全局工作線程數限制
+    private int getMaxWorkers(TableContext context) {
+        if (context.isDirectPath()) {
+            return 1;
+        }
+        int parallelism = context.getSpec().getParallelism();
+        return parallelism > 0 ? parallelism : Integer.MAX_VALUE;
+    }
+
+    // 返回目標表是否本次新建
+    private boolean validateAndSyncStructure(TableMetadata sourceMetadata, Connection targetConn,
+                                             SyncTarget target) throws SQLException {
+        String tableName = sourceMetadata.getTableName();
+        
+        // 如果表不存在，創建表
+        TableMetadata targetMetadata = target.getSchema().get(tableName);
+        if (targetMetadata == null) {
+            TableDdl.createTable(targetConn, sourceMetadata);
+            return true;
+        }
+
+        // 如果表存在，驗證結構
+        if (!sourceMetadata.equals(targetMetadata)) {
+            throw new DBSyncException(DBSyncException.ErrorCode.STRUCTURE_MISMATCH,
+                "表 " + describeTarget(tableName, target) + " 的結構在源和目標數據庫中不匹配");
+        }
+        return false;
+    }
+
+    // 只有 OFFSET 分頁需要精確行數，少算會漏掉末尾的數據；主鍵範圍與 ROWID 分批的首尾範圍
+    // 不設邊界，行數只影響批次數，用統計信息估算即可，避免為規劃而全表掃描
+    private long getPlanningRowCount(Connection conn, TableMetadata metadata,
+                                     ChunkingStrategy strategy) throws SQLException {
+        if (strategy == ChunkingStrategy.OFFSET) {
+            return getTableRowCount(conn, metadata.getTableName());
+        }
+        return tableSizes.getEstimatedRows(metadata.getTableName(),
+            AdaptiveBatchController.estimateRowWidth(metadata));
+    }
+
+    private long getTableRowCount(Connection conn, String tableName) throws SQLException {
         try (PreparedStatement stmt = conn.prepareStatement(
                 "SELECT COUNT(*) FROM " + tableName)) {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    return rs.getLong(1);
                 }
             }
         }
         return 0;
     }
 
-    private void syncBatch(String tableName, int offset, int batchSize) {
+    // 扇出時不經管線的批次（含 LOB/LONG 的表）逐個目標重新讀取源數據，全部目標提交後才算完成；
+    // 任一目標在重試與拆分後仍失敗時該批次不記錄完成，其他批次照常進行
+    private void syncBatch(TableContext context, Chunk chunk) throws InterruptedException {
+        // 無法在目標端定位的批次必須整批一次提交，重試與續傳時才不會重複
+        boolean atomic = !chunk.isKeyRange() && !context.getSpec().isIncremental() && !context.isDirectPath();
+        boolean copied = true;
+        // 經數據庫鏈接複製時只使用目標連接，源端由目標庫經鏈接讀取
+        int targetCount = context.isDbLink() ? 1 : targets.size();
+        for (int i = 0; i < targetCount; i++) {
+            copied &= copyWithRetry(context, chunk, i, atomic, 0);
+        }
+        if (copied) {
+            onChunkCommitted(context, chunk);
+        } else {
+            context.recordFailedChunk();
+        }
+    }
+
+    // 暫時性錯誤按指數退避重做整個批次；數據錯誤把批次對半拆分，各部分整批提交，
+    // 逐層縮小到只含出錯的行為止，其餘的行照常複製。返回該批次是否已全部複製
+    private boolean copyWithRetry(TableContext context, Chunk chunk, int targetIndex,
+                                  boolean atomic, int level) throws InterruptedException {
+        SyncTarget target = targets.get(targetIndex);
+        String label = describeTarget(context.getTableName(), target);
+        TableMetrics tableMetrics = context.getTargetMetrics().get(targetIndex);
+        // 直接路徑裝載每批都提交，只有主鍵範圍能清理後重做
+        boolean restartable = !context.isDirectPath() || chunk.isKeyRange();
+        // 上次部分提交的主鍵範圍在重做前先刪除；增量表按主鍵 MERGE，重做無副作用
+        ChunkAction cleanup = chunk.isKeyRange() && !context.getSpec().isIncremental() ?
+            () -> clearRange(target, context.getTableName(), chunk) : null;
+        SQLException error = runWithRetry(label, chunk, restartable ? chunkRetries : 0, cleanup,
+            () -> copyToTarget(context, chunk, target, atomic, tableMetrics));
+        if (error == null) {
+            return true;
+        }
+
+        // 拆分後的各部分分別提交，只有重做前能清理的批次才能這樣做；按 ROWID 或分頁記錄斷點的批次
+        // 拆分後部分提交，續傳時會重複，整批回滾留給下次運行
+        boolean splittable = RetryPolicy.isDataError(error) && !context.isDirectPath() &&
+            (chunk.isKeyRange() || context.getSpec().isIncremental() || !context.isJournaled());
+        List<Chunk> pieces = splittable ? split(context, chunk, level) : List.of();
+        if (pieces.isEmpty()) {
+            if (level > 0 && RetryPolicy.isDataError(error)) {
+                logger.error("表 {} 批次 {} 中有無法複製的行", label, chunk, error);
+                failures.rowsFailed(label, chunk, describeRows(context, chunk), error);
+            } else {
+                logger.error("同步表 {} 的批次數據時發生錯誤 (批次: {})", label, chunk, error);
+                failures.chunkFailed(label, chunk, error);
+            }
+            return false;
+        }
+
+        if (level == 0) {
+            logger.warn("表 {} 批次 {} 含有無法寫入的數據，拆分定位出錯的行: {}", label, chunk, error.getMessage());
+        }
+        if (cleanup != null) {
+            SQLException cleanupError = runWithRetry(label, chunk, chunkRetries, null, cleanup);
+            if (cleanupError != null) {
+                logger.error("表 {} 批次 {} 拆分前無法清理目標數據", label, chunk, cleanupError);
+                failures.chunkFailed(label, chunk, cleanupError);
+                return false;
+            }
+        }
+        boolean copied = true;
+        for (Chunk piece : pieces) {
+            copied &= copyWithRetry(context, piece, targetIndex, true, level + 1);
+        }
+        return copied;
+    }
+
+    private interface ChunkAction {
+        void run() throws SQLException, InterruptedException;
+    }
+
+    // 暫時性錯誤最多重試 retries 次，每次重做前先執行 cleanup（可以為 null）；返回最後的錯誤，成功時返回 null
+    private SQLException runWithRetry(String label, Chunk chunk, int retries, ChunkAction cleanup,
+                                      ChunkAction action) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (attempt > 1 && cleanup != null) {
+                    cleanup.run();
+                }
+                action.run();
+                return null;
+            } catch (SQLException e) {
+                if (attempt > retries || !RetryPolicy.isTransient(e)) {
+                    return e;
+                }
+                long delay = retryPolicy.getBackoffMillis(attempt);
+                logger.warn("表 {} 批次 {} 發生暫時性錯誤，{} ms 後第 {}/{} 次重試: {}",
+                    label, chunk, delay, attempt, retries, e.getMessage());
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    private void copyToTarget(TableContext context, Chunk chunk, SyncTarget target, boolean atomic,
+                              TableMetrics tableMetrics) throws SQLException {
+        if (context.isDbLink()) {
+            try (Connection targetConn = target.getDb().getConnection()) {
+                copyOverLink(context, chunk, targetConn, tableMetrics);
+            }
+            return;
+        }
         try (Connection sourceConn = sourceDb.getConnection();
-             Connection targetConn = targetDb.getConnection()) {
-            
-            // 獲取列名列表
-            List<String> columns = new ArrayList<>();
-            try (PreparedStatement stmt = sourceConn.prepareStatement(
-                    "SELECT column_name FROM user_tab_columns WHERE table_name = ? " +
-                    "ORDER BY column_id")) {
-                stmt.setString(1, tableName.toUpperCase());
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        columns.add(rs.getString("column_name"));
+             Connection targetConn = target.getDb().getConnection()) {
+            copyBatch(context, chunk, sourceConn, targetConn, atomic, tableMetrics);
+        }
+    }
+
+    private void clearRange(SyncTarget target, String tableName, Chunk chunk) throws SQLException {
+        try (Connection targetConn = target.getDb().getConnection()) {
+            targetConn.setAutoCommit(false);
+            try {
+                deleteRange(targetConn, tableName, chunk);
+                targetConn.commit();
+            } catch (SQLException e) {
+                targetConn.rollback();
+                throw e;
+            } finally {
+                targetConn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private List<Chunk> split(TableContext context, Chunk chunk, int level) {
+        return RetryPolicy.split(chunk, TablePlan.keyHashInput(context.getPlan().getMetadata()),
+            getChunkSize(context.getSpec()), level);
+    }
+
+    // 出錯的最小範圍內的行的主鍵值，最多列出 10 行，便於在源表中查找
+    private List<String> describeRows(TableContext context, Chunk chunk) {
+        List<String> keys = context.getPlan().getMetadata().getPrimaryKeys();
+        List<String> rows = new ArrayList<>();
+        if (keys.isEmpty()) {
+            return rows;
+        }
+        try (Connection sourceConn = sourceDb.getConnection();
+             PreparedStatement stmt = sourceConn.prepareStatement(context.getPlan().getSelectSql(chunk))) {
+            chunk.bind(stmt, 1);
+            stmt.setMaxRows(10);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    List<String> values = new ArrayList<>();
+                    for (String key : keys) {
+                        values.add(key + "=" + rs.getString(key));
                     }
+                    rows.add(String.join(",", values));
                 }
             }
+        } catch (SQLException e) {
+            logger.warn("無法讀取表 {} 批次 {} 中出錯的行的主鍵", context.getTableName(), chunk, e);
+        }
+        return rows;
+    }
 
-            // 構建查詢和插入語句
-            String selectSql = "SELECT " + String.join(",", columns) + 
-                             " FROM " + tableName + 
-                             " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
-            
-            String insertSql = "INSERT INTO " + tableName + 
-                             " (" + String.join(",", columns) + ") VALUES (" +
-                             "?,".repeat(columns.size() - 1) + "?)";
+    // atomic 為 true 時整批只在最後提交一次
+    private void copyBatch(TableContext context, Chunk chunk, Connection sourceConn, Connection targetConn,
+                           boolean atomic, TableMetrics tableMetrics) throws SQLException {
+        if (context.isDbLink()) {
+            copyOverLink(context, chunk, targetConn, tableMetrics);
+            return;
+        }
+        String tableName = context.getTableName();
+        AdaptiveBatchController controller = context.getController();
 
-            // 執行批量同步
-            targetConn.setAutoCommit(false);
-            try (PreparedStatement selectStmt = sourceConn.prepareStatement(selectSql);
-                 PreparedStatement insertStmt = targetConn.prepareStatement(insertSql)) {
-                
-                selectStmt.setInt(1, offset);
-                selectStmt.setInt(2, batchSize);
-                
-                try (ResultSet rs = selectStmt.executeQuery()) {
-                    while (rs.next()) {
-                        for (int i = 0; i < columns.size(); i++) {
-                            insertStmt.setObject(i + 1, rs.getObject(i + 1));
-                        }
+        // 使用表級緩存的列清單與 SQL，不再逐批查詢數據字典
+        TablePlan plan = planCache.acquire(tableName);
+        RowCopier copier = plan.newRowCopier();
+
+        // 執行批量同步
+        targetConn.setAutoCommit(false);
+        try (PreparedStatement selectStmt = sourceConn.prepareStatement(plan.getSelectSql(chunk));
+             PreparedStatement insertStmt = targetConn.prepareStatement(
+                 context.isDirectPath() ? plan.getDirectPathSql() : plan.getWriteSql())) {
+            
+            chunk.bind(selectStmt, 1);
+            selectStmt.setFetchSize(controller.getFetchSize());
+            
+            try (ResultSet rs = selectStmt.executeQuery()) {
+                // 批量大小與提交間隔由控制器按實測吞吐動態調整
+                int batchSize = getInsertBatchSize(context);
+                int pending = 0;
+                int uncommitted = 0;
+                long batchStart = System.nanoTime();
+                // 讀取與綁定的時間計入源端，執行插入的時間計入目標端
+                long insertNanos = 0;
+                while (rs.next()) {
+                    copier.copyRow(rs, insertStmt);
+                    if (batchSize == 1) {
+                        // LONG 流不能進入批量，逐行執行
+                        long start = System.nanoTime();
+                        insertStmt.executeUpdate();
+                        insertNanos += System.nanoTime() - start;
+                    } else {
                         insertStmt.addBatch();
                     }
+                    if (++pending >= batchSize || copier.isFlushDue()) {
+                        long insertStart = System.nanoTime();
+                        if (batchSize > 1) {
+                            insertStmt.executeBatch();
+                        }
+                        copier.afterBatch();
+                        long insertEnd = System.nanoTime();
+                        long fetchNanos = insertStart - batchStart - insertNanos;
+                        tableMetrics.recordFetch(fetchNanos);
+                        tableMetrics.recordInsert(pending, insertNanos + insertEnd - insertStart);
+                        controller.recordFetch(pending, fetchNanos);
+                        controller.recordInsert(pending, insertNanos + insertEnd - insertStart);
+                        uncommitted += pending;
+                        // 直接路徑插入後，同一事務不能再寫入該表 (ORA-12838)，每批都要提交
+                        if (context.isDirectPath() ||
+                                (!atomic && uncommitted >= controller.getCommitInterval())) {
+                            controller.recordCommit(uncommitted, commit(targetConn, tableMetrics));
+                            uncommitted = 0;
+                        }
+                        batchStart = System.nanoTime();
+                        insertNanos = 0;
+                        pending = 0;
+                        batchSize = getInsertBatchSize(context);
+                    }
+                }
+                if (pending > 0) {
+                    long insertStart = System.nanoTime();
                     insertStmt.executeBatch();
+                    long now = System.nanoTime();
+                    tableMetrics.recordFetch(insertStart - batchStart - insertNanos);
+                    tableMetrics.recordInsert(pending, insertNanos + now - insertStart);
+                    controller.recordFetch(pending, insertStart - batchStart - insertNanos);
+                    controller.recordInsert(pending, insertNanos + now - insertStart);
                 }
-                
-                targetConn.commit();
-            } catch (SQLException e) {
-                targetConn.rollback();
-                throw e;
+            } finally {
+                copier.afterBatch();
             }
+            
+            commit(targetConn, tableMetrics);
         } catch (SQLException e) {
-            logger.error("同步表 {} 的批次數據時發生錯誤 (offset: {}, size: {})", 
-                        tableName, offset, batchSize, e);
-            throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
-                "同步批次數據時發生錯誤", e);
+            targetConn.rollback();
+            throw e;
+        }
+    }
+
+    // 一個批次一條 INSERT ... SELECT，整批一次提交，任何批次類型都可以記錄斷點；
+    // 只有直接路徑裝載（同一張表同時只做一個批次）才加 APPEND，否則表級排他鎖會讓同表的批次互相等待
+    private void copyOverLink(TableContext context, Chunk chunk, Connection targetConn,
+                              TableMetrics tableMetrics) throws SQLException {
+        TablePlan plan = context.getPlan();
+        targetConn.setAutoCommit(false);
+        try (PreparedStatement insertStmt = targetConn.prepareStatement(
+                plan.getDbLinkInsertSql(dbLink, context.isDirectPath()) + chunk.toSqlClause())) {
+            chunk.bind(insertStmt, 1);
+            long start = System.nanoTime();
+            int rows = insertStmt.executeUpdate();
+            tableMetrics.recordInsert(rows, System.nanoTime() - start);
+            commit(targetConn, tableMetrics);
+        } catch (SQLException e) {
+            targetConn.rollback();
+            throw e;
+        }
+    }
+
+    // 返回提交耗時（納秒）
+    private long commit(Connection targetConn, TableMetrics tableMetrics) throws SQLException {
+        long start = System.nanoTime();
+        targetConn.commit();
+        long elapsed = System.nanoTime() - start;
+        tableMetrics.recordCommit(elapsed);
+        return elapsed;
+    }
+
+    private int getInsertBatchSize(TableContext context) {
+        TablePlan plan = context.getPlan();
+        int size = plan.getInsertBatchSize(context.getController().getInsertBatchSize());
+        // 每次直接路徑插入都從新的數據塊寫起，批量太小會留下大量半空的塊
+        if (context.isDirectPath() && !plan.hasStreamingColumns()) {
+            return Math.max(size, DIRECT_PATH_MIN_BATCH);
         }
+        return size;
     }
 
     public void shutdown() {
+        scheduler.shutdown();
+        verifyExecutor.shutdown();
+        pipelineWriterExecutor.shutdown();
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
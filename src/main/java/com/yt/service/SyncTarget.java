@@ -0,0 +1,37 @@
+package com.yt.service;
+
+import com.yt.config.DatabaseConfig;
+import com.yt.model.TableMetadata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 一個目標數據庫：連接池、啟動時載入的表結構，以及所有表完成後才建立的外鍵
+public class SyncTarget {
+    private final DatabaseConfig db;
+    private final MetadataLoader schema;
+    private final Map<String, List<TableMetadata.ConstraintMetadata>> pendingForeignKeys =
+        new ConcurrentHashMap<>();
+
+    public SyncTarget(DatabaseConfig db, MetadataLoader schema) {
+        this.db = db;
+        this.schema = schema;
+    }
+
+    public String getName() {
+        return db.getName();
+    }
+
+    public DatabaseConfig getDb() {
+        return db;
+    }
+
+    public MetadataLoader getSchema() {
+        return schema;
+    }
+
+    public Map<String, List<TableMetadata.ConstraintMetadata>> getPendingForeignKeys() {
+        return pendingForeignKeys;
+    }
+}
@@ -0,0 +1,127 @@
+package com.yt.service;
+
+import com.yt.metrics.TableMetrics;
+import com.yt.model.Chunk;
+import com.yt.model.TableSpec;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 一張表在本次運行中的同步狀態，由該表的所有批次共用
+public class TableContext {
+    private final TableSpec spec;
+    private final TablePlan plan;
+    private final AdaptiveBatchController controller;
+    private final boolean journaled;
+    private final boolean directPath;
+    private final TableMetrics metrics;
+    private boolean diff;
+    private boolean dbLink;
+    private final Map<SyncTarget, IndexBuilder> indexBuilders = new LinkedHashMap<>();
+    private List<TableMetrics> targetMetrics;
+    private List<Chunk> chunks;
+    private Object highWatermark;
+    private final AtomicInteger failedChunks = new AtomicInteger();
+
+    public TableContext(TableSpec spec, TablePlan plan, AdaptiveBatchController controller,
+                        boolean journaled, boolean directPath, TableMetrics metrics) {
+        this.spec = spec;
+        this.plan = plan;
+        this.controller = controller;
+        this.journaled = journaled;
+        this.directPath = directPath;
+        this.metrics = metrics;
+        this.targetMetrics = List.of(metrics);
+    }
+
+    public String getTableName() {
+        return spec.getTableName();
+    }
+
+    public TableSpec getSpec() {
+        return spec;
+    }
+
+    public TablePlan getPlan() {
+        return plan;
+    }
+
+    public AdaptiveBatchController getController() {
+        return controller;
+    }
+
+    // 增量表按主鍵合併，重做無副作用，不按批次記錄斷點；
+    // 直接路徑裝載每批都要提交，中斷後整表清空重來，也不按批次記錄
+    public boolean isJournaled() {
+        return journaled;
+    }
+
+    public boolean isDirectPath() {
+        return directPath;
+    }
+
+    // 差異同步：只重新複製源與目標哈希不一致的主鍵範圍
+    public boolean isDiff() {
+        return diff;
+    }
+
+    public void setDiff(boolean diff) {
+        this.diff = diff;
+    }
+
+    // 批次在目標端經數據庫鏈接以 INSERT ... SELECT 複製
+    public boolean isDbLink() {
+        return dbLink;
+    }
+
+    public void setDbLink(boolean dbLink) {
+        this.dbLink = dbLink;
+    }
+
+    // 各目標在裝載完成後需要補建的索引與約束
+    public Map<SyncTarget, IndexBuilder> getIndexBuilders() {
+        return indexBuilders;
+    }
+
+    // 第一個目標的指標，讀取延遲與進度記在這裡
+    public TableMetrics getMetrics() {
+        return metrics;
+    }
+
+    // 與目標一一對應，第一個即 getMetrics()
+    public List<TableMetrics> getTargetMetrics() {
+        return targetMetrics;
+    }
+
+    public void setTargetMetrics(List<TableMetrics> targetMetrics) {
+        this.targetMetrics = targetMetrics;
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<Chunk> chunks) {
+        this.chunks = chunks;
+    }
+
+    // 增量同步本次的水位線上限，所有批次提交後寫入水位線文件
+    public Object getHighWatermark() {
+        return highWatermark;
+    }
+
+    public void setHighWatermark(Object highWatermark) {
+        this.highWatermark = highWatermark;
+    }
+
+    // 重試與拆分後仍未完成的批次，不為 0 時該表不記錄完成
+    public void recordFailedChunk() {
+        failedChunks.incrementAndGet();
+    }
+
+    public int getFailedChunks() {
+        return failedChunks.get();
+    }
+}
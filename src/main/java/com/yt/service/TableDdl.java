@@ -0,0 +1,70 @@
+package com.yt.service;
+
+import com.yt.model.TableMetadata;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// 同步與導入共用的目標表 DDL：按源表的列與主鍵建表、清空表
+final class TableDdl {
+
+    private TableDdl() {
+    }
+
+    static void createTable(Connection conn, TableMetadata metadata) throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        sql.append("CREATE TABLE ").append(metadata.getTableName()).append(" (");
+
+        // 添加列定義
+        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+            sql.append(column.getName()).append(" ")
+               .append(getColumnDefinition(column))
+               .append(column.isNullable() ? " NULL" : " NOT NULL")
+               .append(", ");
+        }
+
+        // 添加主鍵約束
+        if (!metadata.getPrimaryKeys().isEmpty()) {
+            sql.append("CONSTRAINT PK_").append(metadata.getTableName())
+               .append(" PRIMARY KEY (")
+               .append(String.join(",", metadata.getPrimaryKeys()))
+               .append(")");
+        } else {
+            // 移除最後的逗號和空格
+            sql.setLength(sql.length() - 2);
+        }
+
+        sql.append(")");
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            stmt.execute();
+        }
+    }
+
+    private static String getColumnDefinition(TableMetadata.ColumnMetadata column) {
+        StringBuilder def = new StringBuilder(column.getDataType());
+        
+        if (column.getDataType().equals("NUMBER")) {
+            if (column.getDataPrecision() > 0) {
+                def.append("(").append(column.getDataPrecision());
+                if (column.getDataScale() != 0) {
+                    def.append(",").append(column.getDataScale());
+                }
+                def.append(")");
+            }
+        } else if (column.getDataType().equals("VARCHAR2") || 
+                   column.getDataType().equals("CHAR")) {
+            def.append("(").append(column.getDataLength()).append(")");
+        }
+        
+        return def.toString();
+    }
+
+    static void truncateTable(Connection conn, String tableName) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "TRUNCATE TABLE " + tableName)) {
+            stmt.execute();
+        }
+    }
+}
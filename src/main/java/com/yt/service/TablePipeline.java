@@ -0,0 +1,325 @@
+package com.yt.service;
+
+import com.yt.config.DatabaseConfig;
+import com.yt.exception.DBSyncException;
+import com.yt.metrics.TableMetrics;
+import com.yt.model.Chunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// 讀取一次源數據，經各目標自己的有界緩衝區分發給一個或多個目標的寫入線程。
+// 慢的目標只會填滿自己的緩衝區，緩衝區滿後才會讓讀取等待，其他目標照常寫入
+public class TablePipeline {
+    private static final Logger logger = LoggerFactory.getLogger(TablePipeline.class);
+    private static final RowBatch END_OF_STREAM = new RowBatch(null, new ArrayList<>());
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final DatabaseConfig sourceDb;
+    private final TablePlan plan;
+    private final String tableName;
+    private final AdaptiveBatchController controller;
+    private final TableMetrics metrics;
+    private final ChunkScheduler scheduler;
+    private final ExecutorService writerExecutor;
+    private final ConnectionPermits permits;
+    private final int readerThreads;
+    private final int writerThreads;
+    private final List<TargetSink> sinks = new ArrayList<>();
+    private final Consumer<Chunk> onChunkCommitted;
+    private volatile Throwable failure;
+
+    // targetDbs 與 targetMetrics 一一對應，讀取延遲記在第一個目標的指標上。
+    // 讀取在全局調度器上執行，寫入在共享的 writerExecutor 上執行，兩者都按 permits 佔用連接
+    public TablePipeline(DatabaseConfig sourceDb, List<DatabaseConfig> targetDbs, TablePlan plan,
+                         AdaptiveBatchController controller, List<TableMetrics> targetMetrics,
+                         ChunkScheduler scheduler, ExecutorService writerExecutor, ConnectionPermits permits,
+                         int readerThreads, int writerThreads, int bufferBatches,
+                         Consumer<Chunk> onChunkCommitted) {
+        this.sourceDb = sourceDb;
+        this.plan = plan;
+        this.tableName = plan.getTableName();
+        this.controller = controller;
+        this.metrics = targetMetrics.get(0);
+        this.scheduler = scheduler;
+        this.writerExecutor = writerExecutor;
+        this.permits = permits;
+        this.readerThreads = readerThreads;
+        this.writerThreads = writerThreads;
+        for (int i = 0; i < targetDbs.size(); i++) {
+            // 有界緩衝區提供背壓，每個目標的內存上限約為 bufferBatches 個批次
+            TargetSink sink = new TargetSink(targetDbs.get(i), targetMetrics.get(i), bufferBatches);
+            targetMetrics.get(i).setQueueDepth(sink.buffer::size);
+            sinks.add(sink);
+        }
+        this.onChunkCommitted = onChunkCommitted;
+    }
+
+    public void run(List<Chunk> chunks) throws InterruptedException {
+        // 每個目標一組寫入線程
+        List<Future<?>> writerFutures = new ArrayList<>();
+        try {
+            for (TargetSink sink : sinks) {
+                for (int i = 0; i < writerThreads; i++) {
+                    writerFutures.add(writerExecutor.submit(() -> write(sink)));
+                }
+            }
+
+            // 讀取由全局調度器執行，readerThreads 限制同時讀取本表的線程數
+            AtomicInteger completedReads = new AtomicInteger();
+            try {
+                scheduler.submit(tableName, chunks, readerThreads, chunk -> {
+                    read(chunk);
+                    controller.reportProgress(completedReads.incrementAndGet(), chunks.size(), false);
+                }).await();
+            } catch (ExecutionException e) {
+                fail("表 " + tableName + " 管線讀取任務異常結束", e.getCause());
+            }
+
+            // 所有讀取完成後通知每個寫入線程結束
+            for (int i = 0; i < writerThreads; i++) {
+                if (!publish(END_OF_STREAM)) {
+                    break;
+                }
+            }
+            awaitAll(writerFutures);
+        } finally {
+            // 執行器是共享的，只取消本表仍未結束的寫入線程（例如等待期間被中斷）
+            for (Future<?> future : writerFutures) {
+                future.cancel(true);
+            }
+            for (TargetSink sink : sinks) {
+                sink.metrics.setQueueDepth(null);
+            }
+        }
+
+        if (failure != null) {
+            throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                "表 " + tableName + " 管線同步時發生錯誤", failure);
+        }
+    }
+
+    private void read(Chunk chunk) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            permits.acquireSource();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try (Connection sourceConn = sourceDb.getConnection();
+             PreparedStatement stmt = sourceConn.prepareStatement(plan.getSelectSql(chunk))) {
+            chunk.bind(stmt, 1);
+            stmt.setFetchSize(controller.getFetchSize());
+            try (ResultSet rs = stmt.executeQuery()) {
+                ChunkState state = new ChunkState(chunk);
+                int batchSize = controller.getInsertBatchSize();
+                List<Object[]> rows = new ArrayList<>(batchSize);
+                long batchStart = System.nanoTime();
+                while (rs.next()) {
+                    rows.add(plan.readRow(rs));
+                    if (rows.size() >= batchSize) {
+                        // 不含在緩衝區上等待的時間，等待說明瓶頸在寫入端
+                        long fetchNanos = System.nanoTime() - batchStart;
+                        metrics.recordFetch(fetchNanos);
+                        controller.recordFetch(rows.size(), fetchNanos);
+                        if (!publish(state.newBatch(rows))) {
+                            return;
+                        }
+                        batchSize = controller.getInsertBatchSize();
+                        rows = new ArrayList<>(batchSize);
+                        batchStart = System.nanoTime();
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    long fetchNanos = System.nanoTime() - batchStart;
+                    metrics.recordFetch(fetchNanos);
+                    controller.recordFetch(rows.size(), fetchNanos);
+                    if (!publish(state.newBatch(rows))) {
+                        return;
+                    }
+                }
+                state.readFinished();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // 包括綁定值時的 RuntimeException，都要設置 failure，否則寫入線程與其他讀取線程會一直等待
+            fail("讀取表 " + tableName + " 的批次 " + chunk + " 時發生錯誤", e);
+        } finally {
+            permits.releaseSource();
+        }
+    }
+
+    private void write(TargetSink sink) {
+        try {
+            permits.acquireTarget();
+        } catch (InterruptedException e) {
+            if (failure == null) {
+                fail("表 " + tableName + " 的寫入線程在等待連接許可時被中斷", e);
+            }
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try (Connection targetConn = sink.targetDb.getConnection();
+             PreparedStatement stmt = targetConn.prepareStatement(plan.getWriteSql())) {
+            targetConn.setAutoCommit(false);
+            int uncommitted = 0;
+            List<RowBatch> uncommittedBatches = new ArrayList<>();
+            while (failure == null) {
+                RowBatch batch = sink.buffer.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                try {
+                    if (batch == END_OF_STREAM) {
+                        commit(targetConn, sink, uncommittedBatches);
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    for (Object[] row : batch.rows) {
+                        plan.writeRow(stmt, row);
+                        stmt.addBatch();
+                    }
+                    long insertStart = System.nanoTime();
+                    stmt.executeBatch();
+                    long insertEnd = System.nanoTime();
+                    sink.metrics.recordInsert(batch.rows.size(), insertEnd - insertStart);
+                    controller.recordInsert(batch.rows.size(), insertEnd - start);
+                    uncommittedBatches.add(batch);
+                    uncommitted += batch.rows.size();
+                    if (uncommitted >= controller.getCommitInterval()) {
+                        controller.recordCommit(uncommitted, commit(targetConn, sink, uncommittedBatches));
+                        uncommitted = 0;
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    targetConn.rollback();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            // 發生錯誤後被取消時 failure 已經設置；否則讀取線程會在這個目標的緩衝區上一直等待
+            if (failure == null) {
+                fail("表 " + tableName + " 寫入 " + sink.targetDb.getName() + " 的線程被中斷", e);
+            }
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // 任何原因退出的寫入線程都必須設置 failure，否則讀取線程會在這個目標的緩衝區上一直等待
+            fail("寫入表 " + tableName + " 到 " + sink.targetDb.getName() + " 時發生錯誤", e);
+        } finally {
+            permits.releaseTarget();
+        }
+    }
+
+    // 返回提交耗時（納秒）
+    private long commit(Connection targetConn, TargetSink sink,
+                        List<RowBatch> batches) throws SQLException {
+        long start = System.nanoTime();
+        targetConn.commit();
+        long elapsed = System.nanoTime() - start;
+        sink.metrics.recordCommit(elapsed);
+        for (RowBatch batch : batches) {
+            batch.state.batchCommitted();
+        }
+        batches.clear();
+        return elapsed;
+    }
+
+    // 同一批數據放入每個目標的緩衝區，某個目標的緩衝區滿時阻塞等待，發生錯誤後放棄，返回是否成功放入。
+    // 一個目標的寫入線程全部退出後它的緩衝區不會再騰出空間，所以寫入線程無論因何退出都必須設置 failure
+    private boolean publish(RowBatch batch) throws InterruptedException {
+        for (TargetSink sink : sinks) {
+            while (!sink.buffer.offer(batch, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private synchronized void fail(String message, Throwable e) {
+        logger.error(message, e);
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                fail("表 " + tableName + " 管線任務異常結束", e.getCause());
+            }
+        }
+    }
+
+    private static class TargetSink {
+        private final DatabaseConfig targetDb;
+        private final TableMetrics metrics;
+        private final BlockingQueue<RowBatch> buffer;
+
+        private TargetSink(DatabaseConfig targetDb, TableMetrics metrics, int bufferBatches) {
+            this.targetDb = targetDb;
+            this.metrics = metrics;
+            this.buffer = new ArrayBlockingQueue<>(bufferBatches);
+        }
+    }
+
+    private static class RowBatch {
+        private final ChunkState state;
+        private final List<Object[]> rows;
+
+        private RowBatch(ChunkState state, List<Object[]> rows) {
+            this.state = state;
+            this.rows = rows;
+        }
+    }
+
+    // 一個源批次的數據會分散到多個寫入線程，全部讀完且在所有目標上提交後才算完成
+    private class ChunkState {
+        private final Chunk chunk;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private volatile boolean readDone;
+
+        private ChunkState(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        // 每個目標各提交一次
+        private RowBatch newBatch(List<Object[]> rows) {
+            outstanding.addAndGet(sinks.size());
+            return new RowBatch(this, rows);
+        }
+
+        private void readFinished() {
+            readDone = true;
+            checkDone();
+        }
+
+        private void batchCommitted() {
+            outstanding.decrementAndGet();
+            checkDone();
+        }
+
+        private void checkDone() {
+            if (readDone && outstanding.get() == 0 && reported.compareAndSet(false, true)) {
+                onChunkCommitted.accept(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.yt.service;
+
+import com.yt.binder.ColumnBinder;
+import com.yt.binder.ColumnBinders;
+import com.yt.binder.RowCopier;
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TablePlan {
+    private static final int LOB_BATCH_SIZE = 100;
+
+    private final TableMetadata metadata;
+    private final List<String> columns;
+    private final ColumnBinder[] binders;
+    private final String selectSql;
+    private final String insertSql;
+    private final String writeSql;
+    private final String directPathSql;
+    private boolean hasLob;
+    private boolean hasLong;
+    private boolean hasObject;
+
+    public TablePlan(TableMetadata metadata, boolean upsert) {
+        this.metadata = metadata;
+        this.columns = new ArrayList<>();
+        this.binders = new ColumnBinder[metadata.getColumns().size()];
+
+        // LONG 列放到查詢與插入列表的最後，讀取其他列時不會中斷它的流
+        TableMetadata.ColumnMetadata longColumn = null;
+        for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+            ColumnBinders binder = (ColumnBinders) ColumnBinders.forColumn(column);
+            hasLob |= binder.isLob();
+            // 帶時區的時間戳以 getObject 讀取，但可以經數據庫鏈接傳輸；用戶定義類型與 XMLType 等不行
+            hasObject |= binder == ColumnBinders.OBJECT && !column.getDataType().startsWith("TIMESTAMP") &&
+                !column.getDataType().startsWith("INTERVAL");
+            if (binder.isLong()) {
+                hasLong = true;
+                longColumn = column;
+                continue;
+            }
+            binders[columns.size()] = binder;
+            columns.add(column.getName());
+        }
+        if (longColumn != null) {
+            binders[columns.size()] = ColumnBinders.forColumn(longColumn);
+            columns.add(longColumn.getName());
+        }
+
+        String columnList = String.join(",", columns);
+        this.selectSql = "SELECT " + columnList + " FROM " + metadata.getTableName();
+        this.insertSql = "INSERT INTO " + metadata.getTableName() +
+                         " (" + columnList + ") VALUES (" +
+                         "?,".repeat(columns.size() - 1) + "?)";
+        this.writeSql = upsert ? buildMergeSql() : insertSql;
+        this.directPathSql = insertSql.replaceFirst("INSERT ", "INSERT /*+ APPEND_VALUES */ ");
+    }
+
+    // 按主鍵合併，綁定參數的順序與 INSERT 相同
+    private String buildMergeSql() {
+        List<String> keys = metadata.getPrimaryKeys();
+        List<String> sourceColumns = new ArrayList<>();
+        List<String> joins = new ArrayList<>();
+        List<String> updates = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (String column : columns) {
+            sourceColumns.add("? " + column);
+            values.add("s." + column);
+            if (keys.contains(column)) {
+                joins.add("t." + column + " = s." + column);
+            } else {
+                updates.add("t." + column + " = s." + column);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("MERGE INTO ").append(metadata.getTableName()).append(" t USING (SELECT ")
+           .append(String.join(", ", sourceColumns)).append(" FROM dual) s ON (")
+           .append(String.join(" AND ", joins)).append(")");
+        if (!updates.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(String.join(", ", updates));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(",", columns))
+           .append(") VALUES (").append(String.join(", ", values)).append(")");
+        return sql.toString();
+    }
+
+    public String getTableName() {
+        return metadata.getTableName();
+    }
+
+    public TableMetadata getMetadata() {
+        return metadata;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public String getSelectSql(Chunk chunk) {
+        return selectSql + chunk.toSqlClause();
+    }
+
+    public String getInsertSql() {
+        return insertSql;
+    }
+
+    // 全量同步為 INSERT，增量同步為按主鍵的 MERGE
+    public String getWriteSql() {
+        return writeSql;
+    }
+
+    // 數組綁定的直接路徑插入，數據寫在高水位線之上，不經過緩衝區緩存
+    public String getDirectPathSql() {
+        return directPathSql;
+    }
+
+    // 在目標端經數據庫鏈接從源表直接插入，數據不經過客戶端；append 為 true 時使用直接路徑插入
+    public String getDbLinkInsertSql(String dbLink, boolean append) {
+        String columnList = String.join(",", columns);
+        return "INSERT " + (append ? "/*+ APPEND */ " : "") + "INTO " + metadata.getTableName() +
+               " (" + columnList + ") SELECT " + columnList + " FROM " + metadata.getTableName() + "@" + dbLink;
+    }
+
+    // LONG 列不能用於 INSERT ... SELECT，對象類型不能經數據庫鏈接查詢
+    public boolean supportsDbLink() {
+        return !hasLong && !hasObject;
+    }
+
+    // LONG 列只能逐行插入，每行一次直接路徑寫入會為每行分配新的數據塊
+    public boolean supportsDirectPath() {
+        return !hasLong;
+    }
+
+    // 主鍵列拼接成的字符串，用作按主鍵哈希分桶的輸入；沒有主鍵時返回空字符串。
+    // 數字、日期與 RAW 按固定格式顯式轉換，不依賴會話的 NLS_DATE_FORMAT 與 NLS_NUMERIC_CHARACTERS，
+    // 兩端會話設置不同時同一行仍落在同一桶
+    static String keyHashInput(TableMetadata metadata) {
+        List<String> parts = new ArrayList<>();
+        for (String key : metadata.getPrimaryKeys()) {
+            TableMetadata.ColumnMetadata column = metadata.getColumn(key);
+            parts.add(column == null ? key : canonicalText(column));
+        }
+        return String.join(" || CHR(1) || ", parts);
+    }
+
+    private static String canonicalText(TableMetadata.ColumnMetadata column) {
+        String name = column.getName();
+        String dataType = column.getDataType();
+        if (dataType.startsWith("TIMESTAMP")) {
+            // 帶時區的先轉為 UTC，不受會話時區影響
+            String value = dataType.contains("TIME ZONE") ? "SYS_EXTRACT_UTC(" + name + ")" : name;
+            return "TO_CHAR(" + value + ", 'SYYYY-MM-DD HH24:MI:SS.FF9')";
+        }
+        switch (dataType) {
+            case "NUMBER":
+            case "FLOAT":
+            case "BINARY_DOUBLE":
+            case "BINARY_FLOAT":
+                return "TO_CHAR(" + name + ", 'TM9', 'NLS_NUMERIC_CHARACTERS=''.,''')";
+            case "DATE":
+                return "TO_CHAR(" + name + ", 'SYYYY-MM-DD HH24:MI:SS')";
+            case "RAW":
+                return "RAWTOHEX(" + name + ")";
+            default:
+                return name;
+        }
+    }
+
+    // 含 LOB 或 LONG 的表只能走逐行流式複製，不能把值讀入內存緩衝
+    public boolean hasStreamingColumns() {
+        return hasLob || hasLong;
+    }
+
+    // LOB 表使用較小的批量，LONG 流無法進入批量只能逐行執行
+    public int getInsertBatchSize(int defaultSize) {
+        if (hasLong) {
+            return 1;
+        }
+        return hasLob ? Math.min(defaultSize, LOB_BATCH_SIZE) : defaultSize;
+    }
+
+    // 按列類型專用的 getter/setter 直接複製一行，避免 getObject/setObject 的裝箱與類型推斷
+    public RowCopier newRowCopier() {
+        return new RowCopier(binders);
+    }
+
+    // 與 getColumns() 的順序一致
+    public ColumnBinder getBinder(int index) {
+        return binders[index];
+    }
+
+    public Object[] readRow(ResultSet rs) throws SQLException {
+        Object[] row = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            row[i] = binders[i].read(rs, i + 1);
+        }
+        return row;
+    }
+
+    public void writeRow(PreparedStatement stmt, Object[] row) throws SQLException {
+        for (int i = 0; i < binders.length; i++) {
+            binders[i].write(stmt, i + 1, row[i]);
+        }
+    }
+}
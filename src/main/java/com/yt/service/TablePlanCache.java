@@ -0,0 +1,35 @@
+package com.yt.service;
+
+import com.yt.exception.DBSyncException;
+import com.yt.model.TableMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TablePlanCache {
+    private final Map<String, TablePlan> plans = new ConcurrentHashMap<>();
+    private final AtomicLong reuses = new AtomicLong();
+
+    // 每張表在結構驗證後構建一次
+    public TablePlan register(TableMetadata metadata, boolean upsert) {
+        TablePlan plan = new TablePlan(metadata, upsert);
+        plans.put(metadata.getTableName(), plan);
+        return plan;
+    }
+
+    // 每個批次取用緩存的計劃，每次取用即省去一次 user_tab_columns 查詢
+    public TablePlan acquire(String tableName) {
+        TablePlan plan = plans.get(tableName);
+        if (plan == null) {
+            throw new DBSyncException(DBSyncException.ErrorCode.UNKNOWN_ERROR,
+                "表 " + tableName + " 的同步計劃尚未建立");
+        }
+        reuses.incrementAndGet();
+        return plan;
+    }
+
+    public long getSavedDictionaryQueries() {
+        return reuses.get();
+    }
+}
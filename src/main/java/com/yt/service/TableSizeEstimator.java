@@ -0,0 +1,102 @@
+package com.yt.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 按段大小與優化器統計估算表的大小，不掃描表數據；用於大表優先的調度順序與分批規劃
+public class TableSizeEstimator {
+    private static final Logger logger = LoggerFactory.getLogger(TableSizeEstimator.class);
+
+    // 表段與分區段，加上表的 LOB 段；LOB 數據量大的表複製同樣慢
+    private static final String SEGMENT_SQL =
+        "SELECT table_name, SUM(bytes), SUM(table_blocks) FROM (" +
+        "SELECT segment_name table_name, bytes, blocks table_blocks FROM user_segments " +
+        "WHERE segment_type IN ('TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION') AND segment_name IN (%s) " +
+        "UNION ALL SELECT l.table_name, s.bytes, 0 FROM user_lobs l " +
+        "JOIN user_segments s ON s.segment_name = l.segment_name WHERE l.table_name IN (%s)) " +
+        "GROUP BY table_name";
+
+    private static final String STATISTICS_SQL =
+        "SELECT table_name, num_rows, blocks FROM user_tab_statistics " +
+        "WHERE object_type = 'TABLE' AND table_name IN (%s)";
+
+    private final Map<String, TableSize> sizes = new HashMap<>();
+
+    public void load(Connection conn, List<String> tableNames) throws SQLException {
+        List<String> upperNames = new ArrayList<>();
+        for (String tableName : tableNames) {
+            upperNames.add(tableName.toUpperCase());
+        }
+        for (List<String> batch : MetadataLoader.partition(upperNames)) {
+            String in = MetadataLoader.placeholders(batch.size());
+            try (PreparedStatement stmt = conn.prepareStatement(String.format(SEGMENT_SQL, in, in))) {
+                bind(stmt, batch, 1);
+                bind(stmt, batch, batch.size() + 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        TableSize size = sizes.computeIfAbsent(rs.getString(1), k -> new TableSize());
+                        size.bytes = rs.getLong(2);
+                        size.blocks = rs.getLong(3);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(String.format(STATISTICS_SQL, in))) {
+                bind(stmt, batch, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long rows = rs.getLong(2);
+                        if (rs.wasNull()) {
+                            continue;
+                        }
+                        TableSize size = sizes.computeIfAbsent(rs.getString(1), k -> new TableSize());
+                        size.statsRows = rows;
+                        size.statsBlocks = rs.getLong(3);
+                    }
+                }
+            }
+        }
+        logger.info("已按段大小與統計信息估算 {} 張表的大小", sizes.size());
+    }
+
+    public long getBytes(String tableName) {
+        TableSize size = sizes.get(tableName.toUpperCase());
+        return size == null ? 0 : size.bytes;
+    }
+
+    // 有統計信息時按統計後表段的增長比例放大；沒有統計或統計時表為空時按段大小與估算行寬推算
+    public long getEstimatedRows(String tableName, int rowWidth) {
+        TableSize size = sizes.get(tableName.toUpperCase());
+        if (size == null) {
+            return 0;
+        }
+        if (size.statsRows < 0 || (size.statsBlocks == 0 && size.blocks > 0)) {
+            return size.bytes / Math.max(1, rowWidth);
+        }
+        if (size.statsBlocks > 0 && size.blocks > size.statsBlocks) {
+            return size.statsRows * size.blocks / size.statsBlocks;
+        }
+        return size.statsRows;
+    }
+
+    private void bind(PreparedStatement stmt, List<String> batch, int start) throws SQLException {
+        for (int i = 0; i < batch.size(); i++) {
+            stmt.setString(start + i, batch.get(i));
+        }
+    }
+
+    private static class TableSize {
+        private long bytes;
+        private long blocks;
+        private long statsRows = -1;
+        private long statsBlocks;
+    }
+}
@@ -0,0 +1,74 @@
+package com.yt.service;
+
+import com.yt.exception.DBSyncException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+// 水位線與斷點日誌共用的值編碼，保留類型以便還原後可直接綁定與比較。
+// 只接受 ColumnBinder.read 返回的類型；驅動專有類型（如 oracle.sql.TIMESTAMP）無法還原，直接報錯
+public final class ValueCodec {
+
+    private ValueCodec() {
+    }
+
+    public static String encode(Object value) {
+        if (value == null) {
+            return "0:";
+        }
+        if (value instanceof Timestamp) {
+            return "T:" + value;
+        }
+        if (value instanceof BigDecimal) {
+            return "N:" + ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Integer) {
+            return "I:" + value;
+        }
+        if (value instanceof Long) {
+            return "L:" + value;
+        }
+        if (value instanceof Double) {
+            return "D:" + value;
+        }
+        if (value instanceof Float) {
+            return "F:" + value;
+        }
+        if (value instanceof byte[]) {
+            return "B:" + Base64.getEncoder().encodeToString((byte[]) value);
+        }
+        if (value instanceof String) {
+            return "S:" + value;
+        }
+        throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+            "不支持保存 " + value.getClass().getName() + " 類型的值: " + value);
+    }
+
+    public static Object decode(String value) {
+        String content = value.substring(2);
+        switch (value.charAt(0)) {
+            case '0':
+                return null;
+            case 'T':
+                return Timestamp.valueOf(content);
+            case 'N':
+                return new BigDecimal(content);
+            case 'I':
+                return Integer.valueOf(content);
+            case 'L':
+                return Long.valueOf(content);
+            case 'D':
+                return Double.valueOf(content);
+            case 'F':
+                return Float.valueOf(content);
+            case 'B':
+                return Base64.getDecoder().decode(content);
+            case 'S':
+                return content;
+            default:
+                throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                    "無法識別的值編碼: " + value);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.yt.service;
+
+import com.yt.exception.DBSyncException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+public class WatermarkStore {
+    private static final Logger logger = LoggerFactory.getLogger(WatermarkStore.class);
+    private final Path file;
+    private final Properties values = new Properties();
+
+    public WatermarkStore(Path file) {
+        this.file = file;
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                values.load(reader);
+            } catch (IOException e) {
+                throw new DBSyncException(DBSyncException.ErrorCode.CONFIGURATION_ERROR,
+                    "無法讀取水位線文件 " + file, e);
+            }
+            logger.info("已載入 {} 個表的水位線", values.size());
+        }
+    }
+
+    public synchronized Object get(String tableName) {
+        String value = values.getProperty(tableName);
+        return value == null ? null : ValueCodec.decode(value);
+    }
+
+    // 只在表的所有數據提交成功後調用，先寫臨時文件再原子替換
+    public synchronized void advance(String tableName, Object watermark) {
+        values.setProperty(tableName, ValueCodec.encode(watermark));
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile)) {
+                values.store(writer, "DBSyncTool incremental watermarks");
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new DBSyncException(DBSyncException.ErrorCode.DATA_SYNC_ERROR,
+                "無法保存表 " + tableName + " 的水位線", e);
+        }
+        logger.info("表 {} 的水位線推進至 {}", tableName, watermark);
+    }
+}
@@ -0,0 +1,155 @@
+package com.yt.spill;
+
+import com.yt.binder.ColumnBinder;
+import com.yt.binder.ColumnBinders;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// 導出文件中一列的值編碼，與讀取時 ColumnBinder.read 返回的類型一一對應，
+// 導入時解碼出的對象可直接交給同一 ColumnBinder.write 綁定
+public enum ColumnEncoding {
+    INT {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            out.writeInt((Integer) value);
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            return in.getInt();
+        }
+    },
+    LONG {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            out.writeLong((Long) value);
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            return in.getLong();
+        }
+    },
+    DOUBLE {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            out.writeDouble((Double) value);
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            return in.getDouble();
+        }
+    },
+    FLOAT {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            out.writeFloat((Float) value);
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            return in.getFloat();
+        }
+    },
+    // 小數位 + 非標度值的補碼
+    DECIMAL {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeInt(decimal.scale());
+            writeBytes(out, decimal.unscaledValue().toByteArray());
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            int scale = in.getInt();
+            return new BigDecimal(new BigInteger(readBytes(in)), scale);
+        }
+    },
+    TEXT {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            return new String(readBytes(in), StandardCharsets.UTF_8);
+        }
+    },
+    // 按本地日期時間的字段編碼，導出與導入的 JVM 時區不同也不會偏移
+    TIMESTAMP {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            LocalDateTime dateTime = ((Timestamp) value).toLocalDateTime();
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            long seconds = in.getLong();
+            return Timestamp.valueOf(LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC));
+        }
+    },
+    BINARY {
+        @Override
+        void write(DataOutputStream out, Object value) throws IOException {
+            writeBytes(out, (byte[]) value);
+        }
+
+        @Override
+        Object read(ByteBuffer in) {
+            return readBytes(in);
+        }
+    };
+
+    abstract void write(DataOutputStream out, Object value) throws IOException;
+
+    abstract Object read(ByteBuffer in);
+
+    // 返回 null 表示該列類型不能導出：LOB/LONG 只能流式讀取，帶時區的時間戳等以 getObject 讀取
+    public static ColumnEncoding forBinder(ColumnBinder binder) {
+        switch ((ColumnBinders) binder) {
+            case INT:
+                return INT;
+            case LONG:
+                return LONG;
+            case DOUBLE:
+                return DOUBLE;
+            case FLOAT:
+                return FLOAT;
+            case DECIMAL:
+                return DECIMAL;
+            case STRING:
+            case NSTRING:
+                return TEXT;
+            case TIMESTAMP:
+                return TIMESTAMP;
+            case BYTES:
+                return BINARY;
+            default:
+                return null;
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return bytes;
+    }
+}
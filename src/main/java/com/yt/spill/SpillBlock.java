@@ -0,0 +1,164 @@
+package com.yt.spill;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// 一個數據塊：按列存放，每列先是空值位圖，再依次是非空值；同一列的值類型相同，壓縮率高於按行存放。
+// 導出線程各自累積並壓縮自己的塊，只有寫入文件時需要加鎖
+public class SpillBlock {
+    public static final int MAX_ROWS = 4096;
+    // LOB 等大值按字節數提前結束一個塊，限制導出與導入時的內存佔用
+    private static final long MAX_BYTES = 8L * 1024 * 1024;
+
+    private final ColumnEncoding[] encodings;
+    private final List<Object[]> rows = new ArrayList<>();
+    private long bytes;
+
+    public SpillBlock(ColumnEncoding[] encodings) {
+        this.encodings = encodings;
+    }
+
+    public void add(Object[] row) {
+        rows.add(row);
+        for (Object value : row) {
+            if (value instanceof String) {
+                bytes += ((String) value).length();
+            } else if (value instanceof byte[]) {
+                bytes += ((byte[]) value).length;
+            } else {
+                bytes += 8;
+            }
+        }
+    }
+
+    public boolean isFull() {
+        return rows.size() >= MAX_ROWS || bytes >= MAX_BYTES;
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    // 編碼並壓縮為完整的塊記錄（含塊頭），之後清空以便繼續累積下一塊
+    public ByteBuffer encode() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            for (int column = 0; column < encodings.length; column++) {
+                byte[] nulls = new byte[(rows.size() + 7) / 8];
+                for (int i = 0; i < rows.size(); i++) {
+                    if (rows.get(i)[column] == null) {
+                        nulls[i >> 3] |= (byte) (1 << (i & 7));
+                    }
+                }
+                out.write(nulls);
+                for (Object[] row : rows) {
+                    if (row[column] != null) {
+                        encodings[column].write(out, row[column]);
+                    }
+                }
+            }
+        }
+        byte[] rawBytes = raw.toByteArray();
+        byte[] compressed = deflate(rawBytes);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+
+        ByteBuffer record = ByteBuffer.allocate(SpillFormat.BLOCK_HEADER_LENGTH + compressed.length);
+        record.putInt(SpillFormat.BLOCK_MAGIC)
+              .putInt(rows.size())
+              .putInt(rawBytes.length)
+              .putInt(compressed.length)
+              .putInt((int) crc.getValue())
+              .put(compressed)
+              .flip();
+        rows.clear();
+        bytes = 0;
+        return record;
+    }
+
+    // record 為一個完整的塊記錄，通常是導出文件的內存映射區域，壓縮數據直接從映射區域解壓
+    static List<Object[]> decode(ByteBuffer record, ColumnEncoding[] encodings) throws IOException {
+        if (record.getInt() != SpillFormat.BLOCK_MAGIC) {
+            throw new IOException("數據塊標記錯誤，文件已損壞");
+        }
+        int rowCount = record.getInt();
+        int rawLength = record.getInt();
+        int compressedLength = record.getInt();
+        int expectedCrc = record.getInt();
+        ByteBuffer compressed = record.slice(record.position(), compressedLength);
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("數據塊校驗和不一致，文件已損壞");
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(inflate(compressed, rawLength));
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Object[encodings.length]);
+        }
+        for (int column = 0; column < encodings.length; column++) {
+            byte[] nulls = new byte[(rowCount + 7) / 8];
+            in.get(nulls);
+            for (int i = 0; i < rowCount; i++) {
+                if ((nulls[i >> 3] & (1 << (i & 7))) == 0) {
+                    rows.get(i)[column] = encodings[column].read(in);
+                }
+            }
+        }
+        return rows;
+    }
+
+    // 導出通常受源端讀取限制，用最快的壓縮級別
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IOException("數據塊解壓後長度不一致，文件已損壞");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("數據塊解壓失敗，文件已損壞", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
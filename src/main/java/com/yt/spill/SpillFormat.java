@@ -0,0 +1,64 @@
+package com.yt.spill;
+
+import com.yt.model.TableMetadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// 導出文件格式：
+//   文件頭   MAGIC、頭部長度、表名與列定義（導入端據此建表和解碼）
+//   數據塊   BLOCK_MAGIC、行數、解壓後長度、壓縮後長度、CRC32、Deflate 壓縮的按列存放的數據
+//   塊索引   每塊的文件偏移與行數
+//   文件尾   塊索引偏移、塊數、總行數、END_MAGIC
+// 每個數據塊自成一體，導入端從文件尾讀出塊索引後可把任意塊分給任意寫入線程，
+// 導入的並行度與導出時的線程數和批次劃分無關
+final class SpillFormat {
+    static final byte[] MAGIC = "YTSPILL1".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] END_MAGIC = "YTSPILLE".getBytes(StandardCharsets.US_ASCII);
+    static final int BLOCK_MAGIC = 0x59544231;
+    static final int BLOCK_HEADER_LENGTH = 20;
+    static final int INDEX_ENTRY_LENGTH = 12;
+    static final int FOOTER_LENGTH = 8 + 4 + 8 + 8;
+
+    private SpillFormat() {
+    }
+
+    static byte[] encodeHeader(TableMetadata metadata) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(metadata.getTableName());
+            out.writeInt(metadata.getColumns().size());
+            for (TableMetadata.ColumnMetadata column : metadata.getColumns()) {
+                out.writeUTF(column.getName());
+                out.writeUTF(column.getDataType());
+                out.writeInt(column.getDataLength());
+                out.writeInt(column.getDataPrecision());
+                out.writeInt(column.getDataScale());
+                out.writeBoolean(column.isNullable());
+                out.writeInt(column.getColumnId());
+            }
+            out.writeInt(metadata.getPrimaryKeys().size());
+            for (String primaryKey : metadata.getPrimaryKeys()) {
+                out.writeUTF(primaryKey);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static TableMetadata decodeHeader(DataInputStream in) throws IOException {
+        TableMetadata metadata = new TableMetadata(in.readUTF());
+        int columnCount = in.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            metadata.addColumn(new TableMetadata.ColumnMetadata(
+                in.readUTF(), in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readBoolean(), in.readInt()));
+        }
+        int primaryKeyCount = in.readInt();
+        for (int i = 0; i < primaryKeyCount; i++) {
+            metadata.addPrimaryKey(in.readUTF());
+        }
+        return metadata;
+    }
+}
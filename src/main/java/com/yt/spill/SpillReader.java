@@ -0,0 +1,100 @@
+package com.yt.spill;
+
+import com.yt.model.TableMetadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+// 讀取導出文件：打開時只讀文件頭與塊索引，數據塊按需以內存映射讀取，
+// 多個導入線程可同時讀取不同的塊，不需要加鎖也不經過 Java 堆上的讀緩衝區
+public class SpillReader implements Closeable {
+    private final FileChannel channel;
+    private final TableMetadata metadata;
+    private final long[] blockOffsets;
+    private final int[] blockRows;
+    private final long totalRows;
+
+    public SpillReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            int prefixLength = SpillFormat.MAGIC.length + 4;
+            if (size < prefixLength + SpillFormat.FOOTER_LENGTH) {
+                throw new IOException("文件 " + file + " 不是完整的導出文件");
+            }
+            ByteBuffer prefix = channel.map(FileChannel.MapMode.READ_ONLY, 0, prefixLength);
+            byte[] magic = new byte[SpillFormat.MAGIC.length];
+            prefix.get(magic);
+            if (!Arrays.equals(magic, SpillFormat.MAGIC)) {
+                throw new IOException("文件 " + file + " 不是導出文件或版本不支持");
+            }
+            byte[] header = new byte[prefix.getInt()];
+            channel.map(FileChannel.MapMode.READ_ONLY, prefixLength, header.length).get(header);
+            this.metadata = SpillFormat.decodeHeader(new DataInputStream(new ByteArrayInputStream(header)));
+
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY,
+                size - SpillFormat.FOOTER_LENGTH, SpillFormat.FOOTER_LENGTH);
+            long indexOffset = footer.getLong();
+            int blockCount = footer.getInt();
+            this.totalRows = footer.getLong();
+            byte[] endMagic = new byte[SpillFormat.END_MAGIC.length];
+            footer.get(endMagic);
+            if (!Arrays.equals(endMagic, SpillFormat.END_MAGIC)) {
+                throw new IOException("文件 " + file + " 缺少塊索引，導出可能未完成");
+            }
+
+            // 多留一項記錄塊索引的偏移，作為最後一塊的結束位置
+            this.blockOffsets = new long[blockCount + 1];
+            this.blockRows = new int[blockCount];
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset,
+                (long) blockCount * SpillFormat.INDEX_ENTRY_LENGTH);
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = index.getLong();
+                blockRows[i] = index.getInt();
+            }
+            // 索引按寫入順序記錄，下一塊的偏移即本塊的結束位置
+            blockOffsets[blockCount] = indexOffset;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public TableMetadata getMetadata() {
+        return metadata;
+    }
+
+    public int getBlockCount() {
+        return blockRows.length;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    // 解碼一個塊的所有行，值的類型與 ColumnBinder.read 相同
+    public List<Object[]> readBlock(int block, ColumnEncoding[] encodings) throws IOException {
+        long offset = blockOffsets[block];
+        MappedByteBuffer record = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+            blockOffsets[block + 1] - offset);
+        List<Object[]> rows = SpillBlock.decode(record, encodings);
+        if (rows.size() != blockRows[block]) {
+            throw new IOException("數據塊行數與索引不一致，文件已損壞");
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.yt.spill;
+
+import com.yt.model.TableMetadata;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// 寫入一張表的導出文件。多個導出線程並發追加各自壓縮好的塊，塊在文件中的順序不重要；
+// 先寫到臨時文件，finish() 寫出塊索引後才改名，中斷的導出不會留下可被導入的文件
+public class SpillWriter implements Closeable {
+    private final Path file;
+    private final Path tempFile;
+    private final FileChannel channel;
+    private final List<long[]> index = new ArrayList<>();
+    private long totalRows;
+    private boolean finished;
+
+    public SpillWriter(Path file, TableMetadata metadata) throws IOException {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        this.channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        byte[] header = SpillFormat.encodeHeader(metadata);
+        ByteBuffer buffer = ByteBuffer.allocate(SpillFormat.MAGIC.length + 4 + header.length);
+        buffer.put(SpillFormat.MAGIC).putInt(header.length).put(header).flip();
+        writeFully(buffer);
+    }
+
+    // block 為空時不寫入
+    public void append(SpillBlock block) throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        int rowCount = block.getRowCount();
+        ByteBuffer record = block.encode();
+        synchronized (this) {
+            index.add(new long[] {channel.position(), rowCount});
+            totalRows += rowCount;
+            writeFully(record);
+        }
+    }
+
+    public synchronized long getTotalRows() {
+        return totalRows;
+    }
+
+    public synchronized void finish() throws IOException {
+        long indexOffset = channel.position();
+        ByteBuffer buffer = ByteBuffer.allocate(index.size() * SpillFormat.INDEX_ENTRY_LENGTH +
+            SpillFormat.FOOTER_LENGTH);
+        for (long[] entry : index) {
+            buffer.putLong(entry[0]).putInt((int) entry[1]);
+        }
+        buffer.putLong(indexOffset).putInt(index.size()).putLong(totalRows).put(SpillFormat.END_MAGIC).flip();
+        writeFully(buffer);
+        channel.force(false);
+        channel.close();
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    // 未 finish 就關閉表示導出失敗，刪除臨時文件
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
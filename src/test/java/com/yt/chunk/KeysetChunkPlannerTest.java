@@ -0,0 +1,128 @@
+package com.yt.chunk;
+
+import com.yt.model.Chunk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 在 H2 中執行生成的範圍謂詞，檢查每一行恰好落在一個批次中
+class KeysetChunkPlannerTest {
+    private Connection conn;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:keyset;DB_CLOSE_DELAY=-1");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS T");
+            stmt.execute("CREATE TABLE T (A INT, B VARCHAR(10), C INT, PRIMARY KEY (A, B, C))");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO T VALUES (?, ?, ?)")) {
+            for (int a = 0; a < 5; a++) {
+                for (String b : new String[]{"x", "y", "z"}) {
+                    for (int c = 0; c < 4; c++) {
+                        stmt.setInt(1, a);
+                        stmt.setString(2, b);
+                        stmt.setInt(3, c);
+                        stmt.addBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void dropTable() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE T");
+        }
+        conn.close();
+    }
+
+    @Test
+    void singleChunkHasNoPredicate() {
+        List<Chunk> chunks = KeysetChunkPlanner.toChunks(List.of("A"), List.of());
+        assertEquals(1, chunks.size());
+        assertNull(chunks.get(0).getPredicate());
+        assertTrue(chunks.get(0).isKeyRange());
+    }
+
+    @Test
+    void singleKeyRangesAreHalfOpen() throws SQLException {
+        List<Chunk> chunks = KeysetChunkPlanner.toChunks(List.of("A"),
+            List.of(new Object[]{BigDecimal.ONE}, new Object[]{BigDecimal.valueOf(3)}));
+        assertEquals("A <= ?", chunks.get(0).getPredicate());
+        assertEquals("A > ? AND A <= ?", chunks.get(1).getPredicate());
+        assertEquals("A > ?", chunks.get(2).getPredicate());
+        assertPartition(chunks);
+    }
+
+    @Test
+    void compositeKeyRangesCoverEveryRowOnce() throws SQLException {
+        List<Chunk> chunks = KeysetChunkPlanner.toChunks(List.of("A", "B", "C"), List.of(
+            new Object[]{0, "z", 3},
+            new Object[]{1, "y", 0},
+            new Object[]{1, "y", 2},
+            new Object[]{3, "x", 1},
+            new Object[]{4, "a", 9}));
+        assertEquals(6, chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            assertEquals(i, chunks.get(i).getIndex());
+        }
+        assertPartition(chunks);
+        // 邊界行本身屬於左側的範圍
+        assertEquals(1, count(chunks.get(1), "A = 1 AND B = 'y' AND C = 0"));
+        assertEquals(0, count(chunks.get(2), "A = 1 AND B = 'y' AND C = 0"));
+    }
+
+    @Test
+    void boundariesBetweenExistingKeysStillPartition() throws SQLException {
+        List<Chunk> chunks = KeysetChunkPlanner.toChunks(List.of("A", "B", "C"), List.of(
+            new Object[]{2, "xa", -1},
+            new Object[]{2, "yz", 100}));
+        assertPartition(chunks);
+    }
+
+    private void assertPartition(List<Chunk> chunks) throws SQLException {
+        Map<String, Integer> owners = new HashMap<>();
+        for (Chunk chunk : chunks) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT A, B, C FROM T" + chunk.toSqlClause())) {
+                chunk.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String key = rs.getInt(1) + "," + rs.getString(2) + "," + rs.getInt(3);
+                        Integer previous = owners.put(key, chunk.getIndex());
+                        assertNull(previous, "行 " + key + " 同時落在批次 " + previous + " 與 " + chunk.getIndex());
+                    }
+                }
+            }
+        }
+        assertEquals(60, owners.size());
+    }
+
+    private int count(Chunk chunk, String filter) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM T" + chunk.filtered(filter, List.of()).toSqlClause())) {
+            chunk.bind(stmt, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
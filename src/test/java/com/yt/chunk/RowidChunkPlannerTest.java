@@ -0,0 +1,55 @@
+package com.yt.chunk;
+
+import com.yt.model.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RowidChunkPlannerTest {
+
+    @Test
+    void encodesSmallfileRowidLikeDbmsRowid() {
+        // DBMS_ROWID.ROWID_CREATE(1, 73560, 4, 170, 0)
+        assertEquals("AAAR9YAAEAAAACqAAA", RowidChunkPlanner.encodeRowid(73560, 4, 170, 0, false));
+        assertEquals("AAAR9YAAEAAAACqH//", RowidChunkPlanner.encodeRowid(73560, 4, 170, 32767, false));
+    }
+
+    @Test
+    void encodesBigfileBlockAcrossFileAndBlockFields() {
+        // bigfile 表空間的 ROWID 沒有文件號，塊號佔 9 個字符
+        assertEquals("AAAR9YAAAAAAACqAAA", RowidChunkPlanner.encodeRowid(73560, 1024, 170, 0, true));
+        assertEquals("AAAR9YAAAD/////AAA", RowidChunkPlanner.encodeRowid(73560, 1024, (1L << 32) - 1, 0, true));
+    }
+
+    @Test
+    void splitsExtentsByBlockBudget() {
+        List<Chunk> chunks = RowidChunkPlanner.toChunks(List.of(
+            new long[]{100, 4, 8, 16, 0},
+            new long[]{100, 4, 24, 8, 0}), 10);
+        // 24 個塊按每批 10 個切成 3 段，第二段跨越兩個 extent
+        assertEquals(3, chunks.size());
+        assertEquals(List.of(RowidChunkPlanner.encodeRowid(100, 4, 8, 0, false),
+            RowidChunkPlanner.encodeRowid(100, 4, 17, 32767, false)), chunks.get(0).getParams());
+        assertEquals(List.of(RowidChunkPlanner.encodeRowid(100, 4, 18, 0, false),
+            RowidChunkPlanner.encodeRowid(100, 4, 27, 32767, false)), chunks.get(1).getParams());
+        assertEquals(List.of(RowidChunkPlanner.encodeRowid(100, 4, 28, 0, false),
+            RowidChunkPlanner.encodeRowid(100, 4, 31, 32767, false)), chunks.get(2).getParams());
+        for (int i = 0; i < chunks.size(); i++) {
+            assertEquals(i, chunks.get(i).getIndex());
+        }
+    }
+
+    @Test
+    void neverMergesAcrossObjectsFilesOrTablespaceTypes() {
+        List<Chunk> chunks = RowidChunkPlanner.toChunks(List.of(
+            new long[]{100, 4, 8, 8, 0},
+            new long[]{101, 4, 16, 8, 0},
+            new long[]{101, 5, 8, 8, 0},
+            new long[]{102, 1024, 8, 8, 1}), 1000);
+        assertEquals(4, chunks.size());
+        assertEquals(RowidChunkPlanner.encodeRowid(102, 1024, 8, 0, true), chunks.get(3).getParams().get(0));
+        assertEquals(RowidChunkPlanner.encodeRowid(102, 1024, 15, 32767, true), chunks.get(3).getParams().get(1));
+    }
+}
@@ -0,0 +1,139 @@
+package com.yt.config;
+
+import com.yt.chunk.ChunkingStrategy;
+import com.yt.exception.DBSyncException;
+import com.yt.model.SyncMode;
+import com.yt.model.TableSpec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobConfigTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsGlobalOptionsAndResolvesPathsAgainstJobFile() throws IOException {
+        Files.write(dir.resolve("tables.txt"), List.of("ORDERS", "", "items:updated_at"), StandardCharsets.UTF_8);
+        JobConfig job = load(
+            "source=conf/src.properties",
+            "target=a.properties, b.properties",
+            "tableList=tables.txt",
+            "dbThreads=3",
+            "tableThreads=5",
+            "truncateTarget=yes",
+            "verify=Y",
+            "chunkingStrategy=rowid",
+            "chunkRetries=0",
+            "retryBackoffMillis=500");
+
+        assertEquals("SYNC", job.getMode());
+        assertEquals(dir.resolve("conf/src.properties").toFile(), job.getSourceConfig());
+        assertEquals(List.of(dir.resolve("a.properties").toFile(), dir.resolve("b.properties").toFile()),
+            job.getTargetConfigs());
+
+        SyncOptions options = job.getOptions();
+        assertEquals(3, options.getDbThreads());
+        assertEquals(5, options.getTableThreads());
+        assertTrue(options.isTruncateTarget());
+        assertTrue(options.isVerify());
+        assertEquals(ChunkingStrategy.ROWID, options.getChunkingStrategy());
+        assertEquals(0, options.getChunkRetries());
+        assertEquals(500, options.getRetryBackoffMillis());
+        // 多目標時固定使用管線
+        assertTrue(options.isPipelined());
+        // 狀態文件放在表清單旁邊
+        assertEquals(dir.resolve("tables.txt.journal"), options.getJournalFile());
+        assertEquals(dir.resolve("tables.txt.failed"), options.getFailureFile());
+
+        List<TableSpec> tables = job.getTables();
+        assertEquals(2, tables.size());
+        assertEquals("ORDERS", tables.get(0).getTableName());
+        assertFalse(tables.get(0).isIncremental());
+        assertEquals("ITEMS", tables.get(1).getTableName());
+        assertEquals("UPDATED_AT", tables.get(1).getWatermarkColumn());
+    }
+
+    @Test
+    void appliesPerTableOverrides() {
+        JobConfig job = load(
+            "source=src.properties",
+            "target=dst.properties",
+            "tables=orders, items:updated_at, logs",
+            "table.orders.chunkingStrategy=keyset",
+            "table.orders.batchSize=20000",
+            "table.orders.parallelism=8",
+            "table.orders.where=status <> 'X'",
+            "table.ITEMS.syncMode=FULL",
+            "table.logs.syncMode=incremental",
+            "table.logs.watermarkColumn=created_at");
+
+        List<TableSpec> tables = job.getTables();
+        TableSpec orders = tables.get(0);
+        assertEquals(ChunkingStrategy.KEYSET, orders.getChunkingStrategy());
+        assertEquals(20000, orders.getBatchSize());
+        assertEquals(8, orders.getParallelism());
+        assertEquals("status <> 'X'", orders.getFilter());
+
+        // FULL 覆蓋表清單中的水位線列
+        TableSpec items = tables.get(1);
+        assertEquals(SyncMode.FULL, items.getSyncMode());
+        assertNull(items.getWatermarkColumn());
+        assertFalse(items.isIncremental());
+
+        TableSpec logs = tables.get(2);
+        assertTrue(logs.isIncremental());
+        assertEquals("CREATED_AT", logs.getWatermarkColumn());
+        // 只在作業文件中列表時，狀態文件放在作業文件旁邊
+        assertEquals(dir.resolve("job.properties.watermark"), job.getOptions().getWatermarkFile());
+    }
+
+    @Test
+    void rejectsMisspelledAndInvalidSettings() {
+        assertRejected("source=s", "target=t", "tables=A", "dbThread=4");
+        assertRejected("source=s", "target=t", "tables=A", "table.A.batchsize=10");
+        assertRejected("source=s", "target=t", "tables=A", "table.B.batchSize=10");
+        assertRejected("source=s", "target=t", "tables=A", "table.A.syncMode=INCREMENTAL");
+        assertRejected("source=s", "target=t", "tables=A", "dbThreads=0");
+        assertRejected("source=s", "target=t", "tables=A", "verify=maybe");
+        assertRejected("source=s", "target=t", "tables=A", "directPath=true");
+        assertRejected("mode=COPY", "source=s", "target=t", "tables=A");
+        assertRejected("target=t", "tables=A");
+        assertRejected("source=s", "target=t");
+        assertRejected("mode=IMPORT", "target=a,b", "tables=A");
+    }
+
+    @Test
+    void exportNeedsNoTarget() {
+        JobConfig job = load("mode=export", "source=s.properties", "tables=A", "spillDirectory=out");
+        assertEquals("EXPORT", job.getMode());
+        assertTrue(job.getTargetConfigs().isEmpty());
+        assertEquals(dir.resolve("out"), job.getOptions().getSpillDirectory());
+    }
+
+    private void assertRejected(String... lines) {
+        DBSyncException e = assertThrows(DBSyncException.class, () -> load(lines));
+        assertEquals(DBSyncException.ErrorCode.CONFIGURATION_ERROR, e.getErrorCode());
+    }
+
+    private JobConfig load(String... lines) {
+        Path file = dir.resolve("job.properties");
+        try {
+            Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return JobConfig.load(file);
+    }
+}
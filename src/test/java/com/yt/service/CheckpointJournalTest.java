@@ -0,0 +1,117 @@
+package com.yt.service;
+
+import com.yt.model.Chunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoresPlanWithTypedBoundariesAfterRestart() {
+        Path file = dir.resolve("tables.journal");
+        Timestamp ts = Timestamp.valueOf(LocalDateTime.of(2024, 1, 31, 12, 0, 0, 999000001));
+        byte[] raw = {1, 2, (byte) 0xFE};
+        List<Chunk> plan = List.of(
+            Chunk.keyRange(0, "ID <= ? AND TS <= ?", List.of(new BigDecimal("12345678901234567890.5"), ts)),
+            Chunk.keyRange(1, "ID > ? AND CODE <= ?", Arrays.asList(new BigDecimal("12345678901234567890.5"), raw)),
+            Chunk.range(2, "NAME = ? OR NOTE IS ?", Arrays.asList("含\t製表符\n與換行", null)),
+            Chunk.page(3, "ROWID", 5000, 2500));
+
+        CheckpointJournal journal = new CheckpointJournal(file);
+        journal.recordPlan("ORDERS", plan);
+        journal.recordChunkDone("ORDERS", plan.get(0));
+        journal.recordChunkDone("ORDERS", plan.get(2));
+        journal.recordTableCreated("ORDERS");
+        journal.recordTableDone("CUSTOMERS");
+        journal.close();
+
+        CheckpointJournal reopened = new CheckpointJournal(file);
+        try {
+            List<Chunk> restored = reopened.getPlan("ORDERS");
+            assertEquals(plan.size(), restored.size());
+            for (int i = 0; i < plan.size(); i++) {
+                Chunk expected = plan.get(i);
+                Chunk actual = restored.get(i);
+                assertEquals(expected.getIndex(), actual.getIndex());
+                assertEquals(expected.getPredicate(), actual.getPredicate());
+                assertEquals(expected.isKeyRange(), actual.isKeyRange());
+                assertEquals(expected.getOrderBy(), actual.getOrderBy());
+                assertEquals(expected.getOffset(), actual.getOffset());
+                assertEquals(expected.getLimit(), actual.getLimit());
+                assertEquals(expected.getParams().size(), actual.getParams().size());
+            }
+            assertEquals(ts, restored.get(0).getParams().get(1));
+            assertEquals(new BigDecimal("12345678901234567890.5"), restored.get(1).getParams().get(0));
+            assertArrayEquals(raw, (byte[]) restored.get(1).getParams().get(1));
+            assertEquals("含\t製表符\n與換行", restored.get(2).getParams().get(0));
+            assertNull(restored.get(2).getParams().get(1));
+
+            assertTrue(reopened.isChunkDone("ORDERS", 0));
+            assertFalse(reopened.isChunkDone("ORDERS", 1));
+            assertTrue(reopened.isChunkDone("ORDERS", 2));
+            assertTrue(reopened.isTableCreated("ORDERS"));
+            assertFalse(reopened.isTableDone("ORDERS"));
+            assertTrue(reopened.isTableDone("CUSTOMERS"));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void ignoresPlanWithoutEndMarkerAndTornLastLine() throws IOException {
+        Path file = dir.resolve("tables.journal");
+        CheckpointJournal journal = new CheckpointJournal(file);
+        journal.recordPlan("ORDERS", List.of(Chunk.keyRange(0, null, List.of())));
+        journal.close();
+        // 模擬另一張表的計劃寫到一半時崩潰
+        String lines = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).replace("ORDERS", "ITEMS");
+        Files.write(file, (lines.substring(0, lines.indexOf("\nE\t") + 1) + "D\tITEMS\tx").getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+        CheckpointJournal reopened = new CheckpointJournal(file);
+        try {
+            assertEquals(1, reopened.getPlan("ORDERS").size());
+            assertNull(reopened.getPlan("ITEMS"));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void keepsDirectPathStateUntilRestored() {
+        Path file = dir.resolve("tables.journal");
+        CheckpointJournal journal = new CheckpointJournal(file);
+        journal.recordDirectPathBegin("ORDERS", "N\t1\nC\tFK_ORDERS_CUSTOMER");
+        journal.recordDirectPathBegin("ITEMS", "N\t0\nI\tIX_ITEMS_SKU");
+        journal.recordDirectPathRestored("ITEMS");
+        journal.close();
+
+        CheckpointJournal reopened = new CheckpointJournal(file);
+        try {
+            assertEquals(Map.of("ORDERS", "N\t1\nC\tFK_ORDERS_CUSTOMER"), reopened.getPendingDirectPathLoads());
+        } finally {
+            reopened.complete();
+        }
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,46 @@
+package com.yt.service;
+
+import com.yt.model.Chunk;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ChunkSchedulerTest {
+
+    @Test
+    void errorInTaskFailsTableAndKeepsWorker() {
+        ChunkScheduler scheduler = new ChunkScheduler(1, Executors.defaultThreadFactory());
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                ChunkScheduler.TableJob failing = scheduler.submit("A", chunks(3), 1, chunk -> {
+                    throw new OutOfMemoryError("模擬");
+                });
+                ExecutionException e = assertThrows(ExecutionException.class, failing::await);
+                assertInstanceOf(OutOfMemoryError.class, e.getCause());
+
+                // 唯一的工作線程沒有因此退出，後續的表照常處理
+                AtomicInteger done = new AtomicInteger();
+                scheduler.submit("B", chunks(4), 1, chunk -> done.incrementAndGet()).await();
+                assertEquals(4, done.get());
+            });
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private static List<Chunk> chunks(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> Chunk.range(i, null, List.of()))
+            .toList();
+    }
+}
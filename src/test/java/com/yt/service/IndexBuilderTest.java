@@ -0,0 +1,30 @@
+package com.yt.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexBuilderTest {
+
+    @Test
+    void keepsShortUniqueIndexNames() {
+        assertEquals("UK_ORDERS_1", IndexBuilder.uniqueIndexName("ORDERS", 1));
+    }
+
+    @Test
+    void shortensLongTableNamesWithinOracleLimit() {
+        String first = IndexBuilder.uniqueIndexName("CUSTOMER_ORDER_LINE_HISTORY_2023", 12);
+        String second = IndexBuilder.uniqueIndexName("CUSTOMER_ORDER_LINE_HISTORY_2024", 12);
+        assertTrue(first.length() <= 30, first);
+        assertTrue(first.startsWith("UK_CUSTOMER_ORDER") && first.endsWith("_12"), first);
+        // 只截斷時這兩張表會得到同一個名字
+        assertNotEquals(first, second);
+
+        String multibyte = IndexBuilder.uniqueIndexName("訂單明細歷史記錄表", 1);
+        assertTrue(multibyte.getBytes(StandardCharsets.UTF_8).length <= 30, multibyte);
+    }
+}
@@ -0,0 +1,105 @@
+package com.yt.service;
+
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    @Test
+    void classifiesTransientErrors() {
+        assertTrue(RetryPolicy.isTransient(new SQLException("ORA-01555", "72000", 1555)));
+        assertTrue(RetryPolicy.isTransient(new SQLException("ORA-00060", "61000", 60)));
+        assertTrue(RetryPolicy.isTransient(new SQLRecoverableException("連接已關閉")));
+        assertTrue(RetryPolicy.isTransient(new SQLTransientConnectionException("取連接超時")));
+        // 被包裝在其他異常中
+        assertTrue(RetryPolicy.isTransient(new RuntimeException(new SQLException("ORA-03113", "08006", 3113))));
+        assertFalse(RetryPolicy.isTransient(new SQLException("ORA-00001", "23000", 1)));
+        assertFalse(RetryPolicy.isTransient(new IllegalStateException()));
+    }
+
+    @Test
+    void classifiesDataErrors() {
+        assertTrue(RetryPolicy.isDataError(new SQLException("ORA-12899", "72000", 12899)));
+        assertTrue(RetryPolicy.isDataError(new SQLException("ORA-02291", "23000", 2291)));
+        BatchUpdateException batch = new BatchUpdateException("批量執行失敗", new int[0]);
+        batch.initCause(new SQLException("ORA-01438", "22003", 1438));
+        assertTrue(RetryPolicy.isDataError(batch));
+        assertFalse(RetryPolicy.isDataError(new SQLException("ORA-01555", "72000", 1555)));
+        assertFalse(RetryPolicy.isDataError(new SQLException("ORA-00942", "42000", 942)));
+    }
+
+    @Test
+    void backoffDoublesWithJitterAndIsCapped() {
+        RetryPolicy policy = new RetryPolicy(1000);
+        for (int attempt = 1; attempt <= 4; attempt++) {
+            long base = 1000L << (attempt - 1);
+            long delay = policy.getBackoffMillis(attempt);
+            assertTrue(delay >= base && delay <= base + base / 2, "第 " + attempt + " 次: " + delay);
+        }
+        long capped = policy.getBackoffMillis(100);
+        assertTrue(capped >= 300000 && capped <= 450000);
+    }
+
+    @Test
+    void splitsKeyRangeByHashHalves() {
+        Chunk chunk = Chunk.keyRange(4, "ID > ? AND ID <= ?", List.of(10, 20));
+        List<Chunk> pieces = RetryPolicy.split(chunk, "ID || CHR(1) || SEQ", 1000, 2);
+        assertEquals(2, pieces.size());
+        for (int i = 0; i < 2; i++) {
+            Chunk piece = pieces.get(i);
+            assertEquals(4, piece.getIndex());
+            assertTrue(piece.isKeyRange());
+            assertEquals("ORA_HASH(ID || CHR(1) || SEQ, 1, 2) = ? AND (ID > ? AND ID <= ?)", piece.getPredicate());
+            assertEquals(List.of(i, 10, 20), piece.getParams());
+        }
+    }
+
+    @Test
+    void splitsByRowidWithoutPrimaryKeyAndStopsAtSingleRows() {
+        Chunk chunk = Chunk.range(0, null, List.of());
+        assertEquals("ORA_HASH(ROWID, 1, 0) = ?", RetryPolicy.split(chunk, "", 1000, 0).get(0).getPredicate());
+        // 1000 行的批次對半拆分約 10 層後只剩一行
+        assertEquals(2, RetryPolicy.split(chunk, "", 1000, 9).size());
+        assertTrue(RetryPolicy.split(chunk, "", 1000, 10).isEmpty());
+    }
+
+    @Test
+    void splitsPagesByRowNumber() {
+        Chunk page = Chunk.page(7, "ROWID", 5000, 2501);
+        List<Chunk> pieces = RetryPolicy.split(page, "ID", 2501, 0);
+        assertEquals(5000, pieces.get(0).getOffset());
+        assertEquals(1250, pieces.get(0).getLimit());
+        assertEquals(6250, pieces.get(1).getOffset());
+        assertEquals(1251, pieces.get(1).getLimit());
+        assertTrue(RetryPolicy.split(Chunk.page(7, "ROWID", 5000, 1), "ID", 2501, 12).isEmpty());
+    }
+
+    @Test
+    void hashesKeysAsNlsIndependentText() {
+        TableMetadata metadata = new TableMetadata("ORDERS");
+        metadata.addColumn(new TableMetadata.ColumnMetadata("CODE", "VARCHAR2", 10, 0, 0, false, 1));
+        metadata.addColumn(new TableMetadata.ColumnMetadata("ID", "NUMBER", 0, 12, 2, false, 2));
+        metadata.addColumn(new TableMetadata.ColumnMetadata("DAY", "DATE", 0, 0, 0, false, 3));
+        metadata.addColumn(new TableMetadata.ColumnMetadata("TS", "TIMESTAMP(6) WITH TIME ZONE", 0, 0, 6, false, 4));
+        metadata.addColumn(new TableMetadata.ColumnMetadata("TAG", "RAW", 16, 0, 0, false, 5));
+        for (String key : List.of("CODE", "ID", "DAY", "TS", "TAG")) {
+            metadata.addPrimaryKey(key);
+        }
+        assertEquals("CODE || CHR(1) || TO_CHAR(ID, 'TM9', 'NLS_NUMERIC_CHARACTERS=''.,''') || CHR(1) || " +
+                "TO_CHAR(DAY, 'SYYYY-MM-DD HH24:MI:SS') || CHR(1) || " +
+                "TO_CHAR(SYS_EXTRACT_UTC(TS), 'SYYYY-MM-DD HH24:MI:SS.FF9') || CHR(1) || RAWTOHEX(TAG)",
+            TablePlan.keyHashInput(metadata));
+        assertEquals("", TablePlan.keyHashInput(new TableMetadata("HEAP")));
+    }
+}
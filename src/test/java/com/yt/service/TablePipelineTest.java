@@ -0,0 +1,157 @@
+package com.yt.service;
+
+import com.yt.config.DatabaseConfig;
+import com.yt.exception.DBSyncException;
+import com.yt.metrics.SyncMetrics;
+import com.yt.metrics.TableMetrics;
+import com.yt.model.Chunk;
+import com.yt.model.TableMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class TablePipelineTest {
+    private static final int ROWS = 20000;
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @TempDir
+    Path dir;
+
+    private final List<DatabaseConfig> databases = new ArrayList<>();
+    private ChunkScheduler scheduler;
+    private ExecutorService writerExecutor;
+    private DatabaseConfig sourceDb;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        scheduler = new ChunkScheduler(2, Executors.defaultThreadFactory());
+        writerExecutor = Executors.newCachedThreadPool();
+        sourceDb = database("SRC");
+        try (Connection conn = sourceDb.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO T (ID, NAME) VALUES (?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "行 " + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        writerExecutor.shutdownNow();
+        for (DatabaseConfig db : databases) {
+            db.close();
+        }
+    }
+
+    @Test
+    void fansOutEveryRowToEachTarget() throws Exception {
+        DatabaseConfig first = database("DST1");
+        DatabaseConfig second = database("DST2");
+        List<Chunk> committed = new ArrayList<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () ->
+            pipeline(List.of(first, second), committed).run(chunks()));
+        assertEquals(4, committed.size());
+        assertEquals(ROWS, count(first));
+        assertEquals(ROWS, count(second));
+    }
+
+    @Test
+    void deadWriterOnOneTargetFailsTableInsteadOfHanging() throws Exception {
+        DatabaseConfig healthy = database("DST1");
+        // 第二個目標的寫入線程一開始就以 RuntimeException 退出，它的緩衝區不會再被取走
+        DatabaseConfig broken = new DatabaseConfig(properties("DST2"), 2) {
+            @Override
+            public Connection getConnection() {
+                throw new IllegalStateException("模擬寫入線程異常退出");
+            }
+        };
+        databases.add(broken);
+
+        DBSyncException e = assertTimeoutPreemptively(Duration.ofSeconds(60), () ->
+            assertThrows(DBSyncException.class, () -> pipeline(List.of(healthy, broken), new ArrayList<>()).run(chunks())));
+        assertEquals(DBSyncException.ErrorCode.DATA_SYNC_ERROR, e.getErrorCode());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private TablePipeline pipeline(List<DatabaseConfig> targets, List<Chunk> committed) {
+        TableMetadata metadata = new TableMetadata("T");
+        metadata.addColumn(new TableMetadata.ColumnMetadata("ID", "NUMBER", 0, 18, 0, false, 1));
+        metadata.addColumn(new TableMetadata.ColumnMetadata("NAME", "VARCHAR2", 40, 0, 0, true, 2));
+        metadata.addPrimaryKey("ID");
+        SyncMetrics syncMetrics = new SyncMetrics();
+        List<TableMetrics> targetMetrics = new ArrayList<>();
+        for (DatabaseConfig target : targets) {
+            targetMetrics.add(syncMetrics.register("T@" + target.getName(), 64));
+        }
+        return new TablePipeline(sourceDb, targets, new TablePlan(metadata, false),
+            new AdaptiveBatchController(metadata, () -> ""), targetMetrics, scheduler, writerExecutor,
+            ConnectionPermits.unbounded(), 2, 1, 1, chunk -> {
+                synchronized (committed) {
+                    committed.add(chunk);
+                }
+            });
+    }
+
+    private static List<Chunk> chunks() {
+        List<Chunk> chunks = new ArrayList<>();
+        int step = ROWS / 4;
+        for (int i = 0; i < 4; i++) {
+            chunks.add(Chunk.keyRange(i, "ID > ? AND ID <= ?", List.of(i * step, (i + 1) * step)));
+        }
+        return chunks;
+    }
+
+    private DatabaseConfig database(String name) throws IOException, SQLException {
+        DatabaseConfig db = new DatabaseConfig(properties(name), 4);
+        databases.add(db);
+        try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE T (ID NUMBER(18) PRIMARY KEY, NAME VARCHAR2(40))");
+        }
+        return db;
+    }
+
+    // 每個數據庫用獨立的內存庫，連接池中保持的空閒連接讓它一直存在到測試結束
+    private File properties(String name) throws IOException {
+        Path file = dir.resolve(name + ".properties");
+        Files.write(file, List.of(
+            "url=jdbc:h2:mem:pipeline" + DATABASES.incrementAndGet() + ";MODE=Oracle",
+            "username=sa",
+            "password="), StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private static long count(DatabaseConfig db) throws SQLException {
+        try (Connection conn = db.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM T")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
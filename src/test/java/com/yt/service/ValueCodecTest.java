@@ -0,0 +1,60 @@
+package com.yt.service;
+
+import com.yt.exception.DBSyncException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValueCodecTest {
+
+    @Test
+    void roundTripsTimestampWithNanos() {
+        Timestamp value = Timestamp.valueOf(LocalDateTime.of(2024, 2, 29, 23, 59, 58, 123456789));
+        Object decoded = ValueCodec.decode(ValueCodec.encode(value));
+        assertEquals(Timestamp.class, decoded.getClass());
+        assertEquals(value, decoded);
+    }
+
+    @Test
+    void roundTripsBigDecimalWithoutExponent() {
+        BigDecimal value = new BigDecimal("1E+20");
+        assertEquals("N:100000000000000000000", ValueCodec.encode(value));
+        assertEquals(0, value.compareTo((BigDecimal) ValueCodec.decode(ValueCodec.encode(value))));
+        BigDecimal fraction = new BigDecimal("-12345.000678");
+        assertEquals(fraction, ValueCodec.decode(ValueCodec.encode(fraction)));
+    }
+
+    @Test
+    void roundTripsBytes() {
+        byte[] value = {0, 1, (byte) 0xFF, 0x7F, (byte) 0x80};
+        assertArrayEquals(value, (byte[]) ValueCodec.decode(ValueCodec.encode(value)));
+    }
+
+    @Test
+    void roundTripsNull() {
+        assertNull(ValueCodec.decode(ValueCodec.encode(null)));
+    }
+
+    @Test
+    void keepsNumericTypesSoWatermarksStayComparable() {
+        assertEquals(42, ValueCodec.decode(ValueCodec.encode(42)));
+        assertEquals(42L, ValueCodec.decode(ValueCodec.encode(42L)));
+        assertEquals(1.5d, ValueCodec.decode(ValueCodec.encode(1.5d)));
+        assertEquals(1.5f, ValueCodec.decode(ValueCodec.encode(1.5f)));
+        assertEquals("A:B\tC", ValueCodec.decode(ValueCodec.encode("A:B\tC")));
+    }
+
+    @Test
+    void rejectsTypesThatCannotBeRestored() {
+        assertThrows(DBSyncException.class, () -> ValueCodec.encode(new Object()));
+        assertThrows(DBSyncException.class, () -> ValueCodec.encode(LocalDateTime.now()));
+        assertThrows(DBSyncException.class, () -> ValueCodec.decode("X:1"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.yt.spill;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillBlockTest {
+    private static final ColumnEncoding[] ENCODINGS = ColumnEncoding.values();
+
+    @Test
+    void roundTripsEveryEncodingWithNulls() throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(new Object[]{
+                i % 7 == 0 ? null : i,
+                i % 5 == 0 ? null : Long.MAX_VALUE - i,
+                i % 3 == 0 ? null : i / 3.0,
+                i % 11 == 0 ? null : (float) i / 7,
+                i % 13 == 0 ? null : new BigDecimal("-1234567890123456789.0" + i),
+                i % 2 == 0 ? null : "列值 " + i,
+                i % 17 == 0 ? null : Timestamp.valueOf(LocalDateTime.of(2024, 2, 29, 0, 0, 0, i * 1001)),
+                i % 4 == 0 ? null : new byte[]{(byte) i, 0, (byte) -i}});
+        }
+        SpillBlock block = new SpillBlock(ENCODINGS);
+        for (Object[] row : rows) {
+            block.add(row);
+        }
+        assertEquals(300, block.getRowCount());
+
+        ByteBuffer record = block.encode();
+        // 編碼後清空，可以繼續累積下一塊
+        assertTrue(block.isEmpty());
+
+        List<Object[]> decoded = SpillBlock.decode(record, ENCODINGS);
+        assertEquals(rows.size(), decoded.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] expected = rows.get(i);
+            Object[] actual = decoded.get(i);
+            for (int column = 0; column < ENCODINGS.length - 1; column++) {
+                assertEquals(expected[column], actual[column], "第 " + i + " 行第 " + column + " 列");
+            }
+            assertArrayEquals((byte[]) expected[ENCODINGS.length - 1], (byte[]) actual[ENCODINGS.length - 1]);
+        }
+    }
+
+    @Test
+    void fillsByRowCountOrBytes() {
+        SpillBlock byRows = new SpillBlock(new ColumnEncoding[]{ColumnEncoding.INT});
+        for (int i = 0; i < SpillBlock.MAX_ROWS - 1; i++) {
+            byRows.add(new Object[]{i});
+        }
+        assertFalse(byRows.isFull());
+        byRows.add(new Object[]{0});
+        assertTrue(byRows.isFull());
+
+        SpillBlock byBytes = new SpillBlock(new ColumnEncoding[]{ColumnEncoding.BINARY});
+        byBytes.add(new Object[]{new byte[8 * 1024 * 1024]});
+        assertTrue(byBytes.isFull());
+    }
+
+    @Test
+    void rejectsCorruptedBlock() throws IOException {
+        SpillBlock block = new SpillBlock(new ColumnEncoding[]{ColumnEncoding.TEXT});
+        block.add(new Object[]{"abc"});
+        ByteBuffer record = block.encode();
+        int last = record.limit() - 1;
+        record.put(last, (byte) (record.get(last) ^ 1));
+        assertThrows(IOException.class, () -> SpillBlock.decode(record, new ColumnEncoding[]{ColumnEncoding.TEXT}));
+    }
+}